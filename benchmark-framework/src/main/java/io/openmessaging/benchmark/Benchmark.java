@@ -21,6 +21,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 import com.beust.jcommander.converters.FileConverter;
 import org.slf4j.Logger;
@@ -39,6 +40,7 @@ import io.openmessaging.benchmark.worker.DistributedWorkersEnsemble;
 import io.openmessaging.benchmark.worker.SwarmWorker;
 import io.openmessaging.benchmark.worker.LocalWorker;
 import io.openmessaging.benchmark.worker.Worker;
+import io.openmessaging.benchmark.worker.WorkerFailurePolicy;
 
 public class Benchmark {
     static enum Topology {
@@ -79,6 +81,26 @@ public class Benchmark {
         @Parameter(names = { "-x", "--extra" }, description = "Allocate extra consumer workers when your backlog builds.")
         boolean extraConsumers;
 
+        @Parameter(names = { "-fp", "--worker-failure-policy" }, description = "What to do when an ensemble worker "
+                + "stops responding: abort, continue with the remaining workers, or wait for it to come back")
+        public String workerFailurePolicy = WorkerFailurePolicy.ABORT.name();
+
+        @Parameter(names = { "-cw", "--calibrate-workers" }, description = "Measure the capacity of each ensemble "
+                + "worker with a short calibration run and split the load proportionally")
+        boolean calibrateWorkers;
+
+        @Parameter(names = { "-sa", "--stats-aggregation" }, description = "How the ensemble merges worker stats: "
+                + "parallel on the coordinator, or tree where some workers pre-merge the stats of their peers")
+        public String statsAggregation;
+
+        @Parameter(names = { "-rs", "--stream-results" }, description = "Write the samples of the test to an "
+                + "append-only file as they are collected instead of keeping them in memory, for long runs")
+        boolean streamResults;
+
+        @Parameter(names = { "--checkpoint-minutes" }, description = "How often to checkpoint the aggregated "
+                + "latencies into the streamed samples file")
+        long checkpointMinutes = 10;
+
         @Parameter(description = "Workloads")//, required = true)
         public List<String> workloads;
 
@@ -141,9 +163,17 @@ public class Benchmark {
             }
         }
 
+        Workers workersConfig = new Workers();
         if (arguments.workersFile != null) {
             log.info("Reading workers list from {}", arguments.workersFile);
-            arguments.workers = mapper.readValue(arguments.workersFile, Workers.class).workers;
+            workersConfig = mapper.readValue(arguments.workersFile, Workers.class);
+            arguments.workers = workersConfig.allWorkers();
+        } else if (arguments.workers != null) {
+            workersConfig.workers = arguments.workers;
+        }
+        workersConfig.calibrate |= arguments.calibrateWorkers;
+        if (arguments.statsAggregation != null) {
+            workersConfig.statsAggregation = arguments.statsAggregation;
         }
 
         // Dump configuration variables
@@ -164,7 +194,8 @@ public class Benchmark {
         if (arguments.workers != null && !arguments.workers.isEmpty()) {
             if (arguments.topology == null || arguments.topology.equals(Topology.ENSEMBLE.name)) {
                 log.info("Using DistributedWorkersEnsemble workers topology");
-                worker = new DistributedWorkersEnsemble(arguments.workers, arguments.extraConsumers);
+                worker = new DistributedWorkersEnsemble(workersConfig, arguments.extraConsumers,
+                        WorkerFailurePolicy.valueOf(arguments.workerFailurePolicy.toUpperCase()));
             } else if (arguments.topology.equals(Topology.SWARM.name)) {
                 log.info("Using SwarmWorker workers topology");
                 worker = new SwarmWorker(arguments.workers);
@@ -197,21 +228,35 @@ public class Benchmark {
                         worker.initializeDriver(new File(driverConfig));
 
                         WorkloadGenerator generator = new WorkloadGenerator(driverConfiguration.name, workload, worker);
-
-                        log.info("--------------- WORKLOAD : {} --- DRIVER : {}---------------", workload.name,
-                                driverConfiguration.name);
-                        TestResult result = generator.run();
-                        result.beginTime = beginTime;
-                        result.endTime = dateFormat.format(new Date());
-                        result.version = arguments.serviceVersion;
-
-                        boolean useOutput = (arguments.output != null) && (arguments.output.length() > 0);
-
-                        String fileName = useOutput? arguments.output: String.format("%s-%s-%s.json", workloadName,
-                        driverConfiguration.name, dateFormat.format(new Date()));
-
-                        log.info("Writing test result into {}", fileName);
-                        writer.writeValue(new File(fileName), result);
+                        // Closed whether the run succeeds or not, so that the samples of a failed run are kept
+                        try (ResultStream resultStream = arguments.streamResults
+                                ? new ResultStream(new File(String.format("%s-%s-%s.samples.jsonl", workloadName,
+                                        driverConfiguration.name, beginTime)), arguments.checkpointMinutes,
+                                        TimeUnit.MINUTES)
+                                : null) {
+                            if (resultStream != null) {
+                                generator.streamSamplesTo(resultStream);
+                            }
+
+                            log.info("--------------- WORKLOAD : {} --- DRIVER : {}---------------", workload.name,
+                                    driverConfiguration.name);
+                            TestResult result = generator.run();
+                            result.beginTime = beginTime;
+                            result.endTime = dateFormat.format(new Date());
+                            result.version = arguments.serviceVersion;
+
+                            boolean useOutput = (arguments.output != null) && (arguments.output.length() > 0);
+
+                            String fileName = useOutput? arguments.output: String.format("%s-%s-%s.json", workloadName,
+                            driverConfiguration.name, dateFormat.format(new Date()));
+
+                            log.info("Writing test result into {}", fileName);
+                            if (resultStream != null) {
+                                resultStream.writeResult(result, new File(fileName));
+                            } else {
+                                writer.writeValue(new File(fileName), result);
+                            }
+                        }
 
                         generator.close();
                     } catch (Exception e) {
@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark;
+
+/**
+ * Historical read of the topics: they are first filled up to prefillSizeGB at producerRate, then fresh subscriptions
+ * read them from the beginning until they catch up with the head, eg: to measure cold reads from disk or from
+ * tiered storage. The drivers must start new subscriptions from the earliest position, eg: with
+ * auto.offset.reset=earliest for Kafka. Data that was in the topics before the test is read as well, but the readers
+ * have caught up only once they received the messages produced by the test, so the retention of the topics must
+ * keep the whole pre-fill.
+ */
+public class CatchUpRead {
+
+    /** Data produced to the topics before the readers start, in GB over all the topics. */
+    public double prefillSizeGB;
+
+    /** Subscriptions created on each topic to read it from the beginning, and their consumers. */
+    public int subscriptionsPerTopic = 1;
+    public int consumersPerSubscription = 1;
+
+    /**
+     * Keep producing at producerRate during the read, to measure its impact on the latency of the tailing consumers
+     * of the workload against a baseline of baselineSeconds before the readers start. Otherwise the producers are
+     * paused and the readers run alone.
+     */
+    public boolean produceDuringRead;
+    public int baselineSeconds = 60;
+
+    public void validate() {
+        if (prefillSizeGB <= 0) {
+            throw new RuntimeException("Catch-up read prefillSizeGB must be positive");
+        }
+        if (subscriptionsPerTopic <= 0 || consumersPerSubscription <= 0) {
+            throw new RuntimeException("Catch-up read needs at least one subscription per topic and one consumer");
+        }
+        if (baselineSeconds < 0) {
+            throw new RuntimeException("Catch-up read baselineSeconds must not be negative");
+        }
+        if (prefillTimeoutMinutes < 0) {
+            throw new RuntimeException("Catch-up read prefillTimeoutMinutes must not be negative");
+        }
+    }
+
+    /**
+     * Longest time the pre-fill may take, 0 for no limit. The pre-fill fails anyway when the producers do not
+     * send anything for a minute.
+     */
+    public int prefillTimeoutMinutes;
+
+    /** Name of the stats of the readers, reported by the workers apart from the tailing consumers. */
+    public static final String READERS_STATS = "catch-up-read";
+
+    /**
+     * Name of the stats of the messages produced by the test that the readers received, without the data that was
+     * in the topics before, eg: when using existing topics.
+     */
+    public static final String READERS_TEST_DATA_STATS = "catch-up-read-test-data";
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+
+/**
+ * What was observed during a {@link CatchUpRead}: the pre-fill, the read throughput of the readers per sample, the
+ * time they took to catch up and the latency of the tailing consumers before and during the read. Latencies are in
+ * milliseconds.
+ */
+public class CatchUpReadResult {
+
+    public double prefillGB;
+    public double prefillSeconds;
+
+    public int readers;
+    public boolean produceDuringRead;
+
+    // Index of the first sample of the test that includes the readers
+    public int sampleIndex;
+
+    // Time from the creation of the readers until their backlog reached the head of the topics, null if it did
+    // not within testDurationMinutes
+    public Double catchUpMillis;
+
+    public List<Double> readRate = new ArrayList<>();
+    public List<Double> readThroughputMBps = new ArrayList<>();
+    public List<Long> backlog = new ArrayList<>();
+    public double averageReadThroughputMBps;
+
+    // Not measured when the producers are paused during the read
+    public double tailEndToEndLatency50pctBefore;
+    public double tailEndToEndLatency99pctBefore;
+    public double tailEndToEndLatency50pctDuring;
+    public double tailEndToEndLatency99pctDuring;
+
+    @JsonIgnore
+    private final Histogram tailLatencyBefore = new Histogram(5);
+    @JsonIgnore
+    private final Histogram tailLatencyDuring = new Histogram(5);
+    @JsonIgnore
+    private long bytesRead;
+    @JsonIgnore
+    private double readSeconds;
+
+    /**
+     * @param stats stats of the sample, the tailing consumers only
+     */
+    public void addBaselineSample(PeriodStats stats) {
+        tailLatencyBefore.add(stats.endToEndLatency);
+    }
+
+    /**
+     * @param stats stats of the sample, the tailing consumers only
+     * @param readerStats stats of the readers during the sample
+     */
+    public void addSample(PeriodStats stats, PeriodStats readerStats, double elapsedSeconds, long backlog) {
+        tailLatencyDuring.add(stats.endToEndLatency);
+        readRate.add(readerStats.messagesReceived / elapsedSeconds);
+        readThroughputMBps.add(readerStats.bytesReceived / elapsedSeconds / 1024 / 1024);
+        this.backlog.add(backlog);
+        bytesRead += readerStats.bytesReceived;
+        readSeconds += elapsedSeconds;
+    }
+
+    public void aggregate() {
+        averageReadThroughputMBps = readSeconds > 0 ? bytesRead / readSeconds / 1024 / 1024 : 0;
+        if (produceDuringRead) {
+            tailEndToEndLatency50pctBefore = microsToMillis(tailLatencyBefore.getValueAtPercentile(50));
+            tailEndToEndLatency99pctBefore = microsToMillis(tailLatencyBefore.getValueAtPercentile(99));
+            tailEndToEndLatency50pctDuring = microsToMillis(tailLatencyDuring.getValueAtPercentile(50));
+            tailEndToEndLatency99pctDuring = microsToMillis(tailLatencyDuring.getValueAtPercentile(99));
+        }
+    }
+
+    private static double microsToMillis(double timeInMicros) {
+        return timeInMicros / 1000.0;
+    }
+}
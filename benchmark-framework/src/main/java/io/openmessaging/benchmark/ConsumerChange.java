@@ -0,0 +1,36 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark;
+
+/**
+ * Consumers to add to or remove from every subscription at some point of the test, eg: to measure the effect of a
+ * deploy or of autoscaling on a consumer group.
+ */
+public class ConsumerChange {
+
+    /** Time of the change, since the start of the test (after warm-up). */
+    public int atSeconds;
+
+    /** Number of consumers to add to each subscription, or to remove from it if negative. */
+    public int consumersPerSubscription;
+
+    public void validate() {
+        if (atSeconds < 0) {
+            throw new RuntimeException("Consumer change atSeconds must not be negative");
+        }
+        if (consumersPerSubscription == 0) {
+            throw new RuntimeException("Consumer change must add or remove at least one consumer per subscription");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark;
+
+/**
+ * What was observed around one {@link ConsumerChange}.
+ */
+public class ConsumerChangeResult {
+    public int atSeconds;
+    public int consumersPerSubscription;
+    public int consumersChanged;
+
+    // Index of the first sample of the test that includes the change
+    public int sampleIndex;
+
+    // Time taken to create or close the consumers
+    public double changeMillis;
+
+    // Time until every added consumer received a message, null if some never did (eg: more consumers than
+    // partitions) or if consumers were removed
+    public Double timeToFirstMessageMillis;
+
+    // Time until the backlog went back to its level before the change for good, null if it did not within the
+    // observation window. This is the time the group took to own all the partitions again and catch up.
+    public Double recoveryMillis;
+
+    public long backlogBefore;
+    public long peakBacklog;
+
+    // Not measured when the samples are streamed to a file, as the series are not kept in memory
+    public double endToEndLatency99pctBefore;
+    public double peakEndToEndLatency99pct;
+}
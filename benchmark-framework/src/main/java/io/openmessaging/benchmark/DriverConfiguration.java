@@ -18,4 +18,13 @@ public class DriverConfiguration {
 
     public String driverClass;
 
+    /** Number of topics created with a single createTopics call. */
+    public int topicCreationBatchSize = 100;
+
+    /** Maximum number of createTopics calls in flight on each worker. */
+    public int topicCreationConcurrency = 8;
+
+    /** Maximum number of producers or consumers being created at the same time on each worker. */
+    public int clientCreationConcurrency = 16;
+
 }
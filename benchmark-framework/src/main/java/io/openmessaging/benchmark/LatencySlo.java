@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark;
+
+import org.HdrHistogram.Histogram;
+
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+
+/**
+ * A latency objective, eg: p99 end-to-end latency below 50 ms, used when searching for the maximum sustainable
+ * rate.
+ */
+public class LatencySlo {
+
+    public enum Metric {
+        PUBLISH, PUBLISH_DELAY, END_TO_END
+    }
+
+    public Metric metric;
+    public double percentile;
+    public double maxLatencyMs;
+
+    public LatencySlo() {
+    }
+
+    public LatencySlo(Metric metric, double percentile, double maxLatencyMs) {
+        this.metric = metric;
+        this.percentile = percentile;
+        this.maxLatencyMs = maxLatencyMs;
+    }
+
+    /**
+     * @return the latency observed for this objective in the given stats, in milliseconds
+     */
+    public double valueMs(PeriodStats stats) {
+        return histogram(stats).getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public boolean isMet(PeriodStats stats) {
+        return valueMs(stats) <= maxLatencyMs;
+    }
+
+    private Histogram histogram(PeriodStats stats) {
+        switch (metric) {
+            case PUBLISH:
+                return stats.publishLatency;
+            case PUBLISH_DELAY:
+                return stats.publishDelayLatency;
+            case END_TO_END:
+            default:
+                return stats.endToEndLatency;
+        }
+    }
+
+    public void validate() {
+        if (metric == null) {
+            throw new RuntimeException("Latency SLO must specify a metric");
+        }
+        if (percentile <= 0 || percentile > 100) {
+            throw new RuntimeException(String.format("Latency SLO percentile must be in (0, 100]: %s", percentile));
+        }
+        if (maxLatencyMs <= 0) {
+            throw new RuntimeException(String.format("Latency SLO maxLatencyMs must be positive: %s", maxLatencyMs));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s p%s < %s ms", metric, percentile, maxLatencyMs);
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.openmessaging.benchmark.worker.Worker;
+import io.openmessaging.benchmark.worker.commands.CountersStats;
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+import io.openmessaging.benchmark.worker.commands.WorkerFleetEvent;
+
+/**
+ * Searches for the highest publish rate at which the producers keep up, the consumers do not build backlog and all
+ * the latency SLOs of the workload are met.
+ *
+ * Each rate is held for a fixed probe window and judged on the interval histograms collected over that window only.
+ * The search first brackets the answer by doubling or halving the rate, then bisects the bracket (on a log scale)
+ * until it is narrower than the requested precision. The lower end is confirmed with extra probes before being
+ * reported, and the bracket itself is reported as the confidence bounds.
+ */
+public class RateSearch {
+
+    private static final int MAX_PROBES = 40;
+    private static final int CONFIRMATION_PROBES = 2;
+    private static final double MIN_RATE = 1.0;
+    private static final long SETTLE_MILLIS = 2_000;
+
+    private final Workload workload;
+    private final Worker worker;
+
+    private double lowerBound = 0;
+    private double upperBound = Double.POSITIVE_INFINITY;
+    private final List<RateSearchProbe> probes = new ArrayList<>();
+    private final List<WorkerFleetEvent> fleetEvents = new ArrayList<>();
+
+    public RateSearch(Workload workload, Worker worker) {
+        this.workload = workload;
+        this.worker = worker;
+    }
+
+    /**
+     * Run the search, starting from the given rate. The load must already be running.
+     *
+     * @return the highest rate that passed all its probes, or 0 if none did
+     */
+    public double search(double initialRate) throws IOException {
+        int confirmations = 0;
+
+        while (probes.size() < MAX_PROBES) {
+            boolean confirming = false;
+            double rate;
+            if (upperBound == Double.POSITIVE_INFINITY) {
+                rate = lowerBound == 0 ? initialRate : lowerBound * 2;
+            } else if (lowerBound == 0) {
+                rate = upperBound / 2;
+                if (rate < MIN_RATE) {
+                    log.warn("No rate above {} msg/s meets the latency SLOs", MIN_RATE);
+                    break;
+                }
+            } else if (upperBound <= lowerBound * (1 + workload.rateSearchPrecision)) {
+                if (confirmations >= CONFIRMATION_PROBES) {
+                    break;
+                }
+                confirming = true;
+                rate = lowerBound;
+            } else {
+                rate = Math.sqrt(lowerBound * upperBound);
+            }
+
+            RateSearchProbe probe = probe(rate);
+            probes.add(probe);
+            log.info("----- Rate search probe {}: {}", probes.size(), probe);
+
+            if (probe.passed) {
+                lowerBound = Math.max(lowerBound, rate);
+                if (confirming) {
+                    confirmations++;
+                }
+            } else {
+                if (confirming) {
+                    // The lower end did not hold up, it becomes the new upper end and the search goes on below it
+                    upperBound = lowerBound;
+                    lowerBound = 0;
+                    confirmations = 0;
+                } else {
+                    upperBound = Math.min(upperBound, rate);
+                }
+                drainBacklog();
+            }
+        }
+
+        if (probes.size() >= MAX_PROBES) {
+            log.warn("Rate search stopped after {} probes", MAX_PROBES);
+        }
+        log.info("----- Maximum sustainable rate: {} msg/s (bounds: {} - {})", lowerBound, lowerBound,
+                upperBound);
+        return lowerBound;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * @return the lowest rate that failed a probe, or null if no probe failed
+     */
+    public Double getUpperBound() {
+        return upperBound == Double.POSITIVE_INFINITY ? null : upperBound;
+    }
+
+    public List<RateSearchProbe> getProbes() {
+        return probes;
+    }
+
+    public List<WorkerFleetEvent> getFleetEvents() {
+        return fleetEvents;
+    }
+
+    private RateSearchProbe probe(double rate) throws IOException {
+        worker.adjustPublishRate(rate);
+        sleep(SETTLE_MILLIS);
+
+        // Discard everything recorded before the rate change had settled
+        PeriodStats first = worker.getPeriodStats();
+        fleetEvents.addAll(first.fleetEvents);
+        long startBacklog = backlog(first);
+
+        PeriodStats window = new PeriodStats();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(workload.rateSearchProbeSeconds);
+        long lastBacklog = startBacklog;
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            sleep(Math.min(workload.sampleRateMillis, TimeUnit.NANOSECONDS.toMillis(end - now) + 1));
+            PeriodStats stats = worker.getPeriodStats();
+            fleetEvents.addAll(stats.fleetEvents);
+
+            window.messagesSent += stats.messagesSent;
+            window.messagesReceived += stats.messagesReceived;
+            window.errors += stats.errors;
+            window.pollErrors += stats.pollErrors;
+            window.publishLatency.add(stats.publishLatency);
+            window.publishDelayLatency.add(stats.publishDelayLatency);
+            window.endToEndLatency.add(stats.endToEndLatency);
+            lastBacklog = backlog(stats);
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        RateSearchProbe probe = new RateSearchProbe();
+        probe.rate = rate;
+        probe.publishRate = window.messagesSent / elapsed;
+        probe.consumeRate = window.messagesReceived / elapsed;
+        probe.backlogGrowth = lastBacklog - startBacklog;
+        probe.errors = window.errors;
+        probe.passed = true;
+
+        List<String> failures = new ArrayList<>();
+        if (probe.publishRate < rate * 0.95) {
+            failures.add("publishers behind");
+        }
+        long expectedReceived = window.messagesSent * workload.subscriptionsPerTopic;
+        if (workload.getConsumerCount() > 0 && probe.backlogGrowth > expectedReceived * 0.02) {
+            failures.add("consumers behind");
+        }
+        for (LatencySlo slo : workload.latencySlos) {
+            double value = slo.valueMs(window);
+            probe.latenciesMs.put(slo.toString(), value);
+            if (value > slo.maxLatencyMs) {
+                failures.add(slo.toString());
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            probe.passed = false;
+            probe.reason = String.join(", ", failures);
+        }
+        return probe;
+    }
+
+    /**
+     * Slow the producers down after a failed probe so that the next probe does not start behind a backlog.
+     */
+    private void drainBacklog() throws IOException {
+        if (workload.getConsumerCount() == 0) {
+            return;
+        }
+
+        double drainRate = lowerBound > 0 ? lowerBound / 2 : MIN_RATE;
+        worker.adjustPublishRate(drainRate);
+
+        long threshold = (long) Math.max(1000, lowerBound * workload.subscriptionsPerTopic);
+        long deadline = System.currentTimeMillis() + 4 * TimeUnit.SECONDS.toMillis(workload.rateSearchProbeSeconds);
+        while (System.currentTimeMillis() < deadline) {
+            CountersStats stats = worker.getCountersStats();
+            long backlog = workload.subscriptionsPerTopic * stats.messagesSent - stats.messagesReceived;
+            if (backlog < threshold) {
+                return;
+            }
+            sleep(500);
+        }
+        log.warn("Timed out draining the backlog between rate search probes");
+    }
+
+    private long backlog(PeriodStats stats) {
+        return workload.subscriptionsPerTopic * stats.totalMessagesSent - stats.totalMessagesReceived;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(RateSearch.class);
+}
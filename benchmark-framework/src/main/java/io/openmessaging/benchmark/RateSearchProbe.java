@@ -0,0 +1,41 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One rate tried by the maximum sustainable rate search, and what was observed at that rate.
+ */
+public class RateSearchProbe {
+    public double rate;
+    public double publishRate;
+    public double consumeRate;
+    public long backlogGrowth;
+    public long errors;
+
+    // Observed value of each latency SLO, in milliseconds
+    public Map<String, Double> latenciesMs = new LinkedHashMap<>();
+
+    public boolean passed;
+    public String reason;
+
+    @Override
+    public String toString() {
+        return String.format("rate: %.1f msg/s -- publish: %.1f msg/s -- consume: %.1f msg/s -- backlog growth: %d"
+                + " -- errors: %d -- latencies: %s -- %s", rate, publishRate, consumeRate, backlogGrowth, errors,
+                latenciesMs, passed ? "PASSED" : "FAILED (" + reason + ")");
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+
+/**
+ * Writes the per-sample series of a test to an append-only JSON lines file as the test goes, instead of keeping
+ * them in the {@link TestResult}, so that long runs use a flat amount of memory and a crashed run keeps its samples.
+ *
+ * Each sample is one line of type "sample", with one field per series of the test result. Checkpoint lines carry
+ * the latency histograms accumulated since the start of the test, compressed and base64 encoded, so that a crashed
+ * run still has its aggregated latencies up to the last checkpoint. At the end of the run the final result file is
+ * assembled by splitting the samples into one temporary file per series in a single pass, then copying each series
+ * into the test result.
+ */
+public class ResultStream implements AutoCloseable {
+
+    private static final String SAMPLE = "sample";
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final File file;
+    private final FileOutputStream out;
+    private final Writer lineWriter;
+    private final long checkpointIntervalNanos;
+
+    private int sampleCount = 0;
+
+    private final long start = System.nanoTime();
+    private long lastCheckpoint = start;
+    private final Histogram publishLatency = new Histogram(5);
+    private final Histogram publishDelayLatency = new Histogram(5);
+    private final Histogram endToEndLatency = new Histogram(5);
+
+    public ResultStream(File file, long checkpointInterval, TimeUnit unit) throws IOException {
+        this.file = file;
+        this.out = new FileOutputStream(file, true);
+        this.lineWriter = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        this.checkpointIntervalNanos = unit.toNanos(checkpointInterval);
+        log.info("Streaming test samples into {}", file);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Append the samples of a result, eg: one step of a sweep or a single sample, to the stream.
+     */
+    public synchronized void writeSamples(TestResult samples) throws IOException {
+        ObjectNode tree = mapper.valueToTree(samples);
+        for (int i = 0; i < samples.sent.size(); i++) {
+            ObjectNode line = mapper.createObjectNode();
+            line.put("type", SAMPLE);
+            line.put("index", sampleCount);
+            for (String name : TestResult.SERIES) {
+                JsonNode value = tree.path(name).get(i);
+                if (value != null) {
+                    line.set(name, value);
+                }
+            }
+            writeLine(line);
+            sampleCount++;
+        }
+        lineWriter.flush();
+    }
+
+    /**
+     * Accumulate the latencies of a sample, and write a checkpoint if it is time to.
+     */
+    public synchronized void accumulate(PeriodStats stats) throws IOException {
+        publishLatency.add(stats.publishLatency);
+        publishDelayLatency.add(stats.publishDelayLatency);
+        endToEndLatency.add(stats.endToEndLatency);
+
+        long now = System.nanoTime();
+        if (now - lastCheckpoint >= checkpointIntervalNanos) {
+            checkpoint(now);
+        }
+    }
+
+    private void checkpoint(long now) throws IOException {
+        lastCheckpoint = now;
+        ObjectNode line = mapper.createObjectNode();
+        line.put("type", CHECKPOINT);
+        line.put("samples", sampleCount);
+        line.put("elapsedSeconds", (now - start) / 1e9);
+        putHistogram(line, "publishLatency", publishLatency);
+        putHistogram(line, "publishDelayLatency", publishDelayLatency);
+        putHistogram(line, "endToEndLatency", endToEndLatency);
+        writeLine(line);
+        lineWriter.flush();
+        out.getFD().sync();
+        log.info("Checkpointed {} samples into {}", sampleCount, file);
+    }
+
+    private static void putHistogram(ObjectNode line, String name, Histogram histogram) {
+        line.put(name + "99pct", histogram.getValueAtPercentile(99) / 1000.0);
+        line.put(name + "Max", histogram.getMaxValue() / 1000.0);
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        histogram.encodeIntoCompressedByteBuffer(buffer);
+        buffer.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        line.put(name + "Histogram", Base64.getEncoder().encodeToString(bytes));
+    }
+
+    private void writeLine(ObjectNode line) throws IOException {
+        lineWriter.write(mapper.writeValueAsString(line));
+        lineWriter.write('\n');
+    }
+
+    /**
+     * Write the final result file: the fields of the result, with its series read back from the samples.
+     */
+    public synchronized void writeResult(TestResult result, File output) throws IOException {
+        checkpoint(System.nanoTime());
+
+        Map<String, File> seriesFiles = new HashMap<>();
+        try {
+            splitSeries(seriesFiles);
+
+            ObjectNode tree = mapper.valueToTree(result);
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+                generator.useDefaultPrettyPrinter();
+                generator.writeStartObject();
+                Iterator<Map.Entry<String, JsonNode>> fields = tree.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    generator.writeFieldName(field.getKey());
+                    if (TestResult.SERIES.contains(field.getKey())) {
+                        writeSeries(generator, seriesFiles.get(field.getKey()));
+                    } else {
+                        generator.writeTree(field.getValue());
+                    }
+                }
+                generator.writeEndObject();
+            }
+        } finally {
+            seriesFiles.values().forEach(File::delete);
+        }
+    }
+
+    /**
+     * Read the samples once, writing the values of each series to its own temporary file, one value per line.
+     */
+    private void splitSeries(Map<String, File> seriesFiles) throws IOException {
+        Map<String, Writer> writers = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            for (String name : TestResult.SERIES) {
+                File seriesFile = File.createTempFile(name + "-", ".jsonl", file.getAbsoluteFile().getParentFile());
+                seriesFiles.put(name, seriesFile);
+                writers.put(name, Files.newBufferedWriter(seriesFile.toPath(), StandardCharsets.UTF_8));
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonNode node = mapper.readTree(line);
+                if (!SAMPLE.equals(node.path("type").asText())) {
+                    continue;
+                }
+                for (Map.Entry<String, Writer> writer : writers.entrySet()) {
+                    JsonNode value = node.get(writer.getKey());
+                    if (value != null) {
+                        writer.getValue().write(mapper.writeValueAsString(value));
+                        writer.getValue().write('\n');
+                    }
+                }
+            }
+        } finally {
+            for (Writer writer : writers.values()) {
+                writer.close();
+            }
+        }
+    }
+
+    private static void writeSeries(JsonGenerator generator, File seriesFile) throws IOException {
+        generator.writeStartArray();
+        try (BufferedReader reader = Files.newBufferedReader(seriesFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                generator.writeTree(mapper.readTree(line));
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        lineWriter.close();
+    }
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final Logger log = LoggerFactory.getLogger(ResultStream.class);
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Decides when a warm-up has reached steady state: the publish rate and the p99 publish and end-to-end latencies of
+ * the last few interval samples all stay within a tolerance of their mean.
+ */
+public class SteadyStateDetector {
+
+    // Latency spreads below this are considered noise, whatever the relative tolerance
+    private static final double LATENCY_FLOOR_MS = 1.0;
+
+    private static class Sample {
+        final double publishRate;
+        final double publishLatency99pct;
+        final double endToEndLatency99pct;
+
+        Sample(double publishRate, double publishLatency99pct, double endToEndLatency99pct) {
+            this.publishRate = publishRate;
+            this.publishLatency99pct = publishLatency99pct;
+            this.endToEndLatency99pct = endToEndLatency99pct;
+        }
+    }
+
+    private final int windowSize;
+    private final double throughputTolerance;
+    private final double latencyTolerance;
+    private final Deque<Sample> window = new ArrayDeque<>();
+
+    public SteadyStateDetector(int windowSize, double throughputTolerance, double latencyTolerance) {
+        this.windowSize = windowSize;
+        this.throughputTolerance = throughputTolerance;
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    /**
+     * Add the next interval sample, latencies in milliseconds.
+     *
+     * @return true if the samples in the window have stabilized
+     */
+    public boolean addSample(double publishRate, double publishLatency99pct, double endToEndLatency99pct) {
+        window.addLast(new Sample(publishRate, publishLatency99pct, endToEndLatency99pct));
+        if (window.size() > windowSize) {
+            window.removeFirst();
+        }
+        return isSteady();
+    }
+
+    public boolean isSteady() {
+        return window.size() >= windowSize
+                && isStable(s -> s.publishRate, throughputTolerance, 0)
+                && isStable(s -> s.publishLatency99pct, latencyTolerance, LATENCY_FLOOR_MS)
+                && isStable(s -> s.endToEndLatency99pct, latencyTolerance, LATENCY_FLOOR_MS);
+    }
+
+    private boolean isStable(ToDoubleFunction<Sample> metric, double tolerance, double floor) {
+        double min = window.stream().mapToDouble(metric).min().getAsDouble();
+        double max = window.stream().mapToDouble(metric).max().getAsDouble();
+        double mean = window.stream().mapToDouble(metric).average().getAsDouble();
+        return max - min <= Math.max(tolerance * mean, floor);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The rates and aggregated latencies measured at one step of a throughput-latency sweep or one phase of a scenario.
+ */
+public class StepResult {
+    public String name;
+    public double targetRate;
+    public double durationSeconds;
+
+    // Position of the step samples in the per-sample series of the test result
+    public int firstSampleIndex;
+    public int sampleCount;
+
+    public double publishRate;
+    public double consumeRate;
+    public long publishFailed;
+    public long backlog;
+
+    public double aggregatedPublishLatencyAvg;
+    public double aggregatedPublishLatency50pct;
+    public double aggregatedPublishLatency99pct;
+    public double aggregatedPublishLatency999pct;
+    public double aggregatedPublishLatencyMax;
+    public Map<Double, Double> aggregatedPublishLatencyQuantiles = new TreeMap<>();
+
+    public double aggregatedPublishDelayLatencyAvg;
+    public long aggregatedPublishDelayLatency50pct;
+    public long aggregatedPublishDelayLatency99pct;
+    public long aggregatedPublishDelayLatency999pct;
+    public long aggregatedPublishDelayLatencyMax;
+    public Map<Double, Long> aggregatedPublishDelayLatencyQuantiles = new TreeMap<>();
+
+    public double aggregatedEndToEndLatencyAvg;
+    public double aggregatedEndToEndLatency50pct;
+    public double aggregatedEndToEndLatency99pct;
+    public double aggregatedEndToEndLatency999pct;
+    public double aggregatedEndToEndLatencyMax;
+    public Map<Double, Double> aggregatedEndToEndLatencyQuantiles = new TreeMap<>();
+
+    public static StepResult fromResult(String name, double targetRate, double durationSeconds, int firstSampleIndex,
+            TestResult r) {
+        StepResult step = new StepResult();
+        step.name = name;
+        step.targetRate = targetRate;
+        step.durationSeconds = durationSeconds;
+        step.firstSampleIndex = firstSampleIndex;
+        step.sampleCount = r.sent.size();
+        step.publishRate = r.publishRate.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        step.consumeRate = r.consumeRate.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+        step.publishFailed = r.publishFailed.stream().mapToLong(Long::longValue).sum();
+        step.backlog = r.backlog.isEmpty() ? 0 : r.backlog.get(r.backlog.size() - 1);
+
+        step.aggregatedPublishLatencyAvg = r.aggregatedPublishLatencyAvg;
+        step.aggregatedPublishLatency50pct = r.aggregatedPublishLatency50pct;
+        step.aggregatedPublishLatency99pct = r.aggregatedPublishLatency99pct;
+        step.aggregatedPublishLatency999pct = r.aggregatedPublishLatency999pct;
+        step.aggregatedPublishLatencyMax = r.aggregatedPublishLatencyMax;
+        step.aggregatedPublishLatencyQuantiles = r.aggregatedPublishLatencyQuantiles;
+
+        step.aggregatedPublishDelayLatencyAvg = r.aggregatedPublishDelayLatencyAvg;
+        step.aggregatedPublishDelayLatency50pct = r.aggregatedPublishDelayLatency50pct;
+        step.aggregatedPublishDelayLatency99pct = r.aggregatedPublishDelayLatency99pct;
+        step.aggregatedPublishDelayLatency999pct = r.aggregatedPublishDelayLatency999pct;
+        step.aggregatedPublishDelayLatencyMax = r.aggregatedPublishDelayLatencyMax;
+        step.aggregatedPublishDelayLatencyQuantiles = r.aggregatedPublishDelayLatencyQuantiles;
+
+        step.aggregatedEndToEndLatencyAvg = r.aggregatedEndToEndLatencyAvg;
+        step.aggregatedEndToEndLatency50pct = r.aggregatedEndToEndLatency50pct;
+        step.aggregatedEndToEndLatency99pct = r.aggregatedEndToEndLatency99pct;
+        step.aggregatedEndToEndLatency999pct = r.aggregatedEndToEndLatency999pct;
+        step.aggregatedEndToEndLatencyMax = r.aggregatedEndToEndLatencyMax;
+        step.aggregatedEndToEndLatencyQuantiles = r.aggregatedEndToEndLatencyQuantiles;
+        return step;
+    }
+}
@@ -14,23 +14,74 @@
 package io.openmessaging.benchmark;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
+import io.openmessaging.benchmark.worker.commands.WorkerFleetEvent;
+
 public class TestResult {
+
+    // Fields holding one value per sample, which the result stream writes as sample lines
+    static final List<String> SERIES = Arrays.asList("sent", "consumed", "publishFailed", "consumeFailed",
+            "publishRate", "consumeRate", "backlog", "statsAggregationTimeMillis", "missingWorkers",
+            "publishLatencyAvg", "publishLatencyMin", "publishLatency50pct", "publishLatency75pct",
+            "publishLatency95pct", "publishLatency99pct", "publishLatency999pct", "publishLatency9999pct",
+            "publishLatencyMax", "scheduleLatencyMin", "scheduleLatency50pct", "scheduleLatency75pct",
+            "scheduleLatency99pct", "scheduleLatencyMax", "publishDelayLatencyAvg", "publishDelayLatency50pct",
+            "publishDelayLatency75pct", "publishDelayLatency95pct", "publishDelayLatency99pct",
+            "publishDelayLatency999pct", "publishDelayLatency9999pct", "publishDelayLatencyMax",
+            "endToEndLatencyMin", "endToEndLatencyAvg", "endToEndLatency50pct", "endToEndLatency75pct",
+            "endToEndLatency95pct", "endToEndLatency99pct", "endToEndLatency999pct", "endToEndLatency9999pct",
+            "endToEndLatencyMax");
+
     public String workload;
     public String driver;
     public String version;
     public String beginTime;
     public String endTime;
     public long messageSize;
+    // Set instead of messageSize when the sizes vary, with the average size of the messages actually sent
+    public String messageSizeDistribution;
+    public double averageMessageSize;
+    // Content of the randomized payloads, and how they compress with each codec of the producer clients
+    public String payloadCorpus;
+    public Map<String, Double> compressionRatio = new TreeMap<>();
+    public Map<String, Double> compressionCpuMillisPerMB = new TreeMap<>();
     public int topics;
     public int partitions;
     public int producersPerTopic;
     public int consumersPerTopic;
     public int sampleRateMillis;
 
+    // Actual warm-up duration, and whether it ended because steady state was detected (adaptive warm-up only)
+    public double warmupDurationSeconds;
+    public boolean warmupReachedSteadyState;
+
+    // Workers lost or recovered during the test, each pointing to the affected sample
+    public List<WorkerFleetEvent> fleetEvents = new ArrayList<>();
+
+    // Result of the latency SLO rate search, the maximum rate is the confirmed lower bound (0 if no rate met the
+    // SLOs) and the upper bound is the lowest rate that failed (null if none did). The test is then measured at the
+    // maximum rate, or at the rate the search started from when no rate met the SLOs.
+    public Double maxSustainableRate;
+    public Double maxSustainableRateUpperBound;
+    public Double rateSearchMeasuredRate;
+    public List<RateSearchProbe> rateSearchProbes = new ArrayList<>();
+
+    // Aggregated results of each step of a throughput-latency sweep, in the order the rates were run
+    public List<StepResult> sweepSteps = new ArrayList<>();
+
+    // Aggregated results of each phase of a scenario workload
+    public List<StepResult> phases = new ArrayList<>();
+
+    // Consumers added or removed during the test, and how the group recovered from each change
+    public List<ConsumerChangeResult> consumerChanges = new ArrayList<>();
+
+    // Historical read from the beginning of the pre-filled topics, null if the workload has none
+    public CatchUpReadResult catchUpRead;
+
     public List<Long> sent = new ArrayList<>();
     public List<Long> consumed = new ArrayList<>();
     public List<Long> publishFailed = new ArrayList<>();
@@ -40,6 +91,12 @@ public class TestResult {
     public List<Double> consumeRate = new ArrayList<>();
     public List<Long> backlog = new ArrayList<>();
 
+    // Time spent merging the stats of the workers on each sample
+    public List<Double> statsAggregationTimeMillis = new ArrayList<>();
+
+    // Workers whose stats are missing from each sample, which then only partially covers the interval
+    public List<Integer> missingWorkers = new ArrayList<>();
+
     public List<Double> scheduleLatencyMin = new ArrayList<>();
     public List<Double> scheduleLatency50pct = new ArrayList<>();
     public List<Double> scheduleLatency75pct = new ArrayList<>();
@@ -66,6 +123,9 @@ public class TestResult {
     public List<Long> publishDelayLatency9999pct = new ArrayList<>();
     public List<Long> publishDelayLatencyMax = new ArrayList<>();
 
+    // Workers whose latencies are missing from the aggregated latencies, which then only cover the other ones
+    public int aggregatedLatencyMissingWorkers;
+
     public double aggregatedPublishLatencyAvg;
     public double aggregatedPublishLatency50pct;
     public double aggregatedPublishLatency75pct;
@@ -112,6 +172,95 @@ public class TestResult {
     public double aggregatedEndToEndLatency9999pct;
     public double aggregatedEndToEndLatencyMax;
 
+    // Time taken to create each producer and consumer, including the ones created during the run, in milliseconds
+    public double producerCreationLatencyAvg;
+    public double producerCreationLatency50pct;
+    public double producerCreationLatency99pct;
+    public double producerCreationLatencyMax;
+    public Map<Double, Double> producerCreationLatencyQuantiles = new TreeMap<>();
+
+    public double consumerCreationLatencyAvg;
+    public double consumerCreationLatency50pct;
+    public double consumerCreationLatency99pct;
+    public double consumerCreationLatencyMax;
+    public Map<Double, Double> consumerCreationLatencyQuantiles = new TreeMap<>();
+
+    // Producer churn: time for each recreated producer to get its first message acknowledged, and publish latency
+    // of the producers that were not churned, in milliseconds
+    public double producerFirstSendLatencyAvg;
+    public double producerFirstSendLatency50pct;
+    public double producerFirstSendLatency99pct;
+    public double producerFirstSendLatencyMax;
+
+    public double steadyPublishLatency50pct;
+    public double steadyPublishLatency99pct;
+    public double steadyPublishLatency999pct;
+    public double steadyPublishLatencyMax;
+
+    // Estimated messages sent with keys to each partition index, summed over the topics, since the start of the
+    // load. Keys are mapped to partitions with the Kafka default partitioner, so the estimate only matches where the
+    // messages landed for Kafka protocol drivers. The skew is the busiest partition over the mean.
+    public List<Long> estimatedMessagesSentPerPartition;
+    public double estimatedPartitionSkew;
+
+    // One section per topic group of the workload, by group name
+    public Map<String, TopicGroupResult> topicGroups = new TreeMap<>();
+
+    /**
+     * Append the per-sample series of another result, eg: one step of a sweep, after the samples of this one. Series
+     * added here must be listed in {@link #SERIES} as well.
+     */
+    public void appendSamples(TestResult other) {
+        int offset = sent.size();
+        for (WorkerFleetEvent event : other.fleetEvents) {
+            if (event.sampleIndex >= 0) {
+                event.sampleIndex += offset;
+            }
+            fleetEvents.add(event);
+        }
+
+        sent.addAll(other.sent);
+        consumed.addAll(other.consumed);
+        publishFailed.addAll(other.publishFailed);
+        consumeFailed.addAll(other.consumeFailed);
+        publishRate.addAll(other.publishRate);
+        consumeRate.addAll(other.consumeRate);
+        backlog.addAll(other.backlog);
+        statsAggregationTimeMillis.addAll(other.statsAggregationTimeMillis);
+        missingWorkers.addAll(other.missingWorkers);
+        scheduleLatencyMin.addAll(other.scheduleLatencyMin);
+        scheduleLatency50pct.addAll(other.scheduleLatency50pct);
+        scheduleLatency75pct.addAll(other.scheduleLatency75pct);
+        scheduleLatency99pct.addAll(other.scheduleLatency99pct);
+        scheduleLatencyMax.addAll(other.scheduleLatencyMax);
+        publishLatencyMin.addAll(other.publishLatencyMin);
+        publishLatencyAvg.addAll(other.publishLatencyAvg);
+        publishLatency50pct.addAll(other.publishLatency50pct);
+        publishLatency75pct.addAll(other.publishLatency75pct);
+        publishLatency95pct.addAll(other.publishLatency95pct);
+        publishLatency99pct.addAll(other.publishLatency99pct);
+        publishLatency999pct.addAll(other.publishLatency999pct);
+        publishLatency9999pct.addAll(other.publishLatency9999pct);
+        publishLatencyMax.addAll(other.publishLatencyMax);
+        publishDelayLatencyAvg.addAll(other.publishDelayLatencyAvg);
+        publishDelayLatency50pct.addAll(other.publishDelayLatency50pct);
+        publishDelayLatency75pct.addAll(other.publishDelayLatency75pct);
+        publishDelayLatency95pct.addAll(other.publishDelayLatency95pct);
+        publishDelayLatency99pct.addAll(other.publishDelayLatency99pct);
+        publishDelayLatency999pct.addAll(other.publishDelayLatency999pct);
+        publishDelayLatency9999pct.addAll(other.publishDelayLatency9999pct);
+        publishDelayLatencyMax.addAll(other.publishDelayLatencyMax);
+        endToEndLatencyMin.addAll(other.endToEndLatencyMin);
+        endToEndLatencyAvg.addAll(other.endToEndLatencyAvg);
+        endToEndLatency50pct.addAll(other.endToEndLatency50pct);
+        endToEndLatency75pct.addAll(other.endToEndLatency75pct);
+        endToEndLatency95pct.addAll(other.endToEndLatency95pct);
+        endToEndLatency99pct.addAll(other.endToEndLatency99pct);
+        endToEndLatency999pct.addAll(other.endToEndLatency999pct);
+        endToEndLatency9999pct.addAll(other.endToEndLatency9999pct);
+        endToEndLatencyMax.addAll(other.endToEndLatencyMax);
+    }
+
     public int getTopics() {
         return topics;
     }
@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark;
+
+import io.openmessaging.benchmark.utils.distributor.KeyDistributorType;
+import io.openmessaging.benchmark.utils.distributor.KeySpace;
+
+/**
+ * A set of topics with its own message size, rate, producers and consumers, run next to the other groups of the
+ * workload, eg: a few bulk topics sharing the cluster with many small latency-sensitive ones. Each group gets its
+ * own section in the test result, to see how much one group hurts the latencies of the others.
+ */
+public class TopicGroup {
+
+    public String name;
+
+    public int topics;
+    public int partitionsPerTopic;
+
+    public int messageSize;
+    public int producerRate;
+
+    public int producersPerTopic = 1;
+    public int subscriptionsPerTopic = 1;
+    public int consumerPerSubscription = 1;
+
+    public KeyDistributorType keyDistributor = KeyDistributorType.NO_KEY;
+    public KeySpace keySpace;
+
+    public void validate() {
+        if (name == null || name.isEmpty()) {
+            throw new RuntimeException("Topic groups must have a name");
+        }
+        if (topics <= 0 || partitionsPerTopic <= 0 || messageSize <= 0) {
+            throw new RuntimeException(String.format(
+                    "Topic group %s needs positive topics, partitionsPerTopic and messageSize", name));
+        }
+        if (producerRate <= 0) {
+            throw new RuntimeException(String.format("Topic group %s needs a positive producerRate", name));
+        }
+        if (producersPerTopic < 0 || subscriptionsPerTopic < 0 || consumerPerSubscription < 0) {
+            throw new RuntimeException(String.format("Topic group %s has a negative client count", name));
+        }
+        if (keySpace != null) {
+            keySpace.validate(keyDistributor);
+        }
+    }
+}
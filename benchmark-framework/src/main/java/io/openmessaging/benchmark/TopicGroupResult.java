@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+
+/**
+ * The section of the test result for one topic group: its own rates, backlog and latencies, per sample and
+ * aggregated over the test. Latencies are in milliseconds.
+ */
+public class TopicGroupResult {
+
+    public int topics;
+    public int partitions;
+    public int messageSize;
+    public int producerRate;
+
+    public List<Double> publishRate = new ArrayList<>();
+    public List<Double> consumeRate = new ArrayList<>();
+    public List<Long> backlog = new ArrayList<>();
+    public List<Long> publishFailed = new ArrayList<>();
+
+    public List<Double> publishLatency50pct = new ArrayList<>();
+    public List<Double> publishLatency99pct = new ArrayList<>();
+    public List<Double> publishLatencyMax = new ArrayList<>();
+
+    public List<Double> endToEndLatency50pct = new ArrayList<>();
+    public List<Double> endToEndLatency99pct = new ArrayList<>();
+    public List<Double> endToEndLatencyMax = new ArrayList<>();
+
+    public double aggregatedPublishLatencyAvg;
+    public double aggregatedPublishLatency50pct;
+    public double aggregatedPublishLatency99pct;
+    public double aggregatedPublishLatency999pct;
+    public double aggregatedPublishLatencyMax;
+
+    public double aggregatedEndToEndLatencyAvg;
+    public double aggregatedEndToEndLatency50pct;
+    public double aggregatedEndToEndLatency99pct;
+    public double aggregatedEndToEndLatency999pct;
+    public double aggregatedEndToEndLatencyMax;
+
+    // Merged from the samples, since the cumulative latencies of the workers are not split by group
+    @JsonIgnore
+    private final Histogram publishLatency = new Histogram(5);
+    @JsonIgnore
+    private final Histogram endToEndLatency = new Histogram(5);
+
+    public TopicGroupResult() {
+    }
+
+    public TopicGroupResult(TopicGroup group) {
+        this.topics = group.topics;
+        this.partitions = group.partitionsPerTopic;
+        this.messageSize = group.messageSize;
+        this.producerRate = group.producerRate;
+    }
+
+    public void addSample(PeriodStats stats, double elapsedSeconds, long backlog) {
+        publishRate.add(stats.messagesSent / elapsedSeconds);
+        consumeRate.add(stats.messagesReceived / elapsedSeconds);
+        this.backlog.add(backlog);
+        publishFailed.add(stats.errors);
+
+        publishLatency50pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(50)));
+        publishLatency99pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(99)));
+        publishLatencyMax.add(microsToMillis(stats.publishLatency.getMaxValue()));
+
+        endToEndLatency50pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(50)));
+        endToEndLatency99pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(99)));
+        endToEndLatencyMax.add(microsToMillis(stats.endToEndLatency.getMaxValue()));
+
+        publishLatency.add(stats.publishLatency);
+        endToEndLatency.add(stats.endToEndLatency);
+    }
+
+    /**
+     * Fill the aggregated latencies from the samples added so far.
+     */
+    public void aggregate() {
+        aggregatedPublishLatencyAvg = microsToMillis(publishLatency.getMean());
+        aggregatedPublishLatency50pct = microsToMillis(publishLatency.getValueAtPercentile(50));
+        aggregatedPublishLatency99pct = microsToMillis(publishLatency.getValueAtPercentile(99));
+        aggregatedPublishLatency999pct = microsToMillis(publishLatency.getValueAtPercentile(99.9));
+        aggregatedPublishLatencyMax = microsToMillis(publishLatency.getMaxValue());
+
+        aggregatedEndToEndLatencyAvg = microsToMillis(endToEndLatency.getMean());
+        aggregatedEndToEndLatency50pct = microsToMillis(endToEndLatency.getValueAtPercentile(50));
+        aggregatedEndToEndLatency99pct = microsToMillis(endToEndLatency.getValueAtPercentile(99));
+        aggregatedEndToEndLatency999pct = microsToMillis(endToEndLatency.getValueAtPercentile(99.9));
+        aggregatedEndToEndLatencyMax = microsToMillis(endToEndLatency.getMaxValue());
+    }
+
+    private static double microsToMillis(double timeInMicros) {
+        return timeInMicros / 1000.0;
+    }
+}
@@ -14,8 +14,59 @@
 package io.openmessaging.benchmark;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class Workers {
     public List<String> workers = new ArrayList<>();
+
+    /**
+     * Optional explicit roles. When set, these take precedence over {@link #producerRatio} and the workers do
+     * not need to be repeated in {@link #workers}.
+     */
+    public List<String> producerWorkers;
+    public List<String> consumerWorkers;
+
+    /**
+     * Fraction of the workers that should act as producers, eg: 0.25 for consume-heavy workloads. By default
+     * half of the workers are producers (one third with --extra).
+     */
+    public Double producerRatio;
+
+    /**
+     * Relative capacity of each worker, eg: 2.0 for an instance that can drive twice as much load. Workers
+     * that are not listed have a weight of 1.
+     */
+    public Map<String, Double> weights;
+
+    /**
+     * Measure the weights with a short calibration run on each worker instead of using the declared ones.
+     */
+    public boolean calibrate;
+
+    /**
+     * How the stats of the workers are merged on each sample: parallel (default) or tree.
+     */
+    public String statsAggregation;
+
+    /**
+     * Number of workers in each group when the stats are aggregated as a tree.
+     */
+    public int statsAggregationFanout = 16;
+
+    /**
+     * All the workers taking part in the test, in the order they were declared.
+     */
+    public List<String> allWorkers() {
+        Set<String> all = new LinkedHashSet<>(workers);
+        if (producerWorkers != null) {
+            all.addAll(producerWorkers);
+        }
+        if (consumerWorkers != null) {
+            all.addAll(consumerWorkers);
+        }
+        return new ArrayList<>(all);
+    }
 }
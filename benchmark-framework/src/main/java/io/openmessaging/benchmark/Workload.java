@@ -13,10 +13,18 @@
  */
 package io.openmessaging.benchmark;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import io.openmessaging.benchmark.utils.RateProfile;
 import io.openmessaging.benchmark.utils.distributor.KeyDistributorType;
+import io.openmessaging.benchmark.utils.distributor.KeySpace;
+import io.openmessaging.benchmark.utils.payload.MessageSizeDistribution;
+import io.openmessaging.benchmark.utils.payload.PayloadCorpus;
+import io.openmessaging.benchmark.utils.payload.PayloadFileFormat;
 
 public class Workload {
     public String name;
@@ -40,16 +48,69 @@ public class Workload {
     /** Number of partitions each topic will contain */
     public int partitionsPerTopic;
 
+    /**
+     * Groups of topics with their own message size, rate and clients, run side by side instead of the topics of the
+     * workload. topics must be zero when they are set, and the payloads are randomized with the settings of the
+     * workload.
+     */
+    public List<TopicGroup> topicGroups = Collections.emptyList();
+
     public KeyDistributorType keyDistributor = KeyDistributorType.NO_KEY;
 
+    /** Cardinality and length of the keys, and the parameters of the skewed key distributions. */
+    public KeySpace keySpace;
+
+    /**
+     * Seed of the random key distributors. If not set, a random seed is picked for each run and logged.
+     */
+    public Long keySeed;
+
     public int messageSize;
 
+    /**
+     * Distribution of the message sizes (fixed, uniform, lognormal or an empirical histogram), instead of the single
+     * messageSize. With payload files, the first file is cut and repeated to the drawn sizes.
+     */
+    public MessageSizeDistribution messageSizeDistribution;
+
     public boolean useRandomizedPayloads;
     public double randomBytesRatio;
     public int randomizedPayloadPoolSize;
 
+    /**
+     * Content of the randomized payloads: random bytes and zeros (the default), JSON records, log lines or Avro-like
+     * binary records. payloadEntropy, between 0 and 1, is the probability that a field of the records gets a random
+     * value rather than a common one, which sets how well they compress.
+     */
+    public PayloadCorpus payloadCorpus;
+    public double payloadEntropy = 0.5;
+
+    /**
+     * Give each message unique content, taken as the next window of an off-heap buffer of this size (in MB) filled
+     * on each producer worker, instead of reusing the payloads of the pool. The pool still sets the sizes. 0, the
+     * default, reuses the pool.
+     */
+    public int uniquePayloadBufferMB;
+
+    /**
+     * Seed used by the workers to generate the randomized payload pool. If not set, a random seed is picked
+     * for each run and logged.
+     */
+    public Long payloadSeed;
+
     public String payloadFile;
 
+    /**
+     * Layout of the payload files: one payload per file (the default), or many records per file, length-prefixed or
+     * one per line. The record files are memory-mapped and indexed on each producer worker, which sends the records
+     * at random, with their own sizes, from record payloadRecordOffset and at most payloadRecordCount of them (0 for
+     * all). The payloadRecordCount records are split in contiguous ranges between the producer workers, each sending
+     * its own range; without a payloadRecordCount, every producer worker sends all the records.
+     */
+    public PayloadFileFormat payloadFileFormat;
+    public long payloadRecordOffset;
+    public long payloadRecordCount;
+
     public int subscriptionsPerTopic;
 
     public int producersPerTopic;
@@ -58,6 +119,83 @@ public class Workload {
 
     public int producerRate;
 
+    /**
+     * Captured trace of messages replayed instead of the paced load, see TraceReader for its format. The file is
+     * memory-mapped on each producer worker, which replays the records falling on its producers at the times of the
+     * trace, divided by traceTimeCompression. producerRate is not used, and payloads are randomized with the sizes
+     * of the trace.
+     */
+    public String traceFile;
+    public double traceTimeCompression = 1.0;
+
+    /**
+     * Shape of the publish rate over time (on/off bursts, sinusoidal, steps) and distribution of the inter-arrival
+     * times (uniform or Poisson) around it. producerRate, or the rate set by the rate search, sweeps and phases, is
+     * the base rate of the profile. If not set, messages are sent at a uniform constant rate.
+     */
+    public RateProfile rateProfile;
+
+    /**
+     * Latency objectives, eg: p99 end-to-end latency below 50 ms. When set, the generator searches for the maximum
+     * rate that meets all of them after the warm-up, starting from producerRate (or 10000 msg/s if not set), and then
+     * runs the test at that rate.
+     */
+    public List<LatencySlo> latencySlos = Collections.emptyList();
+
+    /** How long each rate is held during the rate search. */
+    public int rateSearchProbeSeconds = 30;
+
+    /** The rate search stops once the bounds are within this ratio of each other. */
+    public double rateSearchPrecision = 0.05;
+
+    /**
+     * Throughput-latency sweep: instead of a single test at producerRate, the test steps through these rates on the
+     * same topics and clients, and reports the aggregated latencies of each step.
+     */
+    public List<Integer> sweepRates = Collections.emptyList();
+
+    /**
+     * Alternatively, sweep a geometric series of rates from sweepStartRate to sweepEndRate, multiplying by
+     * sweepRateFactor at each step. If sweepEndRate is not set, the sweep goes up to the maximum rate found by the
+     * latencySlos search.
+     */
+    public int sweepStartRate;
+    public int sweepEndRate;
+    public double sweepRateFactor = 2.0;
+
+    /** Time given to each sweep step to stabilize before it is measured. */
+    public int sweepStabilizationSeconds = 10;
+    public int sweepStepDurationSeconds = 60;
+
+    /**
+     * Fraction of the producers that are continuously closed and recreated while the load goes on, eg: to model
+     * short-lived producers. Each of them is replaced after producerChurnLifetimeSeconds.
+     */
+    public double producerChurnFraction = 0;
+    public double producerChurnLifetimeSeconds = 60;
+
+    /**
+     * Scenario phases, eg: ramp-up, steady, burst, consumer outage and catch-up. When set, they replace the single
+     * test of testDurationMinutes and the results of each phase are reported separately.
+     */
+    public List<WorkloadPhase> phases = Collections.emptyList();
+
+    /**
+     * Consumers to add or remove at given times of the test, with the rebalance and its effect on backlog and
+     * latency reported for each change.
+     */
+    public List<ConsumerChange> consumerChanges = Collections.emptyList();
+
+    /** How long the backlog is watched after each consumer change. */
+    public int consumerChangeObservationSeconds = 60;
+
+    /**
+     * Pre-fill the topics, then read them from the beginning with fresh subscriptions, instead of the test of
+     * testDurationMinutes, which becomes the longest the readers have to catch up. The read throughput, the time
+     * to catch up and the latency of the tailing consumers are reported.
+     */
+    public CatchUpRead catchUpRead;
+
     /**
      * If the consumer backlog is > 0, the generator will accumulate messages until the requested amount of storage is
      * retained and then it will start the consumers to drain it.
@@ -68,6 +206,16 @@ public class Workload {
     public long consumerBacklogSizeGB = 0;
 
     public int warmupDurationMinutes = 30;
+
+    /**
+     * End the warm-up as soon as the publish rate and the p99 publish and end-to-end latencies of the last
+     * steadyStateWindowSamples samples stay within the tolerances of their mean. warmupDurationMinutes becomes the
+     * maximum warm-up duration.
+     */
+    public boolean adaptiveWarmup = false;
+    public int steadyStateWindowSamples = 6;
+    public double steadyStateThroughputTolerance = 0.05;
+    public double steadyStateLatencyTolerance = 0.10;
     public int sampleRateMillis = 10000;
     public int testDurationMinutes;
 
@@ -78,10 +226,49 @@ public class Workload {
     public boolean isUsingExistingTopics() {
         return !existingTopicList.isEmpty() || !existingConsumeTopicList.isEmpty() || !existingProduceTopicList.isEmpty();
     }
+
+    /**
+     * Return true if the workload runs a throughput-latency sweep instead of a single rate.
+     */
+    public boolean isSweep() {
+        return !sweepRates.isEmpty() || sweepStartRate > 0;
+    }
+
+    /**
+     * Return the rates of the sweep, in order, or none if the maximum rate found by the search is below
+     * sweepStartRate, eg: when no rate met the latencySlos.
+     *
+     * @param maxRate the maximum rate found by the latencySlos search, used when sweepEndRate is not set
+     */
+    public List<Double> getSweepRates(double maxRate) {
+        List<Double> rates = new ArrayList<>();
+        if (!sweepRates.isEmpty()) {
+            sweepRates.forEach(r -> rates.add((double) r));
+            return rates;
+        }
+
+        double end = sweepEndRate > 0 ? sweepEndRate : maxRate;
+        if (end < sweepStartRate) {
+            return rates;
+        }
+        for (double r = sweepStartRate; r <= end; r *= sweepRateFactor) {
+            rates.add(r);
+        }
+        // Always finish on the end rate itself
+        if (rates.isEmpty() || rates.get(rates.size() - 1) < end * 0.99) {
+            rates.add(end);
+        }
+        return rates;
+    }
+
     /**
      * Return the total number of consumers defined in the workload.
      */
     public int getConsumerCount() {
+        if (!topicGroups.isEmpty()) {
+            return topicGroups.stream()
+                    .mapToInt(g -> g.topics * g.subscriptionsPerTopic * g.consumerPerSubscription).sum();
+        }
         int topicCount = topics;
         if (isUsingExistingTopics()) {
             topicCount = existingTopicList.size() + existingConsumeTopicList.size();
@@ -104,8 +291,129 @@ public class Workload {
         checkNonNegative(producerRate, "producerRate");
         checkNonNegative(consumerBacklogSizeGB, "consumerBacklogSizeGB");
 
+        if (!latencySlos.isEmpty()) {
+            latencySlos.forEach(LatencySlo::validate);
+            if (rateSearchProbeSeconds <= 0) {
+                throw new RuntimeException("rateSearchProbeSeconds must be positive when latencySlos are set");
+            }
+            if (rateSearchPrecision <= 0) {
+                throw new RuntimeException("rateSearchPrecision must be positive when latencySlos are set");
+            }
+        }
+
+        if (isSweep()) {
+            sweepRates.forEach(r -> checkNonNegative(r, "sweepRates"));
+            checkNonNegative(sweepStabilizationSeconds, "sweepStabilizationSeconds");
+            if (sweepStepDurationSeconds <= 0) {
+                throw new RuntimeException("sweepStepDurationSeconds must be positive when sweeping rates");
+            }
+            if (sweepRates.isEmpty()) {
+                if (sweepRateFactor <= 1) {
+                    throw new RuntimeException("sweepRateFactor must be greater than 1");
+                }
+                if (sweepEndRate == 0 && latencySlos.isEmpty()) {
+                    throw new RuntimeException("sweepEndRate must be set unless latencySlos are used to find it");
+                }
+                if (sweepEndRate > 0 && sweepEndRate < sweepStartRate) {
+                    throw new RuntimeException("sweepEndRate must not be lower than sweepStartRate");
+                }
+            }
+        }
+
+        if (!consumerChanges.isEmpty()) {
+            consumerChanges.forEach(ConsumerChange::validate);
+            if (isSweep() || !phases.isEmpty()) {
+                throw new RuntimeException("Consumer changes can only be used with a single test phase");
+            }
+            if (consumerChangeObservationSeconds <= 0) {
+                throw new RuntimeException("consumerChangeObservationSeconds must be positive");
+            }
+        }
+
+        if (producerChurnFraction < 0 || producerChurnFraction > 1) {
+            throw new RuntimeException("producerChurnFraction must be between 0 and 1");
+        }
+        if (producerChurnFraction > 0 && producerChurnLifetimeSeconds <= 0) {
+            throw new RuntimeException("producerChurnLifetimeSeconds must be positive");
+        }
+
+        if (rateProfile != null) {
+            rateProfile.validate();
+        }
+
+        if (keySpace != null) {
+            keySpace.validate(keyDistributor);
+        }
+
+        if (messageSizeDistribution != null) {
+            messageSizeDistribution.validate();
+            if (messageSize > 0) {
+                throw new RuntimeException("messageSize and messageSizeDistribution are mutually exclusive");
+            }
+        }
+
+        if (payloadCorpus != null && payloadCorpus != PayloadCorpus.RANDOM_ZEROS && !useRandomizedPayloads) {
+            throw new RuntimeException("payloadCorpus needs useRandomizedPayloads");
+        }
+        if (payloadEntropy < 0 || payloadEntropy > 1) {
+            throw new RuntimeException("payloadEntropy must be between 0 and 1");
+        }
+        if (payloadFileFormat != null && payloadFileFormat != PayloadFileFormat.WHOLE_FILE) {
+            if (useRandomizedPayloads || payloadFile == null) {
+                throw new RuntimeException("payloadFileFormat " + payloadFileFormat + " needs a payloadFile");
+            }
+            if (messageSizeDistribution != null || uniquePayloadBufferMB != 0) {
+                throw new RuntimeException("Payload records have their own sizes and content, they cannot be used"
+                        + " with messageSizeDistribution or uniquePayloadBufferMB");
+            }
+            if (!topicGroups.isEmpty() || traceFile != null) {
+                // Those paths build their payloads on the heap, which would load the whole corpus
+                throw new RuntimeException("Payload records cannot be used with topic groups or traces");
+            }
+            checkNonNegative(payloadRecordOffset, "payloadRecordOffset");
+            checkNonNegative(payloadRecordCount, "payloadRecordCount");
+        }
+        if (uniquePayloadBufferMB != 0) {
+            if (uniquePayloadBufferMB < 0 || uniquePayloadBufferMB >= 2048) {
+                throw new RuntimeException("uniquePayloadBufferMB must be between 1 and 2047");
+            }
+            if (!useRandomizedPayloads || !topicGroups.isEmpty() || traceFile != null) {
+                throw new RuntimeException(
+                        "Unique payloads need useRandomizedPayloads, and cannot be used with topic groups or traces");
+            }
+        }
+
+        if (!phases.isEmpty()) {
+            phases.forEach(WorkloadPhase::validate);
+            if (isSweep()) {
+                throw new RuntimeException("A workload cannot both sweep rates and run phases");
+            }
+        }
+
+        if (adaptiveWarmup) {
+            if (steadyStateWindowSamples < 2) {
+                throw new RuntimeException("steadyStateWindowSamples must be at least 2");
+            }
+            if (steadyStateThroughputTolerance <= 0 || steadyStateLatencyTolerance <= 0) {
+                throw new RuntimeException("Steady state tolerances must be positive");
+            }
+        }
+
         boolean usingExistingTopics = isUsingExistingTopics();
 
+        if (traceFile != null) {
+            validateTrace();
+        }
+
+        if (catchUpRead != null) {
+            validateCatchUpRead();
+        }
+
+        if (!topicGroups.isEmpty()) {
+            validateTopicGroups(usingExistingTopics);
+            return;
+        }
+
         if (topics > 0 && usingExistingTopics) {
             throw new RuntimeException(String.format(
                 "Workload specified both non-zero topic count (%d) and explicit topic list: these options " +
@@ -121,6 +429,55 @@ public class Workload {
         }
     }
 
+    private void validateTrace() {
+        if (traceTimeCompression <= 0) {
+            throw new RuntimeException("traceTimeCompression must be positive");
+        }
+        if (!useRandomizedPayloads) {
+            throw new RuntimeException("A trace replay needs useRandomizedPayloads, since the trace sets the sizes");
+        }
+        if (!topicGroups.isEmpty() || !latencySlos.isEmpty() || isSweep() || !phases.isEmpty()
+                || rateProfile != null || consumerBacklogSizeGB > 0 || producerChurnFraction > 0) {
+            throw new RuntimeException("A trace replay sets its own pace: it cannot be combined with topic groups, "
+                    + "rate searches, sweeps, phases, rate profiles, backlog building or producer churn");
+        }
+    }
+
+    private void validateCatchUpRead() {
+        catchUpRead.validate();
+        if (producerRate <= 0) {
+            throw new RuntimeException("A catch-up read needs a producerRate, to pre-fill the topics");
+        }
+        if (!topicGroups.isEmpty() || traceFile != null || !latencySlos.isEmpty() || isSweep() || !phases.isEmpty()
+                || !consumerChanges.isEmpty() || consumerBacklogSizeGB > 0) {
+            throw new RuntimeException("A catch-up read cannot be combined with topic groups, traces, rate searches, "
+                    + "sweeps, phases, consumer changes or backlog building");
+        }
+    }
+
+    private void validateTopicGroups(boolean usingExistingTopics) {
+        Set<String> names = new HashSet<>();
+        for (TopicGroup group : topicGroups) {
+            group.validate();
+            if (!names.add(group.name)) {
+                throw new RuntimeException("Duplicate topic group name: " + group.name);
+            }
+        }
+
+        if (topics > 0 || usingExistingTopics) {
+            throw new RuntimeException("Topic groups replace the topics of the workload: topics must be zero and "
+                    + "no existing topics can be used");
+        }
+        if (!useRandomizedPayloads) {
+            throw new RuntimeException("Topic groups need useRandomizedPayloads, since each has its own message size");
+        }
+        if (!latencySlos.isEmpty() || isSweep() || !phases.isEmpty() || !consumerChanges.isEmpty()
+                || consumerBacklogSizeGB > 0 || producerChurnFraction > 0) {
+            throw new RuntimeException("Topic groups can only be used with a single test phase at fixed rates, "
+                    + "without consumer changes, backlog building or producer churn");
+        }
+    }
+
     private void checkNonNegative(long val, String fieldName) {
         if (val < 0) {
             throw new RuntimeException(String.format(
@@ -14,34 +14,40 @@
 package io.openmessaging.benchmark;
 
 import io.openmessaging.benchmark.utils.RandomGenerator;
-import java.io.File;
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
-import org.apache.commons.lang.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.netty.util.concurrent.DefaultThreadFactory;
 import io.openmessaging.benchmark.utils.PaddingDecimalFormat;
 import io.openmessaging.benchmark.utils.Timer;
-import io.openmessaging.benchmark.utils.payload.FilePayloadReader;
-import io.openmessaging.benchmark.utils.payload.PayloadReader;
+import io.openmessaging.benchmark.utils.distributor.KeyDistributorType;
 import io.openmessaging.benchmark.worker.Worker;
 import io.openmessaging.benchmark.worker.commands.ConsumerAssignment;
 import io.openmessaging.benchmark.worker.commands.CountersStats;
 import io.openmessaging.benchmark.worker.commands.CumulativeLatencies;
+import io.openmessaging.benchmark.worker.commands.PayloadSpec;
 import io.openmessaging.benchmark.worker.commands.PeriodStats;
 import io.openmessaging.benchmark.worker.commands.ProducerWorkAssignment;
+import io.openmessaging.benchmark.worker.commands.TopicGroupLoad;
 import io.openmessaging.benchmark.worker.commands.TopicSubscription;
 import io.openmessaging.benchmark.worker.commands.TopicsInfo;
+import io.openmessaging.benchmark.worker.commands.WorkerFleetEvent;
 
 public class WorkloadGenerator implements AutoCloseable {
 
@@ -57,6 +63,25 @@ public class WorkloadGenerator implements AutoCloseable {
 
     private volatile double targetPublishRate;
 
+    // One entry per topic subscription, used to add or remove consumers during the test
+    private final List<TopicSubscription> subscriptions = new ArrayList<>();
+
+    // Topics the producers publish on, without duplicates, which the topic indexes of a trace refer to
+    private List<String> produceTopics = Collections.emptyList();
+
+    // Topics of each topic group, by group name
+    private final Map<String, List<String>> topicGroupTopics = new HashMap<>();
+
+    // If set, the samples of the test are written to this stream instead of being kept in the result
+    private ResultStream resultStream;
+
+    // Catch-up read being sampled, and the time its readers were created, zero before
+    private volatile CatchUpReadResult catchUpRead;
+    private volatile long catchUpReadStartNs;
+
+    // Wall clock time before the first message of the test, to tell its messages from older ones in the topics
+    private long testStartMillis;
+
     public WorkloadGenerator(String driverName, Workload workload, Worker worker) {
         this.driverName = driverName;
         this.workload = workload;
@@ -65,26 +90,59 @@ public class WorkloadGenerator implements AutoCloseable {
         if (workload.consumerBacklogSizeGB > 0 && workload.producerRate == 0) {
             throw new IllegalArgumentException("Cannot probe producer sustainable rate when building backlog");
         }
+        if (workload.consumerBacklogSizeGB > 0 && !workload.latencySlos.isEmpty()) {
+            throw new IllegalArgumentException("Cannot search for the rate meeting latency SLOs when building backlog");
+        }
+        if (workload.consumerBacklogSizeGB > 0 && workload.isSweep()) {
+            throw new IllegalArgumentException("Cannot sweep rates when building backlog");
+        }
+        if (workload.consumerBacklogSizeGB > 0 && !workload.phases.isEmpty()) {
+            throw new IllegalArgumentException("Cannot run phases when building backlog");
+        }
+    }
+
+    /**
+     * Write the per-sample series of the test to the given stream as they are collected, instead of keeping them in
+     * the returned result. The warm-up is never streamed.
+     */
+    public void streamSamplesTo(ResultStream resultStream) {
+        this.resultStream = resultStream;
     }
 
     public TestResult run() throws Exception {
         Timer timer = new Timer();
-        TopicsInfo ti = TopicsInfo.fromWorkload(workload);
-        List<String> topics = worker.createOrValidateTopics(ti);
-        log.info("{} {} topics in {} ms", ti.isExistingTopics() ? "Validated" : "Created", topics.size(), timer.elapsedMillis());
-
-        if (ti.isExistingTopics()) {
-          createProducers(ti.existingProduceTopics);
-          createConsumers(ti.existingConsumeTopics);
+        List<String> topics;
+        if (!workload.topicGroups.isEmpty()) {
+            topics = createTopicGroups();
         } else {
-          createConsumers(topics);
-          createProducers(topics);
+            TopicsInfo ti = TopicsInfo.fromWorkload(workload);
+            topics = worker.createOrValidateTopics(ti);
+            log.info("{} {} topics in {} ms", ti.isExistingTopics() ? "Validated" : "Created", topics.size(), timer.elapsedMillis());
+
+            if (ti.isExistingTopics()) {
+              createProducers(ti.existingProduceTopics);
+              createConsumers(ti.existingConsumeTopics);
+            } else {
+              createConsumers(topics);
+              createProducers(topics);
+            }
         }
 
+        testStartMillis = System.currentTimeMillis();
         ensureTopicsAreReady();
 
-        if (workload.producerRate > 0) {
+        if (!workload.topicGroups.isEmpty()) {
+            targetPublishRate = workload.topicGroups.stream().mapToInt(g -> g.producerRate).sum();
+        } else if (workload.traceFile != null) {
+            // The trace sets the pace
+            targetPublishRate = 0;
+        } else if (workload.producerRate > 0) {
             targetPublishRate = workload.producerRate;
+        } else if (!workload.latencySlos.isEmpty()) {
+            // The SLO rate search runs after the warm-up, from this starting point
+            targetPublishRate = 10000;
+        } else if (workload.isSweep()) {
+            targetPublishRate = workload.getSweepRates(0).get(0);
         } else {
             // Producer rate is 0 and we need to discover the sustainable rate
             targetPublishRate = 10000;
@@ -99,49 +157,87 @@ public class WorkloadGenerator implements AutoCloseable {
             });
         }
 
-        final PayloadReader payloadReader = new FilePayloadReader(workload.messageSize);
+        long payloadSeed = workload.payloadSeed != null ? workload.payloadSeed : new Random().nextLong();
+        log.info("Using payload seed {}", payloadSeed);
 
         ProducerWorkAssignment producerWorkAssignment = new ProducerWorkAssignment();
         producerWorkAssignment.keyDistributorType = workload.keyDistributor;
+        producerWorkAssignment.keySpace = workload.keySpace;
+        producerWorkAssignment.partitionsPerTopic = workload.partitionsPerTopic;
+        if (workload.keyDistributor != KeyDistributorType.NO_KEY || !workload.topicGroups.isEmpty()) {
+            long keySeed = workload.keySeed != null ? workload.keySeed : new Random().nextLong();
+            log.info("Using key seed {}", keySeed);
+            producerWorkAssignment.keySeed = keySeed;
+        }
+        producerWorkAssignment.rateProfile = workload.rateProfile;
+        producerWorkAssignment.producerChurnFraction = workload.producerChurnFraction;
+        producerWorkAssignment.producerChurnLifetimeSeconds = workload.producerChurnLifetimeSeconds;
         producerWorkAssignment.publishRate = targetPublishRate;
-        producerWorkAssignment.payloadData = new ArrayList<>();
-
-        if(workload.useRandomizedPayloads) {
-            // create messages that are part random and part zeros
-            // better for testing effects of compression
-            Random r = new Random();
-            int randomBytes = (int)(workload.messageSize * workload.randomBytesRatio);
-            int zerodBytes = workload.messageSize - randomBytes;
-            for(int i = 0; i<workload.randomizedPayloadPoolSize; i++) {
-                byte[] randArray = new byte[randomBytes];
-                r.nextBytes(randArray);
-                byte[] zerodArray = new byte[zerodBytes];
-                byte[] combined = ArrayUtils.addAll(randArray, zerodArray);
-                producerWorkAssignment.payloadData.add(combined);
-            }
-        }
-        else {
-            File payloadFile = new File(workload.payloadFile);
-            if (payloadFile.isDirectory()) {
-                File[] payloadFileList = payloadFile.listFiles();
-
-                if (payloadFileList.length == 0) {
-                    throw new IllegalArgumentException("Payload file must either point to a file or a directory with one or more payload files");
-                }
+        // Only the payload description is shipped, each producer worker builds its own pool
+        producerWorkAssignment.payloadSpec = PayloadSpec.fromWorkload(workload, payloadSeed);
+        if (workload.traceFile != null) {
+            producerWorkAssignment.traceFile = workload.traceFile;
+            producerWorkAssignment.traceTopics = produceTopics;
+            producerWorkAssignment.traceTimeCompression = workload.traceTimeCompression;
+        }
+        for (TopicGroup group : workload.topicGroups) {
+            TopicGroupLoad load = new TopicGroupLoad();
+            load.name = group.name;
+            load.topics = topicGroupTopics.get(group.name);
+            load.publishRate = group.producerRate;
+            load.payloadSpec = PayloadSpec.fromWorkload(workload, payloadSeed);
+            load.payloadSpec.messageSize = group.messageSize;
+            load.payloadSpec.messageSizeDistribution = null;
+            load.keyDistributorType = group.keyDistributor;
+            load.keySpace = group.keySpace;
+            producerWorkAssignment.topicGroups.add(load);
+        }
 
-                for (File payloadF : payloadFileList) {
-                    producerWorkAssignment.payloadData.add(payloadReader.load(payloadF.getAbsolutePath()));
-                }
+        worker.startLoad(producerWorkAssignment);
+
+        List<WorkerFleetEvent> warmupFleetEvents = new ArrayList<>();
+        double warmupSeconds = 0;
+        boolean warmupSteady = false;
+        if (workload.warmupDurationMinutes > 0) {
+            SteadyStateDetector detector = null;
+            if (workload.adaptiveWarmup) {
+                log.info("----- Starting warm-up traffic (until steady state, at most {}m) ------",
+                        workload.warmupDurationMinutes);
+                detector = new SteadyStateDetector(workload.steadyStateWindowSamples,
+                        workload.steadyStateThroughputTolerance, workload.steadyStateLatencyTolerance);
             } else {
-                producerWorkAssignment.payloadData.add(payloadReader.load(workload.payloadFile));
+                log.info("----- Starting warm-up traffic ({}m) ------", workload.warmupDurationMinutes);
+            }
+
+            long warmupStart = System.nanoTime();
+            TestResult warmupResult = printAndCollectWarmupStats(workload.warmupDurationMinutes, TimeUnit.MINUTES,
+                    detector);
+            warmupSeconds = (System.nanoTime() - warmupStart) / 1e9;
+            warmupSteady = detector != null && detector.isSteady();
+            if (detector != null) {
+                log.info("----- Warm-up {} after {} s ------",
+                        warmupSteady ? "reached steady state" : "did not reach steady state",
+                        dec.format(warmupSeconds));
             }
+            warmupResult.fleetEvents.forEach(e -> e.sampleIndex = -1);
+            warmupFleetEvents.addAll(warmupResult.fleetEvents);
         }
 
-        worker.startLoad(producerWorkAssignment);
+        RateSearch rateSearch = null;
+        if (!workload.latencySlos.isEmpty()) {
+            log.info("----- Searching for the maximum rate meeting {} ------", workload.latencySlos);
+            rateSearch = new RateSearch(workload, worker);
+            double rate = rateSearch.search(targetPublishRate);
+            rateSearch.getFleetEvents().forEach(e -> e.sampleIndex = -1);
+            warmupFleetEvents.addAll(rateSearch.getFleetEvents());
 
-        if (workload.warmupDurationMinutes > 0) {
-            log.info("----- Starting warm-up traffic ({}m) ------", workload.warmupDurationMinutes);
-            printAndCollectStats(workload.warmupDurationMinutes, TimeUnit.MINUTES);
+            if (rate > 0) {
+                targetPublishRate = rate;
+            } else {
+                log.error("----- No rate met {}, the test is measured at the starting rate of {} msg/s ------",
+                        workload.latencySlos, dec.format(targetPublishRate));
+            }
+            worker.adjustPublishRate(targetPublishRate);
         }
 
         if (workload.consumerBacklogSizeGB > 0) {
@@ -154,10 +250,51 @@ public class WorkloadGenerator implements AutoCloseable {
             });
         }
 
-        worker.resetStats();
-        log.info("----- Starting benchmark traffic ({}m)------", workload.testDurationMinutes);
+        TestResult result;
+        if (workload.isSweep()) {
+            result = sweep(rateSearch != null ? rateSearch.getLowerBound() : 0);
+        } else if (!workload.phases.isEmpty()) {
+            result = runPhases();
+        } else if (workload.catchUpRead != null) {
+            result = runCatchUpRead(topics);
+        } else {
+            worker.resetStats();
+            log.info("----- Starting benchmark traffic ({}m)------", workload.testDurationMinutes);
+
+            List<ConsumerChangeResult> consumerChanges = Collections.synchronizedList(new ArrayList<>());
+            Future<?> changes = null;
+            if (!workload.consumerChanges.isEmpty()) {
+                long testStart = System.nanoTime();
+                changes = executor.submit(() -> runConsumerChanges(testStart, consumerChanges));
+            }
+
+            result = printAndCollectStats(workload.testDurationMinutes, TimeUnit.MINUTES, null,
+                    resultStream != null, true);
 
-        TestResult result = printAndCollectStats(workload.testDurationMinutes, TimeUnit.MINUTES);
+            if (changes != null) {
+                changes.cancel(true);
+                synchronized (consumerChanges) {
+                    if (resultStream == null) {
+                        consumerChanges.forEach(change -> addLatencySpike(change, result));
+                    }
+                    result.consumerChanges.addAll(consumerChanges);
+                }
+            }
+        }
+        result.fleetEvents.addAll(0, warmupFleetEvents);
+        result.warmupDurationSeconds = warmupSeconds;
+        result.warmupReachedSteadyState = warmupSteady;
+        if (rateSearch != null) {
+            result.maxSustainableRate = rateSearch.getLowerBound();
+            result.maxSustainableRateUpperBound = rateSearch.getUpperBound();
+            if (!workload.isSweep()) {
+                result.rateSearchMeasuredRate = targetPublishRate;
+            }
+            result.rateSearchProbes = rateSearch.getProbes();
+        }
+        addPartitionSummary(result);
+        addMessageSizeSummary(result);
+        addCompressionSummary(result);
         runCompleted = true;
 
         try {
@@ -168,6 +305,50 @@ public class WorkloadGenerator implements AutoCloseable {
         return result;
     }
 
+    private void addPartitionSummary(TestResult result) throws IOException {
+        long[] sentPerPartition = worker.getCountersStats().messagesSentPerPartition;
+        if (sentPerPartition == null || sentPerPartition.length == 0) {
+            return;
+        }
+        result.estimatedMessagesSentPerPartition = Arrays.stream(sentPerPartition).boxed()
+                .collect(Collectors.toList());
+        long max = Arrays.stream(sentPerPartition).max().getAsLong();
+        double mean = Arrays.stream(sentPerPartition).average().getAsDouble();
+        result.estimatedPartitionSkew = mean > 0 ? max / mean : 0;
+        log.info("Messages sent per partition, estimated with the Kafka default partitioner: {} - skew (max / mean): {}",
+                result.estimatedMessagesSentPerPartition, dec.format(result.estimatedPartitionSkew));
+    }
+
+    private void addMessageSizeSummary(TestResult result) throws IOException {
+        CountersStats stats = worker.getCountersStats();
+        if (stats.messagesSent > 0) {
+            result.averageMessageSize = (double) stats.bytesSent / stats.messagesSent;
+        }
+        if (workload.messageSizeDistribution != null) {
+            log.info("Message sizes: {} - average sent: {} bytes", workload.messageSizeDistribution,
+                    dec.format(result.averageMessageSize));
+        }
+    }
+
+    private void addCompressionSummary(TestResult result) throws IOException {
+        CountersStats stats = worker.getCountersStats();
+        if (workload.payloadCorpus != null) {
+            result.payloadCorpus = workload.payloadCorpus + " (entropy " + workload.payloadEntropy + ")";
+        }
+        stats.compression.forEach((codec, compression) -> {
+            if (compression.compressedBytes > 0 && compression.uncompressedBytes > 0) {
+                result.compressionRatio.put(codec,
+                        (double) compression.uncompressedBytes / compression.compressedBytes);
+                result.compressionCpuMillisPerMB.put(codec,
+                        compression.cpuNanos / 1e6 / (compression.uncompressedBytes / 1024.0 / 1024.0));
+            }
+        });
+        if (!result.compressionRatio.isEmpty()) {
+            log.info("Payload compression ratio: {} - CPU ms per MB: {}", result.compressionRatio,
+                    result.compressionCpuMillisPerMB);
+        }
+    }
+
     private void ensureTopicsAreReady() throws IOException {
 
         if (workload.getConsumerCount() == 0) {
@@ -184,6 +365,10 @@ public class WorkloadGenerator implements AutoCloseable {
         // to the consumers
 
         int expectedMessages = workload.topics * workload.subscriptionsPerTopic;
+        if (!workload.topicGroups.isEmpty()) {
+            expectedMessages = workload.topicGroups.stream().filter(g -> g.producersPerTopic > 0)
+                    .mapToInt(g -> g.topics * g.subscriptionsPerTopic).sum();
+        }
 
         // In this case we just publish 1 message and then wait for consumers to receive
         // the data
@@ -322,18 +507,452 @@ public class WorkloadGenerator implements AutoCloseable {
         }
     }
 
+    /**
+     * Step through the sweep rates on the running load. Each step is given time to stabilize, then measured with
+     * fresh stats so that its aggregated histograms only cover that rate.
+     */
+    private TestResult sweep(double maxRate) throws IOException {
+        List<Double> rates = workload.getSweepRates(maxRate);
+        TestResult result = newTestResult();
+        if (rates.isEmpty()) {
+            log.error("----- Skipping the sweep: the maximum rate meeting {} is {} msg/s, below the sweep start rate "
+                    + "of {} msg/s ------", workload.latencySlos, dec.format(maxRate), workload.sweepStartRate);
+            return result;
+        }
+
+        for (int i = 0; i < rates.size(); i++) {
+            double rate = rates.get(i);
+            log.info("----- Sweep step {}/{}: {} msg/s ({}s) ------", i + 1, rates.size(), dec.format(rate),
+                    workload.sweepStepDurationSeconds);
+            worker.adjustPublishRate(rate);
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(workload.sweepStabilizationSeconds));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            worker.resetStats();
+            TestResult stepResult = printAndCollectStats(workload.sweepStepDurationSeconds, TimeUnit.SECONDS);
+            result.sweepSteps.add(StepResult.fromResult(String.format("%.0f msg/s", rate), rate,
+                    workload.sweepStepDurationSeconds, sampleCount(result), stepResult));
+            addSamples(result, stepResult);
+        }
+
+        return result;
+    }
+
+    private int sampleCount(TestResult result) {
+        return resultStream != null ? resultStream.getSampleCount() : result.sent.size();
+    }
+
+    /**
+     * Append the samples of a sweep step or a phase to the result, or to the stream if the samples are streamed.
+     */
+    private void addSamples(TestResult result, TestResult stepResult) throws IOException {
+        if (resultStream == null) {
+            result.appendSamples(stepResult);
+            return;
+        }
+        int offset = resultStream.getSampleCount();
+        stepResult.fleetEvents.forEach(e -> e.sampleIndex += offset);
+        result.fleetEvents.addAll(stepResult.fleetEvents);
+        resultStream.writeSamples(stepResult);
+    }
+
+    /**
+     * Run the scenario phases one after the other on the running load. Stats are reset at the start of each phase so
+     * that its aggregated histograms only cover that phase, while the per-sample series run continuously across the
+     * phases to show bursts being absorbed and the recovery after them.
+     */
+    private TestResult runPhases() throws Exception {
+        TestResult result = newTestResult();
+        double rate = targetPublishRate;
+        boolean consumersActive = true;
+
+        for (int i = 0; i < workload.phases.size(); i++) {
+            WorkloadPhase phase = workload.phases.get(i);
+            String name = phase.name != null ? phase.name : "phase-" + i;
+            double previousRate = phase.ramp && phase.rampFromRate > 0 ? phase.rampFromRate : rate;
+            rate = phase.getRate(targetPublishRate, rate);
+            log.info("----- Starting phase {} ({}s at {} msg/s{}{}) ------", name, phase.durationSeconds,
+                    dec.format(rate), phase.ramp ? ", ramping" : "", phase.consumersActive ? "" : ", consumers paused");
+
+            if (phase.consumersActive != consumersActive) {
+                if (phase.consumersActive) {
+                    worker.resumeConsumers();
+                } else {
+                    worker.pauseConsumers();
+                }
+                consumersActive = phase.consumersActive;
+            }
+
+            Future<?> ramp = null;
+            if (phase.ramp && rate != previousRate) {
+                ramp = executor.submit(rampPublishRate(previousRate, rate, phase.durationSeconds));
+            } else {
+                worker.adjustPublishRate(rate);
+            }
+
+            worker.resetStats();
+            TestResult phaseResult;
+            try {
+                phaseResult = printAndCollectStats(phase.durationSeconds, TimeUnit.SECONDS);
+            } finally {
+                if (ramp != null) {
+                    ramp.cancel(true);
+                    worker.adjustPublishRate(rate);
+                }
+            }
+
+            result.phases.add(StepResult.fromResult(name, rate, phase.durationSeconds, sampleCount(result),
+                    phaseResult));
+            addSamples(result, phaseResult);
+        }
+
+        if (!consumersActive) {
+            worker.resumeConsumers();
+        }
+        return result;
+    }
+
+    /**
+     * Apply the consumer changes of the workload at their times, and watch the backlog after each one to measure how
+     * long the consumers take to get back on par with the producers.
+     */
+    private void runConsumerChanges(long testStart, List<ConsumerChangeResult> results) {
+        List<ConsumerChange> changes = new ArrayList<>(workload.consumerChanges);
+        changes.sort(Comparator.comparingInt(c -> c.atSeconds));
+
+        try {
+            for (ConsumerChange change : changes) {
+                long delayNanos = testStart + TimeUnit.SECONDS.toNanos(change.atSeconds) - System.nanoTime();
+                if (delayNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delayNanos);
+                }
+                results.add(applyConsumerChange(change));
+            }
+        } catch (InterruptedException e) {
+            // The test ended
+        } catch (Exception e) {
+            log.warn("Failed to apply consumer changes", e);
+        }
+    }
+
+    private ConsumerChangeResult applyConsumerChange(ConsumerChange change) throws IOException, InterruptedException {
+        ConsumerChangeResult result = new ConsumerChangeResult();
+        result.atSeconds = change.atSeconds;
+        result.consumersPerSubscription = change.consumersPerSubscription;
+        result.sampleIndex = (int) (TimeUnit.SECONDS.toMillis(change.atSeconds) / workload.sampleRateMillis);
+
+        ConsumerAssignment assignment = new ConsumerAssignment();
+        for (TopicSubscription ts : subscriptions) {
+            for (int i = 0; i < Math.abs(change.consumersPerSubscription); i++) {
+                assignment.topicsSubscriptions.add(ts);
+            }
+        }
+        result.consumersChanged = assignment.topicsSubscriptions.size();
+
+        result.backlogBefore = currentBacklog(worker.getCountersStats());
+        result.peakBacklog = result.backlogBefore;
+        long tolerance = (long) Math.max(1000, targetPublishRate * workload.subscriptionsPerTopic / 2);
+
+        log.info("----- {} {} consumers ------", change.consumersPerSubscription > 0 ? "Adding" : "Removing",
+                result.consumersChanged);
+        long start = System.nanoTime();
+        if (change.consumersPerSubscription > 0) {
+            worker.addConsumers(assignment);
+        } else {
+            worker.removeConsumers(assignment);
+        }
+        result.changeMillis = (System.nanoTime() - start) / 1e6;
+
+        long end = start + TimeUnit.SECONDS.toNanos(workload.consumerChangeObservationSeconds);
+        long lastAboveBaseline = start;
+        boolean recovered = true;
+        while (System.nanoTime() < end) {
+            Thread.sleep(100);
+            CountersStats stats = worker.getCountersStats();
+            long now = System.nanoTime();
+            long backlog = currentBacklog(stats);
+            result.peakBacklog = Math.max(result.peakBacklog, backlog);
+            recovered = backlog <= result.backlogBefore + tolerance;
+            if (!recovered) {
+                lastAboveBaseline = now;
+            }
+            if (change.consumersPerSubscription > 0 && result.timeToFirstMessageMillis == null
+                    && stats.consumersWaitingForFirstMessage == 0) {
+                result.timeToFirstMessageMillis = (now - start) / 1e6;
+            }
+        }
+        if (recovered) {
+            result.recoveryMillis = (lastAboveBaseline - start) / 1e6;
+        }
+
+        log.info("----- Consumer change done in {} ms -- first message after {} ms -- recovered after {} ms -- "
+                + "backlog before: {} -- peak backlog: {}", dec.format(result.changeMillis),
+                result.timeToFirstMessageMillis, result.recoveryMillis, result.backlogBefore, result.peakBacklog);
+        return result;
+    }
+
+    /**
+     * Fill the topics up to the pre-fill size, then create the readers, after a baseline of the tailing consumers'
+     * latency if the producers keep going, and sample until the readers catch up with the head of the topics.
+     */
+    private TestResult runCatchUpRead(List<String> topics) throws IOException {
+        CatchUpRead config = workload.catchUpRead;
+        CatchUpReadResult read = new CatchUpReadResult();
+        read.produceDuringRead = config.produceDuringRead;
+
+        log.info("----- Pre-filling the topics with {} GB ------", config.prefillSizeGB);
+        long prefillBytes = (long) (config.prefillSizeGB * 1024 * 1024 * 1024);
+        long prefillStart = System.nanoTime();
+        long deadline = config.prefillTimeoutMinutes > 0
+                ? prefillStart + TimeUnit.MINUTES.toNanos(config.prefillTimeoutMinutes) : Long.MAX_VALUE;
+        long lastProgress = prefillStart;
+        long lastLog = prefillStart;
+        long progressBytes = 0;
+        long bytesSent;
+        while ((bytesSent = worker.getCountersStats().bytesSent) < prefillBytes) {
+            long now = System.nanoTime();
+            if (bytesSent > progressBytes) {
+                progressBytes = bytesSent;
+                lastProgress = now;
+            }
+            if (now - lastProgress > TimeUnit.SECONDS.toNanos(PREFILL_STALL_SECONDS)) {
+                throw new RuntimeException(String.format("Pre-fill stalled at %s GB: nothing sent for %d s",
+                        dec.format(bytesSent / 1024.0 / 1024 / 1024), PREFILL_STALL_SECONDS));
+            }
+            if (now > deadline) {
+                throw new RuntimeException(String.format("Pre-fill reached only %s GB of %s GB in %d minutes",
+                        dec.format(bytesSent / 1024.0 / 1024 / 1024), dec.format(config.prefillSizeGB),
+                        config.prefillTimeoutMinutes));
+            }
+            if (now - lastLog > TimeUnit.SECONDS.toNanos(10)) {
+                log.info("Pre-filled {} GB of {} GB at {} MB/s",
+                        dec.format(bytesSent / 1024.0 / 1024 / 1024), dec.format(config.prefillSizeGB),
+                        throughputFormat.format(bytesSent / ((now - prefillStart) / 1e9) / 1024 / 1024));
+                lastLog = now;
+            }
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        read.prefillSeconds = (System.nanoTime() - prefillStart) / 1e9;
+        read.prefillGB = bytesSent / 1024.0 / 1024 / 1024;
+        log.info("----- Pre-filled the topics with {} GB in {} s ------", dec.format(read.prefillGB),
+                dec.format(read.prefillSeconds));
+        if (!config.produceDuringRead) {
+            worker.pauseProducers();
+        }
+
+        ConsumerAssignment readers = new ConsumerAssignment();
+        for (String topic : topics) {
+            for (int i = 0; i < config.subscriptionsPerTopic; i++) {
+                String subscriptionName = String.format("catch-up-%03d-%s", i, RandomGenerator.getRandomString());
+                for (int j = 0; j < config.consumersPerSubscription; j++) {
+                    TopicSubscription reader = new TopicSubscription(topic, subscriptionName);
+                    reader.catchUp = true;
+                    reader.catchUpFromMillis = testStartMillis;
+                    readers.topicsSubscriptions.add(reader);
+                }
+            }
+        }
+        read.readers = readers.topicsSubscriptions.size();
+
+        worker.resetStats();
+        catchUpReadStartNs = 0;
+        catchUpRead = read;
+        Future<?> start = executor.submit(() -> {
+            try {
+                if (config.produceDuringRead) {
+                    log.info("----- Measuring the tailing consumers for {} s ------", config.baselineSeconds);
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(config.baselineSeconds));
+                }
+                log.info("----- Starting {} catch-up readers ------", read.readers);
+                catchUpReadStartNs = System.nanoTime();
+                worker.addConsumers(readers);
+            } catch (InterruptedException e) {
+                // The test ended
+            } catch (Exception e) {
+                log.warn("Failed to start the catch-up readers", e);
+            }
+        });
+
+        TestResult result = printAndCollectStats(workload.testDurationMinutes, TimeUnit.MINUTES, null,
+                resultStream != null, true);
+        start.cancel(true);
+        catchUpRead = null;
+
+        read.aggregate();
+        log.info("----- Catch-up read {} -- average read throughput: {} MB/s -- tailing E2E latency (ms) 99% before: {}"
+                        + " - during: {}", read.catchUpMillis != null
+                        ? "caught up in " + dec.format(read.catchUpMillis / 1000) + " s" : "did not catch up",
+                dec.format(read.averageReadThroughputMBps), dec.format(read.tailEndToEndLatency99pctBefore),
+                dec.format(read.tailEndToEndLatency99pctDuring));
+        result.catchUpRead = read;
+        return result;
+    }
+
+    /**
+     * Add a sample to the catch-up read, as a baseline sample until the readers are created, and note when their
+     * backlog reaches the head of the topics.
+     */
+    private void sampleCatchUpRead(CatchUpReadResult read, PeriodStats stats, double elapsed, long now,
+            int sampleIndex) {
+        long start = catchUpReadStartNs;
+        if (start == 0) {
+            read.addBaselineSample(stats);
+            return;
+        }
+
+        CatchUpRead config = workload.catchUpRead;
+        PeriodStats readerStats = stats.topicGroups.getOrDefault(CatchUpRead.READERS_STATS, new PeriodStats());
+        // Only the messages of the test count, the readers start from the earliest data in the topics which may
+        // be older
+        PeriodStats testDataStats = stats.topicGroups.getOrDefault(CatchUpRead.READERS_TEST_DATA_STATS,
+                new PeriodStats());
+        long backlog = Math.max(0,
+                config.subscriptionsPerTopic * stats.totalMessagesSent - testDataStats.totalMessagesReceived);
+        if (read.backlog.isEmpty()) {
+            read.sampleIndex = sampleIndex;
+        }
+        read.addSample(stats, readerStats, elapsed, backlog);
+        log.info("  Catch-up read - {} msg/s / {} MB/s | Backlog: {} K",
+                rateFormat.format(readerStats.messagesReceived / elapsed),
+                throughputFormat.format(readerStats.bytesReceived / elapsed / 1024 / 1024),
+                dec.format(backlog / 1000.0));
+
+        long tolerance = (long) Math.max(1000,
+                config.produceDuringRead ? targetPublishRate * config.subscriptionsPerTopic / 2 : 0);
+        if (read.catchUpMillis == null && backlog <= tolerance) {
+            read.catchUpMillis = (now - start) / 1e6;
+            log.info("----- Catch-up readers reached the head of the topics after {} s ------",
+                    dec.format(read.catchUpMillis / 1000));
+        }
+    }
+
+    private long currentBacklog(CountersStats stats) {
+        return workload.subscriptionsPerTopic * stats.messagesSent - stats.messagesReceived;
+    }
+
+    /**
+     * Compare the p99 end-to-end latency of the sample before the change with the worst sample during the
+     * observation window.
+     */
+    private void addLatencySpike(ConsumerChangeResult change, TestResult result) {
+        List<Double> latencies = result.endToEndLatency99pct;
+        if (change.sampleIndex > 0 && change.sampleIndex <= latencies.size()) {
+            change.endToEndLatency99pctBefore = latencies.get(change.sampleIndex - 1);
+        }
+        long windowMillis = TimeUnit.SECONDS.toMillis(workload.consumerChangeObservationSeconds);
+        int windowSamples = (int) Math.ceil(windowMillis / (double) workload.sampleRateMillis);
+        for (int i = change.sampleIndex; i <= change.sampleIndex + windowSamples && i < latencies.size(); i++) {
+            change.peakEndToEndLatency99pct = Math.max(change.peakEndToEndLatency99pct, latencies.get(i));
+        }
+    }
+
+    private Runnable rampPublishRate(double fromRate, double toRate, int durationSeconds) {
+        return () -> {
+            long start = System.nanoTime();
+            long duration = TimeUnit.SECONDS.toNanos(durationSeconds);
+            try {
+                long elapsed;
+                while ((elapsed = System.nanoTime() - start) < duration) {
+                    worker.adjustPublishRate(fromRate + (toRate - fromRate) * elapsed / duration);
+                    Thread.sleep(1000);
+                }
+            } catch (InterruptedException e) {
+                // The phase ended
+            } catch (IOException e) {
+                log.warn("Failed to adjust the publish rate during the ramp", e);
+            }
+        };
+    }
+
     @Override
     public void close() throws Exception {
         worker.stopAll();
         executor.shutdownNow();
     }
 
+    /**
+     * Create the topics of each group, then the consumers and producers of all the groups at once.
+     *
+     * @return the topics of all the groups
+     */
+    private List<String> createTopicGroups() throws IOException {
+        Timer timer = new Timer();
+        List<String> allTopics = new ArrayList<>();
+        ConsumerAssignment consumerAssignment = new ConsumerAssignment();
+        List<String> producerTopics = new ArrayList<>();
+
+        for (TopicGroup group : workload.topicGroups) {
+            TopicsInfo ti = new TopicsInfo(group.topics, group.partitionsPerTopic);
+            // Keep the topic indexes distinct across the groups
+            ti.firstTopicIndex = allTopics.size();
+            List<String> topics = worker.createOrValidateTopics(ti);
+            topicGroupTopics.put(group.name, topics);
+            allTopics.addAll(topics);
+            log.info("Topic group {}: created {} topics of {} partitions", group.name, topics.size(),
+                    group.partitionsPerTopic);
+
+            for (String topic : topics) {
+                for (int i = 0; i < group.subscriptionsPerTopic; i++) {
+                    String subscriptionName = String.format("sub-%03d-%s", i, RandomGenerator.getRandomString());
+                    subscriptions.add(new TopicSubscription(topic, subscriptionName, group.name));
+                    for (int j = 0; j < group.consumerPerSubscription; j++) {
+                        consumerAssignment.topicsSubscriptions
+                                .add(new TopicSubscription(topic, subscriptionName, group.name));
+                    }
+                }
+                for (int i = 0; i < group.producersPerTopic; i++) {
+                    producerTopics.add(topic);
+                }
+            }
+        }
+        log.info("Created {} topics in {} topic groups in {} ms", allTopics.size(), workload.topicGroups.size(),
+                timer.elapsedMillis());
+
+        Collections.shuffle(consumerAssignment.topicsSubscriptions);
+        timer = new Timer();
+        worker.createConsumers(consumerAssignment);
+        log.info("Created {} consumers in {} ms", consumerAssignment.topicsSubscriptions.size(), timer.elapsedMillis());
+
+        Collections.shuffle(producerTopics);
+        timer = new Timer();
+        worker.createProducers(producerTopics);
+        log.info("Created {} producers in {} ms", producerTopics.size(), timer.elapsedMillis());
+        return allTopics;
+    }
+
+    /**
+     * Messages published and not yet consumed, over all the subscriptions.
+     */
+    private long backlog(PeriodStats stats) {
+        if (workload.topicGroups.isEmpty()) {
+            return workload.subscriptionsPerTopic * stats.totalMessagesSent - stats.totalMessagesReceived;
+        }
+        return workload.topicGroups.stream().mapToLong(g -> topicGroupBacklog(g, stats.topicGroups.get(g.name)))
+                .sum();
+    }
+
+    private static long topicGroupBacklog(TopicGroup group, PeriodStats stats) {
+        if (stats == null) {
+            return 0;
+        }
+        // The probe messages sent before the load are received by the groups without being counted as sent
+        return Math.max(0, group.subscriptionsPerTopic * stats.totalMessagesSent - stats.totalMessagesReceived);
+    }
+
     private void createConsumers(List<String> topics) throws IOException {
         ConsumerAssignment consumerAssignment = new ConsumerAssignment();
 
         for(String topic: topics){
             for(int i = 0; i < workload.subscriptionsPerTopic; i++){
                 String subscriptionName = String.format("sub-%03d-%s", i, RandomGenerator.getRandomString());
+                subscriptions.add(new TopicSubscription(topic, subscriptionName));
                 for (int j = 0; j < workload.consumerPerSubscription; j++) {
                     consumerAssignment.topicsSubscriptions
                         .add(new TopicSubscription(topic, subscriptionName));
@@ -350,6 +969,7 @@ public class WorkloadGenerator implements AutoCloseable {
     }
 
     private void createProducers(List<String> topics) throws IOException {
+        produceTopics = topics;
         List<String> fullListOfTopics = new ArrayList<>();
 
         // Add the topic multiple times, one for each producer
@@ -375,8 +995,7 @@ public class WorkloadGenerator implements AutoCloseable {
 
         while (true) {
             CountersStats stats = worker.getCountersStats();
-            long currentBacklogSize = (workload.subscriptionsPerTopic * stats.messagesSent - stats.messagesReceived)
-                    * workload.messageSize;
+            long currentBacklogSize = workload.subscriptionsPerTopic * stats.bytesSent - stats.bytesReceived;
 
             if (currentBacklogSize >= requestedBacklogSize) {
                 break;
@@ -443,6 +1062,23 @@ public class WorkloadGenerator implements AutoCloseable {
     }
 
     private TestResult printAndCollectStats(long testDurations, TimeUnit unit) throws IOException {
+        return printAndCollectStats(testDurations, unit, null, false, true);
+    }
+
+    private TestResult printAndCollectWarmupStats(long testDurations, TimeUnit unit,
+            SteadyStateDetector steadyStateDetector) throws IOException {
+        return printAndCollectStats(testDurations, unit, steadyStateDetector, false, false);
+    }
+
+    /**
+     * @param steadyStateDetector if not null, stop collecting as soon as it detects steady state, without fetching
+     *            the cumulative latencies
+     * @param stream if true, write each sample to the result stream instead of adding it to the returned result
+     * @param measured if true, add the latencies of each sample to the checkpoints of the result stream, if any, which
+     *            cover the measured samples of every kind of test but not the warm-up
+     */
+    private TestResult printAndCollectStats(long testDurations, TimeUnit unit,
+            SteadyStateDetector steadyStateDetector, boolean stream, boolean measured) throws IOException {
         long startTime = System.nanoTime();
 
         // Print report stats
@@ -450,15 +1086,7 @@ public class WorkloadGenerator implements AutoCloseable {
 
         long testEndTime = testDurations > 0 ? startTime + unit.toNanos(testDurations) : Long.MAX_VALUE;
 
-        TestResult result = new TestResult();
-        result.workload = workload.name;
-        result.driver = driverName;
-        result.topics = workload.topics;
-        result.partitions = workload.partitionsPerTopic;
-        result.messageSize = workload.messageSize;
-        result.producersPerTopic = workload.producersPerTopic;
-        result.consumersPerTopic = workload.consumerPerSubscription;
-        result.sampleRateMillis = workload.sampleRateMillis;
+        TestResult result = newTestResult();
 
         while (true) {
             try {
@@ -475,56 +1103,111 @@ public class WorkloadGenerator implements AutoCloseable {
             double publishRate = stats.messagesSent / elapsed;
             double consumeRate = stats.messagesReceived / elapsed;
 
-            long currentBacklog = workload.subscriptionsPerTopic * stats.totalMessagesSent
-                    - stats.totalMessagesReceived;
+            long currentBacklog = backlog(stats);
 
             printPeriodStats(stats, elapsed, currentBacklog);
 
-            result.sent.add(stats.messagesSent);
-            result.consumed.add(stats.messagesReceived);
-            result.publishFailed.add(stats.errors);
-            result.consumeFailed.add(stats.pollErrors);
-
-            result.publishRate.add(publishRate);
-            result.consumeRate.add(consumeRate);
-            result.backlog.add(currentBacklog);
-            result.publishLatencyAvg.add(microsToMillis(stats.publishLatency.getMean()));
-            result.publishLatencyMin.add(microsToMillis(stats.publishLatency.getMinValue()));
-            result.publishLatency50pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(50)));
-            result.publishLatency75pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(75)));
-            result.publishLatency95pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(95)));
-            result.publishLatency99pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(99)));
-            result.publishLatency999pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(99.9)));
-            result.publishLatency9999pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(99.99)));
-            result.publishLatencyMax.add(microsToMillis(stats.publishLatency.getMaxValue()));
-
-            result.scheduleLatencyMin.add(microsToMillis(stats.scheduleLatency.getMinValue()));
-            result.scheduleLatency50pct.add(microsToMillis(stats.scheduleLatency.getValueAtPercentile(50)));
-            result.scheduleLatency75pct.add(microsToMillis(stats.scheduleLatency.getValueAtPercentile(75)));
-            result.scheduleLatency99pct.add(microsToMillis(stats.scheduleLatency.getValueAtPercentile(99)));
-            result.scheduleLatencyMax.add(microsToMillis(stats.scheduleLatency.getMaxValue()));
-
-            result.publishDelayLatencyAvg.add(stats.publishDelayLatency.getMean());
-            result.publishDelayLatency50pct.add(stats.publishDelayLatency.getValueAtPercentile(50));
-            result.publishDelayLatency75pct.add(stats.publishDelayLatency.getValueAtPercentile(75));
-            result.publishDelayLatency95pct.add(stats.publishDelayLatency.getValueAtPercentile(95));
-            result.publishDelayLatency99pct.add(stats.publishDelayLatency.getValueAtPercentile(99));
-            result.publishDelayLatency999pct.add(stats.publishDelayLatency.getValueAtPercentile(99.9));
-            result.publishDelayLatency9999pct.add(stats.publishDelayLatency.getValueAtPercentile(99.99));
-            result.publishDelayLatencyMax.add(stats.publishDelayLatency.getMaxValue());
-
-            result.endToEndLatencyAvg.add(microsToMillis(stats.endToEndLatency.getMean()));
-            result.endToEndLatencyMin.add(microsToMillis(stats.endToEndLatency.getMinValue()));
-            result.endToEndLatency50pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(50)));
-            result.endToEndLatency75pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(75)));
-            result.endToEndLatency95pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(95)));
-            result.endToEndLatency99pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(99)));
-            result.endToEndLatency999pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(99.9)));
-            result.endToEndLatency9999pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(99.99)));
-            result.endToEndLatencyMax.add(microsToMillis(stats.endToEndLatency.getMaxValue()));
-
-            if (now >= testEndTime && !needToWaitForBacklogDraining) {
+            for (TopicGroup group : workload.topicGroups) {
+                PeriodStats groupStats = stats.topicGroups.getOrDefault(group.name, new PeriodStats());
+                long groupBacklog = topicGroupBacklog(group, groupStats);
+                result.topicGroups.get(group.name).addSample(groupStats, elapsed, groupBacklog);
+                log.info("  {} - Pub rate {} msg/s | Cons rate {} msg/s | Backlog: {} K | Pub Latency (ms) 50%: {} "
+                                + "- 99%: {} | E2E Latency (ms) 50%: {} - 99%: {}",
+                        group.name,
+                        rateFormat.format(groupStats.messagesSent / elapsed),
+                        rateFormat.format(groupStats.messagesReceived / elapsed),
+                        dec.format(groupBacklog / 1000.0),
+                        dec.format(microsToMillis(groupStats.publishLatency.getValueAtPercentile(50))),
+                        dec.format(microsToMillis(groupStats.publishLatency.getValueAtPercentile(99))),
+                        dec.format(microsToMillis(groupStats.endToEndLatency.getValueAtPercentile(50))),
+                        dec.format(microsToMillis(groupStats.endToEndLatency.getValueAtPercentile(99))));
+            }
+
+            CatchUpReadResult read = catchUpRead;
+            if (read != null) {
+                int sampleIndex = stream ? resultStream.getSampleCount() : result.sent.size();
+                sampleCatchUpRead(read, stats, elapsed, now, sampleIndex);
+            }
+
+            if (!stats.missingWorkers.isEmpty()) {
+                log.warn("The stats of {} are missing from this sample, it only covers the other workers",
+                        stats.missingWorkers);
+            }
+
+            for (WorkerFleetEvent event : stats.fleetEvents) {
+                log.warn("Worker fleet changed during this sample: {}", event);
+                event.sampleIndex = stream ? resultStream.getSampleCount() : result.sent.size();
+                result.fleetEvents.add(event);
+            }
+
+            TestResult sample = stream ? new TestResult() : result;
+
+            sample.sent.add(stats.messagesSent);
+            sample.consumed.add(stats.messagesReceived);
+            sample.publishFailed.add(stats.errors);
+            sample.consumeFailed.add(stats.pollErrors);
+
+            sample.publishRate.add(publishRate);
+            sample.consumeRate.add(consumeRate);
+            sample.backlog.add(currentBacklog);
+            sample.statsAggregationTimeMillis.add(microsToMillis(stats.aggregationTimeMicros));
+            sample.missingWorkers.add(stats.missingWorkers.size());
+            sample.publishLatencyAvg.add(microsToMillis(stats.publishLatency.getMean()));
+            sample.publishLatencyMin.add(microsToMillis(stats.publishLatency.getMinValue()));
+            sample.publishLatency50pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(50)));
+            sample.publishLatency75pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(75)));
+            sample.publishLatency95pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(95)));
+            sample.publishLatency99pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(99)));
+            sample.publishLatency999pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(99.9)));
+            sample.publishLatency9999pct.add(microsToMillis(stats.publishLatency.getValueAtPercentile(99.99)));
+            sample.publishLatencyMax.add(microsToMillis(stats.publishLatency.getMaxValue()));
+
+            sample.scheduleLatencyMin.add(microsToMillis(stats.scheduleLatency.getMinValue()));
+            sample.scheduleLatency50pct.add(microsToMillis(stats.scheduleLatency.getValueAtPercentile(50)));
+            sample.scheduleLatency75pct.add(microsToMillis(stats.scheduleLatency.getValueAtPercentile(75)));
+            sample.scheduleLatency99pct.add(microsToMillis(stats.scheduleLatency.getValueAtPercentile(99)));
+            sample.scheduleLatencyMax.add(microsToMillis(stats.scheduleLatency.getMaxValue()));
+
+            sample.publishDelayLatencyAvg.add(stats.publishDelayLatency.getMean());
+            sample.publishDelayLatency50pct.add(stats.publishDelayLatency.getValueAtPercentile(50));
+            sample.publishDelayLatency75pct.add(stats.publishDelayLatency.getValueAtPercentile(75));
+            sample.publishDelayLatency95pct.add(stats.publishDelayLatency.getValueAtPercentile(95));
+            sample.publishDelayLatency99pct.add(stats.publishDelayLatency.getValueAtPercentile(99));
+            sample.publishDelayLatency999pct.add(stats.publishDelayLatency.getValueAtPercentile(99.9));
+            sample.publishDelayLatency9999pct.add(stats.publishDelayLatency.getValueAtPercentile(99.99));
+            sample.publishDelayLatencyMax.add(stats.publishDelayLatency.getMaxValue());
+
+            sample.endToEndLatencyAvg.add(microsToMillis(stats.endToEndLatency.getMean()));
+            sample.endToEndLatencyMin.add(microsToMillis(stats.endToEndLatency.getMinValue()));
+            sample.endToEndLatency50pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(50)));
+            sample.endToEndLatency75pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(75)));
+            sample.endToEndLatency95pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(95)));
+            sample.endToEndLatency99pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(99)));
+            sample.endToEndLatency999pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(99.9)));
+            sample.endToEndLatency9999pct.add(microsToMillis(stats.endToEndLatency.getValueAtPercentile(99.99)));
+            sample.endToEndLatencyMax.add(microsToMillis(stats.endToEndLatency.getMaxValue()));
+
+            if (stream) {
+                resultStream.writeSamples(sample);
+            }
+            if (measured && resultStream != null) {
+                resultStream.accumulate(stats);
+            }
+
+            if (steadyStateDetector != null && steadyStateDetector.addSample(publishRate,
+                    microsToMillis(stats.publishLatency.getValueAtPercentile(99)),
+                    microsToMillis(stats.endToEndLatency.getValueAtPercentile(99)))) {
+                break;
+            }
+
+            boolean caughtUp = read != null && read.catchUpMillis != null;
+            if ((now >= testEndTime || caughtUp) && !needToWaitForBacklogDraining) {
                 CumulativeLatencies agg = worker.getCumulativeLatencies();;
+                result.topicGroups.values().forEach(TopicGroupResult::aggregate);
+                if (!agg.missingWorkers.isEmpty()) {
+                    log.warn("The latencies of {} are missing from the aggregated latencies", agg.missingWorkers);
+                }
+                result.aggregatedLatencyMissingWorkers = agg.missingWorkers.size();
 
                 log.info(
                         "----- Aggregated Pub Latency (ms) avg: {} - 50%: {} - 95%: {} - 99%: {} - 99.9%: {} - 99.99%: {} - Max: {} | Pub Delay (us)  avg: {} - 50%: {} - 95%: {} - 99%: {} - 99.9%: {} - 99.99%: {} - Max: {}",
@@ -596,6 +1279,67 @@ public class WorkloadGenerator implements AutoCloseable {
                             microsToMillis(value.getValueIteratedTo()));
                 });
 
+                log.info("----- Client creation latency (ms) producers avg: {} - 50%: {} - 99%: {} - Max: {} | "
+                                + "consumers avg: {} - 50%: {} - 99%: {} - Max: {}",
+                        dec.format(microsToMillis(agg.producerCreationLatency.getMean())),
+                        dec.format(microsToMillis(agg.producerCreationLatency.getValueAtPercentile(50))),
+                        dec.format(microsToMillis(agg.producerCreationLatency.getValueAtPercentile(99))),
+                        dec.format(microsToMillis(agg.producerCreationLatency.getMaxValue())),
+                        dec.format(microsToMillis(agg.consumerCreationLatency.getMean())),
+                        dec.format(microsToMillis(agg.consumerCreationLatency.getValueAtPercentile(50))),
+                        dec.format(microsToMillis(agg.consumerCreationLatency.getValueAtPercentile(99))),
+                        dec.format(microsToMillis(agg.consumerCreationLatency.getMaxValue())));
+
+                result.producerCreationLatencyAvg = microsToMillis(agg.producerCreationLatency.getMean());
+                result.producerCreationLatency50pct = microsToMillis(
+                        agg.producerCreationLatency.getValueAtPercentile(50));
+                result.producerCreationLatency99pct = microsToMillis(
+                        agg.producerCreationLatency.getValueAtPercentile(99));
+                result.producerCreationLatencyMax = microsToMillis(agg.producerCreationLatency.getMaxValue());
+                agg.producerCreationLatency.percentiles(100).forEach(value -> {
+                    result.producerCreationLatencyQuantiles.put(value.getPercentile(),
+                            microsToMillis(value.getValueIteratedTo()));
+                });
+
+                result.consumerCreationLatencyAvg = microsToMillis(agg.consumerCreationLatency.getMean());
+                result.consumerCreationLatency50pct = microsToMillis(
+                        agg.consumerCreationLatency.getValueAtPercentile(50));
+                result.consumerCreationLatency99pct = microsToMillis(
+                        agg.consumerCreationLatency.getValueAtPercentile(99));
+                result.consumerCreationLatencyMax = microsToMillis(agg.consumerCreationLatency.getMaxValue());
+                agg.consumerCreationLatency.percentiles(100).forEach(value -> {
+                    result.consumerCreationLatencyQuantiles.put(value.getPercentile(),
+                            microsToMillis(value.getValueIteratedTo()));
+                });
+
+                if (workload.producerChurnFraction > 0) {
+                    result.producerFirstSendLatencyAvg = microsToMillis(agg.producerFirstSendLatency.getMean());
+                    result.producerFirstSendLatency50pct = microsToMillis(
+                            agg.producerFirstSendLatency.getValueAtPercentile(50));
+                    result.producerFirstSendLatency99pct = microsToMillis(
+                            agg.producerFirstSendLatency.getValueAtPercentile(99));
+                    result.producerFirstSendLatencyMax = microsToMillis(agg.producerFirstSendLatency.getMaxValue());
+
+                    result.steadyPublishLatency50pct = microsToMillis(
+                            agg.steadyPublishLatency.getValueAtPercentile(50));
+                    result.steadyPublishLatency99pct = microsToMillis(
+                            agg.steadyPublishLatency.getValueAtPercentile(99));
+                    result.steadyPublishLatency999pct = microsToMillis(
+                            agg.steadyPublishLatency.getValueAtPercentile(99.9));
+                    result.steadyPublishLatencyMax = microsToMillis(agg.steadyPublishLatency.getMaxValue());
+
+                    log.info("----- Producer churn: {} first sends (ms) avg: {} - 50%: {} - 99%: {} - Max: {}"
+                                    + " | Steady producers pub latency (ms) 50%: {} - 99%: {} - 99.9%: {}",
+                            agg.producerFirstSendLatency.getTotalCount(),
+                            dec.format(result.producerFirstSendLatencyAvg),
+                            dec.format(result.producerFirstSendLatency50pct),
+                            dec.format(result.producerFirstSendLatency99pct),
+                            dec.format(result.producerFirstSendLatencyMax),
+                            dec.format(result.steadyPublishLatency50pct),
+                            dec.format(result.steadyPublishLatency99pct),
+                            dec.format(result.steadyPublishLatency999pct));
+                }
+
                 break;
             }
 
@@ -605,6 +1349,23 @@ public class WorkloadGenerator implements AutoCloseable {
         return result;
     }
 
+    private TestResult newTestResult() {
+        TestResult result = new TestResult();
+        result.workload = workload.name;
+        result.driver = driverName;
+        result.topics = workload.topics;
+        result.partitions = workload.partitionsPerTopic;
+        result.messageSize = workload.messageSize;
+        if (workload.messageSizeDistribution != null) {
+            result.messageSizeDistribution = workload.messageSizeDistribution.toString();
+        }
+        result.producersPerTopic = workload.producersPerTopic;
+        result.consumersPerTopic = workload.consumerPerSubscription;
+        result.sampleRateMillis = workload.sampleRateMillis;
+        workload.topicGroups.forEach(group -> result.topicGroups.put(group.name, new TopicGroupResult(group)));
+        return result;
+    }
+
     private static double microsToMillis(double microTime) {
         return microTime / (1000);
     }
@@ -613,6 +1374,8 @@ public class WorkloadGenerator implements AutoCloseable {
         return microTime / (1000.0);
     }
 
+    private static final int PREFILL_STALL_SECONDS = 60;
+
     private static final DecimalFormat rateFormat = new PaddingDecimalFormat("0.000", 7);
     private static final DecimalFormat throughputFormat = new PaddingDecimalFormat("0.000", 4);
     private static final DecimalFormat dec = new PaddingDecimalFormat("0.000", 4);
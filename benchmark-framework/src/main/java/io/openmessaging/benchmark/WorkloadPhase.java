@@ -0,0 +1,66 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark;
+
+/**
+ * One phase of a scenario workload, eg: a ramp-up, a burst or a consumer outage. All the phases run on the same
+ * topics and clients, one after the other.
+ */
+public class WorkloadPhase {
+
+    /** Label of the phase in the logs and in the results. */
+    public String name;
+
+    public int durationSeconds;
+
+    /**
+     * Publish rate of the phase, either absolute or as a multiple of the workload producerRate. If neither is set,
+     * the rate of the previous phase is kept.
+     */
+    public int producerRate;
+    public double producerRateMultiplier;
+
+    /** Change the rate linearly from the rate of the previous phase over the duration of the phase. */
+    public boolean ramp = false;
+
+    /** If set, the ramp starts from this rate instead of the rate of the previous phase. */
+    public int rampFromRate;
+
+    /** Pause all the consumers for the duration of the phase, eg: to simulate an outage. */
+    public boolean consumersActive = true;
+
+    /**
+     * Return the publish rate of this phase.
+     *
+     * @param baseRate the publish rate of the workload
+     * @param previousRate the publish rate of the previous phase
+     */
+    public double getRate(double baseRate, double previousRate) {
+        if (producerRate > 0) {
+            return producerRate;
+        } else if (producerRateMultiplier > 0) {
+            return baseRate * producerRateMultiplier;
+        }
+        return previousRate;
+    }
+
+    public void validate() {
+        if (durationSeconds <= 0) {
+            throw new RuntimeException(String.format("Phase %s must have a positive durationSeconds", name));
+        }
+        if (producerRate < 0 || producerRateMultiplier < 0 || rampFromRate < 0) {
+            throw new RuntimeException(String.format("Phase %s has a negative producer rate", name));
+        }
+    }
+}
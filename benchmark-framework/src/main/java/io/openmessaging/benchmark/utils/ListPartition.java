@@ -56,4 +56,39 @@ public class ListPartition {
         return resultList;
     }
 
+    /**
+     * partition a list into one sub-list per weight, with sizes proportional to the weights. Items are
+     * interleaved (smooth weighted round-robin), so equal weights give the same result as
+     * {@link #partitionList(List, int)} for lists longer than the number of weights.
+     *
+     * @param originList
+     * @param weights relative weight of each partition, must be positive
+     * @param <T>
+     * @return
+     */
+    public static <T> List<List<T>> partitionListWeighted(List<T> originList, List<Double> weights) {
+        List<List<T>> resultList = new ArrayList<>();
+        for (int i = 0; i < weights.size(); i++) {
+            resultList.add(new ArrayList<>());
+        }
+        if (null == originList || weights.isEmpty()) {
+            return resultList;
+        }
+
+        double total = weights.stream().mapToDouble(Double::doubleValue).sum();
+        double[] current = new double[weights.size()];
+        for (T item : originList) {
+            int selected = 0;
+            for (int i = 0; i < current.length; i++) {
+                current[i] += weights.get(i);
+                if (current[i] > current[selected]) {
+                    selected = i;
+                }
+            }
+            current[selected] -= total;
+            resultList.get(selected).add(item);
+        }
+        return resultList;
+    }
+
 }
@@ -0,0 +1,27 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+/**
+ * Provides the intended time of the next operation of a rate limited operation stream.<br>
+ * The intended times only depend on the schedule, not on when the operations actually happen, so that delays
+ * in sending are accounted for in the publish delay and latency measurements.
+ */
+public interface OperationRateLimiter {
+
+    /**
+     * @return the {@link System#nanoTime()} at which the next operation is intended to happen
+     */
+    long acquire();
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Rate limiter following a {@link RateProfile}: the rate varies with the shape of the profile and the gaps between
+ * operations are either uniform or exponentially distributed.<br>
+ * Like {@link UniformRateLimiter}, the schedule is kept as a virtual time that each operation advances by its own
+ * gap, so the intended times stay independent of when the operations actually happen. The rate limiter is thread
+ * safe and can be shared by all threads.
+ */
+public final class ProfiledRateLimiter implements OperationRateLimiter {
+
+    private static final AtomicLongFieldUpdater<ProfiledRateLimiter> V_TIME_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(ProfiledRateLimiter.class, "virtualTime");
+    private static final double ONE_SEC_IN_NS = TimeUnit.SECONDS.toNanos(1);
+
+    private final RateProfile profile;
+    private final double opsPerSec;
+    private final long start;
+    private final long profileStart;
+
+    // Time of the next operation, relative to start
+    private volatile long virtualTime;
+
+    /**
+     * @param opsPerSec the base rate of the profile
+     * @param startNs the {@link System#nanoTime()} of the first operation
+     * @param profileStartNs the {@link System#nanoTime()} at which the profile started, so that its shape carries on
+     *            across rate adjustments
+     */
+    public ProfiledRateLimiter(RateProfile profile, double opsPerSec, long startNs, long profileStartNs) {
+        if (Double.isNaN(opsPerSec) || Double.isInfinite(opsPerSec)) {
+            throw new IllegalArgumentException("opsPerSec cannot be Nan or Infinite");
+        }
+        if (opsPerSec <= 0) {
+            throw new IllegalArgumentException("opsPerSec must be greater then 0");
+        }
+        profile.validate();
+        this.profile = profile;
+        this.opsPerSec = opsPerSec;
+        this.start = startNs;
+        this.profileStart = profileStartNs;
+    }
+
+    @Override
+    public long acquire() {
+        while (true) {
+            final long current = virtualTime;
+            final double profileSeconds = Math.max(0, (start + current - profileStart) / ONE_SEC_IN_NS);
+
+            // Skip silent periods, there is nothing to send in them
+            final double activeSeconds = profile.nextActiveTime(profileSeconds);
+            final long opTime = current + Math.round((activeSeconds - profileSeconds) * ONE_SEC_IN_NS);
+
+            final double rate = opsPerSec * profile.multiplierAt(activeSeconds);
+            double gapNs = ONE_SEC_IN_NS / rate;
+            if (profile.arrivals == RateProfile.Arrivals.POISSON) {
+                gapNs *= -Math.log(1 - ThreadLocalRandom.current().nextDouble());
+            }
+
+            if (V_TIME_UPDATER.compareAndSet(this, current, opTime + Math.max(1, Math.round(gapNs)))) {
+                return start + opTime;
+            }
+        }
+    }
+}
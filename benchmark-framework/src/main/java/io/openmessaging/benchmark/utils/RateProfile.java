@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shape of the publish rate over time and distribution of the inter-arrival times around it. The publish rate of
+ * the workload, or the one set by a rate adjustment, is the base rate that the shape multiplies.
+ */
+public class RateProfile {
+
+    public enum Shape {
+        /** The base rate, all the time. */
+        CONSTANT,
+
+        /**
+         * Bursts of onSeconds followed by silences of offSeconds. The rate during the bursts is raised so that the
+         * average stays at the base rate.
+         */
+        ON_OFF,
+
+        /** base * (1 + amplitude * sin(2 * PI * t / periodSeconds)), eg: a daily cycle compressed into minutes. */
+        SINUSOIDAL,
+
+        /** Each of the stepMultipliers held for stepSeconds, then the last one for the rest of the run. */
+        STEP,
+    }
+
+    public enum Arrivals {
+        /** Evenly spaced operations. */
+        UNIFORM,
+
+        /** Exponentially distributed inter-arrival times, ie: a Poisson process around the current rate. */
+        POISSON,
+    }
+
+    public Shape shape = Shape.CONSTANT;
+    public Arrivals arrivals = Arrivals.UNIFORM;
+
+    public double onSeconds;
+    public double offSeconds;
+
+    public double periodSeconds;
+    public double amplitude;
+
+    public double stepSeconds;
+    public List<Double> stepMultipliers = Collections.emptyList();
+
+    /**
+     * @return true if the profile is the plain uniform constant rate
+     */
+    public boolean isUniform() {
+        return shape == Shape.CONSTANT && arrivals == Arrivals.UNIFORM;
+    }
+
+    /**
+     * @return the multiplier of the base rate at the given time since the start of the load
+     */
+    public double multiplierAt(double seconds) {
+        switch (shape) {
+            case ON_OFF:
+                return isOn(seconds) ? (onSeconds + offSeconds) / onSeconds : 0;
+            case SINUSOIDAL:
+                return 1 + amplitude * Math.sin(2 * Math.PI * seconds / periodSeconds);
+            case STEP:
+                int step = (int) Math.min(seconds / stepSeconds, stepMultipliers.size() - 1);
+                return stepMultipliers.get(step);
+            case CONSTANT:
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * @return the first time, at or after the given one, at which the rate is not zero
+     */
+    public double nextActiveTime(double seconds) {
+        if (shape != Shape.ON_OFF || isOn(seconds)) {
+            return seconds;
+        }
+        double cycle = onSeconds + offSeconds;
+        return (Math.floor(seconds / cycle) + 1) * cycle;
+    }
+
+    private boolean isOn(double seconds) {
+        return seconds % (onSeconds + offSeconds) < onSeconds;
+    }
+
+    public void validate() {
+        switch (shape) {
+            case ON_OFF:
+                if (onSeconds <= 0 || offSeconds < 0) {
+                    throw new IllegalArgumentException("On/off rate profile needs a positive onSeconds");
+                }
+                break;
+            case SINUSOIDAL:
+                if (periodSeconds <= 0 || amplitude < 0 || amplitude >= 1) {
+                    throw new IllegalArgumentException(
+                            "Sinusoidal rate profile needs a positive periodSeconds and an amplitude in [0, 1)");
+                }
+                break;
+            case STEP:
+                if (stepSeconds <= 0 || stepMultipliers.isEmpty()
+                        || stepMultipliers.stream().anyMatch(m -> m <= 0)) {
+                    throw new IllegalArgumentException(
+                            "Step rate profile needs a positive stepSeconds and positive stepMultipliers");
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return shape + "/" + arrivals;
+    }
+}
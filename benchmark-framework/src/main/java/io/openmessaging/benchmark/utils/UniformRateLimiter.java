@@ -21,7 +21,7 @@ import java.util.concurrent.locks.LockSupport;
  * Provides a next operation time for rate limited operation streams.<br>
  * The rate limiter is thread safe and can be shared by all threads.
  */
-public final class UniformRateLimiter {
+public final class UniformRateLimiter implements OperationRateLimiter {
 
     private static final AtomicLongFieldUpdater<UniformRateLimiter> V_TIME_UPDATER =
             AtomicLongFieldUpdater.newUpdater(UniformRateLimiter.class, "virtualTime");
@@ -44,6 +44,15 @@ public final class UniformRateLimiter {
         intervalNs = Math.round(ONE_SEC_IN_NS / opsPerSec);
     }
 
+    /**
+     * Rate limiter whose first operation is scheduled at the given {@link System#nanoTime()} instead of at the
+     * first call to {@link #acquire()}.
+     */
+    public UniformRateLimiter(final double opsPerSec, final long startNs) {
+        this(opsPerSec);
+        this.start = startNs;
+    }
+
     public double getOpsPerSec() {
         return opsPerSec;
     }
@@ -52,6 +61,7 @@ public final class UniformRateLimiter {
         return intervalNs;
     }
 
+    @Override
     public long acquire() {
         final long currOpIndex = V_TIME_UPDATER.getAndIncrement(this);
         long start = this.start;
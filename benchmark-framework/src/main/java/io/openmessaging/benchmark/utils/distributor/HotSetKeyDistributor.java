@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.distributor;
+
+import java.util.SplittableRandom;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Sends a fixed share of the messages to a small set of hot keys, and spreads the rest uniformly over the other keys.
+ */
+@NotThreadSafe
+public class HotSetKeyDistributor extends KeyDistributor {
+
+    private final int hotKeys;
+    private final double hotKeyTrafficRatio;
+    private final SplittableRandom random;
+
+    public HotSetKeyDistributor(KeySpace keySpace, SplittableRandom random) {
+        super(keySpace);
+        this.random = random;
+        this.hotKeys = keySpace.hotKeys;
+        this.hotKeyTrafficRatio = keySpace.hotKeyTrafficRatio;
+    }
+
+    @Override
+    public int nextIndex() {
+        if (hotKeys == getLength() || random.nextDouble() < hotKeyTrafficRatio) {
+            return random.nextInt(hotKeys);
+        }
+        return hotKeys + random.nextInt(getLength() - hotKeys);
+    }
+}
@@ -13,48 +13,67 @@
  */
 package io.openmessaging.benchmark.utils.distributor;
 
-import com.google.common.io.BaseEncoding;
+import java.util.SplittableRandom;
 
-import java.util.Random;
+import io.openmessaging.benchmark.driver.MessageKey;
 
 public abstract class KeyDistributor {
 
-    private static final int UNIQUE_COUNT = 10_000;
-    private static final int KEY_BYTE_SIZE = 7;
+    private final MessageKey[] keys;
 
-    private static final String[] randomKeys = new String[UNIQUE_COUNT];
-    private static final Random random = new Random();
+    protected KeyDistributor(KeySpace keySpace) {
+        this.keys = keySpace.getKeys();
+    }
 
-    static {
-        // Generate a number of random keys to be used when publishing
-        byte[] buffer = new byte[KEY_BYTE_SIZE];
-        for (int i = 0; i < randomKeys.length; i++) {
-            random.nextBytes(buffer);
-            randomKeys[i] = BaseEncoding.base64Url().omitPadding().encode(buffer);
-        }
+    protected KeyDistributor() {
+        this.keys = new MessageKey[0];
     }
 
-    protected String get(int index) {
-        return randomKeys[index];
+    public MessageKey get(int index) {
+        return keys[index];
     }
 
     protected int getLength() {
-        return UNIQUE_COUNT;
+        return keys.length;
     }
 
-    public abstract String next();
+    /**
+     * @return the index of the next key in the key space, or -1 for no key
+     */
+    public abstract int nextIndex();
+
+    public String next() {
+        int index = nextIndex();
+        return index < 0 ? null : keys[index].asString();
+    }
 
     public static KeyDistributor build(KeyDistributorType keyType) {
+        return build(keyType, new KeySpace(), new SplittableRandom());
+    }
+
+    /**
+     * @param random
+     *            the source of the random distributors, which must not be shared with other threads: use
+     *            {@link SplittableRandom#split()} to give each producer thread its own
+     */
+    public static KeyDistributor build(KeyDistributorType keyType, KeySpace keySpace, SplittableRandom random) {
         KeyDistributor keyDistributor = null;
         switch (keyType) {
             case NO_KEY:
                 keyDistributor = new NoKeyDistributor();
                 break;
             case KEY_ROUND_ROBIN:
-                keyDistributor = new KeyRoundRobin();
+                keyDistributor = new KeyRoundRobin(keySpace);
                 break;
             case RANDOM_NANO:
-                keyDistributor = new RandomNano();
+            case UNIFORM_RANDOM:
+                keyDistributor = new UniformRandomKeyDistributor(keySpace, random);
+                break;
+            case ZIPFIAN:
+                keyDistributor = new ZipfianKeyDistributor(keySpace, random);
+                break;
+            case HOT_SET:
+                keyDistributor = new HotSetKeyDistributor(keySpace, random);
                 break;
         }
         return keyDistributor;
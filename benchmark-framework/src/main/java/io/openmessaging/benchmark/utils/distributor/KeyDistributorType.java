@@ -25,7 +25,23 @@ public enum KeyDistributorType {
     KEY_ROUND_ROBIN,
 
     /**
-     * Random distribution based on System.nanoTime()
+     * Kept for existing workloads, same as {@link #UNIFORM_RANDOM}. It used to pick keys from System.nanoTime(), which
+     * is coarse on some platforms and correlated across threads sending at the same cadence
      */
     RANDOM_NANO,
+
+    /**
+     * Zipfian distribution over the key space, the key of rank k being picked with a weight of 1 / k^zipfExponent
+     */
+    ZIPFIAN,
+
+    /**
+     * A hot set of hotKeys keys receives hotKeyTrafficRatio of the messages, the other keys share the rest uniformly
+     */
+    HOT_SET,
+
+    /**
+     * Uniform random distribution over the key space
+     */
+    UNIFORM_RANDOM,
 }
@@ -20,11 +20,15 @@ public class KeyRoundRobin extends KeyDistributor {
 
     private int currentIndex = 0;
 
+    public KeyRoundRobin(KeySpace keySpace) {
+        super(keySpace);
+    }
+
     @Override
-    public String next() {
+    public int nextIndex() {
         if (++currentIndex >= getLength()) {
             currentIndex = 0;
         }
-        return get(currentIndex);
+        return currentIndex;
     }
 }
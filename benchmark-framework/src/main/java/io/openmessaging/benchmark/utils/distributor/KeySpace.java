@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.distributor;
+
+import java.util.Random;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.io.BaseEncoding;
+
+import io.openmessaging.benchmark.driver.MessageKey;
+
+/**
+ * The set of keys the producers pick from, and the parameters of the skewed key distributions.
+ *
+ * Keys are generated from a fixed seed, so every worker publishes with the same keys and a hot key is hot across
+ * the whole fleet, as it would be in production. The keys and the tables derived from them are built once per load
+ * and shared read-only by all the producer threads.
+ */
+public class KeySpace {
+
+    private static final long SEED = 0x6b657973L;
+
+    /** Number of distinct keys. */
+    public int cardinality = 10_000;
+
+    /** Random bytes in each key, before they are base64 encoded. */
+    public int keyLengthBytes = 7;
+
+    /** Exponent of the {@link KeyDistributorType#ZIPFIAN} distribution, the higher the more skewed. */
+    public double zipfExponent = 1.0;
+
+    /** Number of keys in the hot set of {@link KeyDistributorType#HOT_SET}, and the share of traffic they get. */
+    public int hotKeys = 100;
+    public double hotKeyTrafficRatio = 0.9;
+
+    private MessageKey[] keys;
+    private double[] zipfCumulativeProbabilities;
+
+    @JsonIgnore
+    public synchronized MessageKey[] getKeys() {
+        if (keys == null) {
+            Random random = new Random(SEED);
+            byte[] buffer = new byte[keyLengthBytes];
+            keys = new MessageKey[cardinality];
+            for (int i = 0; i < cardinality; i++) {
+                random.nextBytes(buffer);
+                keys[i] = MessageKey.of(BaseEncoding.base64Url().omitPadding().encode(buffer));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Cumulative probability of each key rank, the key at index i having a weight of 1 / (i + 1)^zipfExponent.
+     */
+    @JsonIgnore
+    public synchronized double[] getZipfCumulativeProbabilities() {
+        if (zipfCumulativeProbabilities == null) {
+            double[] cdf = new double[cardinality];
+            double sum = 0;
+            for (int i = 0; i < cardinality; i++) {
+                sum += 1 / Math.pow(i + 1, zipfExponent);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < cardinality; i++) {
+                cdf[i] /= sum;
+            }
+            zipfCumulativeProbabilities = cdf;
+        }
+        return zipfCumulativeProbabilities;
+    }
+
+    /**
+     * Partition of each key on a topic with the given number of partitions, according to the default partitioner of
+     * the Kafka protocol clients. Other drivers hash keys differently, so this is only an estimate of where their
+     * messages land.
+     */
+    public int[] getPartitions(int partitions) {
+        MessageKey[] keys = getKeys();
+        int[] keyPartitions = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keyPartitions[i] = (murmur2(keys[i].asBytes()) & 0x7fffffff) % partitions;
+        }
+        return keyPartitions;
+    }
+
+    /**
+     * The murmur2 hash, as used by the Kafka default partitioner.
+     */
+    static int murmur2(byte[] data) {
+        int length = data.length;
+        int m = 0x5bd1e995;
+        int r = 24;
+        int h = 0x9747b28c ^ length;
+
+        for (int i = 0; i < length / 4; i++) {
+            int i4 = i * 4;
+            int k = (data[i4] & 0xff) + ((data[i4 + 1] & 0xff) << 8) + ((data[i4 + 2] & 0xff) << 16)
+                    + ((data[i4 + 3] & 0xff) << 24);
+            k *= m;
+            k ^= k >>> r;
+            k *= m;
+            h *= m;
+            h ^= k;
+        }
+
+        int tail = length & ~3;
+        switch (length % 4) {
+            case 3:
+                h ^= (data[tail + 2] & 0xff) << 16;
+            case 2:
+                h ^= (data[tail + 1] & 0xff) << 8;
+            case 1:
+                h ^= data[tail] & 0xff;
+                h *= m;
+        }
+
+        h ^= h >>> 13;
+        h *= m;
+        h ^= h >>> 15;
+        return h;
+    }
+
+    /**
+     * Check the parameters, those of the hot set only when the given distributor uses it, eg: a key space smaller
+     * than the default hot set is fine with a Zipfian distribution.
+     */
+    public void validate(KeyDistributorType distributorType) {
+        if (cardinality <= 0) {
+            throw new IllegalArgumentException("Key space cardinality must be positive");
+        }
+        if (keyLengthBytes <= 0) {
+            throw new IllegalArgumentException("Key space keyLengthBytes must be positive");
+        }
+        if (zipfExponent < 0) {
+            throw new IllegalArgumentException("Key space zipfExponent must not be negative");
+        }
+        if (distributorType == KeyDistributorType.HOT_SET) {
+            if (hotKeys <= 0 || hotKeys > cardinality) {
+                throw new IllegalArgumentException("Key space hotKeys must be between 1 and the cardinality");
+            }
+            if (hotKeyTrafficRatio < 0 || hotKeyTrafficRatio > 1) {
+                throw new IllegalArgumentException("Key space hotKeyTrafficRatio must be between 0 and 1");
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("KeySpace{cardinality=%d, keyLengthBytes=%d, zipfExponent=%s, hotKeys=%d, "
+                + "hotKeyTrafficRatio=%s}", cardinality, keyLengthBytes, zipfExponent, hotKeys, hotKeyTrafficRatio);
+    }
+}
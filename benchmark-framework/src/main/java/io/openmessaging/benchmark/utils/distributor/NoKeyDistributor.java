@@ -16,7 +16,7 @@ package io.openmessaging.benchmark.utils.distributor;
 public class NoKeyDistributor extends KeyDistributor {
 
     @Override
-    public String next() {
-        return null;
+    public int nextIndex() {
+        return -1;
     }
 }
@@ -15,11 +15,20 @@ package io.openmessaging.benchmark.utils.distributor;
 
 import javax.annotation.concurrent.ThreadSafe;
 
+/**
+ * @deprecated {@link KeyDistributorType#RANDOM_NANO} now builds a {@link UniformRandomKeyDistributor}, this is only
+ *             kept to compare with it
+ */
+@Deprecated
 @ThreadSafe
 public class RandomNano extends KeyDistributor {
 
-    public String next() {
-        int randomIndex = Math.abs((int) System.nanoTime() % getLength());
-        return get(randomIndex);
+    public RandomNano(KeySpace keySpace) {
+        super(keySpace);
+    }
+
+    @Override
+    public int nextIndex() {
+        return Math.abs((int) System.nanoTime() % getLength());
     }
 }
@@ -0,0 +1,34 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.distributor;
+
+import java.util.SplittableRandom;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+@NotThreadSafe
+public class UniformRandomKeyDistributor extends KeyDistributor {
+
+    private final SplittableRandom random;
+
+    public UniformRandomKeyDistributor(KeySpace keySpace, SplittableRandom random) {
+        super(keySpace);
+        this.random = random;
+    }
+
+    @Override
+    public int nextIndex() {
+        return random.nextInt(getLength());
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.distributor;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Picks keys by inverting the cumulative Zipfian distribution with a binary search, without allocating.
+ */
+@NotThreadSafe
+public class ZipfianKeyDistributor extends KeyDistributor {
+
+    private final double[] cumulativeProbabilities;
+    private final SplittableRandom random;
+
+    public ZipfianKeyDistributor(KeySpace keySpace, SplittableRandom random) {
+        super(keySpace);
+        this.random = random;
+        this.cumulativeProbabilities = keySpace.getZipfCumulativeProbabilities();
+    }
+
+    @Override
+    public int nextIndex() {
+        int index = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble());
+        // Not found gives -(insertion point) - 1, the insertion point being the first key above the draw
+        return Math.min(index >= 0 ? index : -index - 1, getLength() - 1);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+import java.util.zip.Deflater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xerial.snappy.Snappy;
+
+import com.github.luben.zstd.Zstd;
+
+import io.openmessaging.benchmark.worker.commands.CompressionStats;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+
+/**
+ * Measures how well the payloads compress, and at which CPU cost, with the codecs of the producer clients. The
+ * drivers compress inside the client libraries, which do not expose it, so the probe compresses batches of payloads
+ * drawn from the pool the producers send, like a producer filling batches of BATCH_BYTES, with the default levels of
+ * the Kafka client.
+ */
+public class CompressionProbe {
+
+    public static Map<String, CompressionStats> measure(List<byte[]> payloads, long seed) {
+        byte[][] batches = new byte[BATCHES][];
+        Random random = new Random(seed);
+        for (int i = 0; i < BATCHES; i++) {
+            byte[] batch = new byte[BATCH_BYTES];
+            int offset = 0;
+            while (offset < BATCH_BYTES) {
+                byte[] payload = payloads.get(random.nextInt(payloads.size()));
+                int length = Math.min(payload.length, BATCH_BYTES - offset);
+                System.arraycopy(payload, 0, batch, offset, length);
+                offset += length;
+            }
+            batches[i] = batch;
+        }
+
+        Map<String, CompressionStats> results = new TreeMap<>();
+        measure(results, "gzip", batches, CompressionProbe::gzip);
+        measure(results, "snappy", batches, batch -> {
+            try {
+                return Snappy.compress(batch).length;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        LZ4Compressor lz4 = LZ4Factory.fastestInstance().fastCompressor();
+        measure(results, "lz4", batches, batch -> lz4.compress(batch).length);
+        measure(results, "zstd", batches, batch -> Zstd.compress(batch, ZSTD_LEVEL).length);
+        return results;
+    }
+
+    private static void measure(Map<String, CompressionStats> results, String codec, byte[][] batches,
+            ToIntFunction<byte[]> compress) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        try {
+            // The first batch warms the codec up, and loads the native ones
+            compress.applyAsInt(batches[0]);
+            CompressionStats stats = new CompressionStats();
+            long start = threads.getCurrentThreadCpuTime();
+            for (byte[] batch : batches) {
+                stats.compressedBytes += compress.applyAsInt(batch);
+                stats.uncompressedBytes += batch.length;
+            }
+            stats.cpuNanos = threads.getCurrentThreadCpuTime() - start;
+            results.put(codec, stats);
+        } catch (Throwable t) {
+            // Native codecs are not available on every platform
+            log.warn("Unable to measure the compression of the payloads with {}: {}", codec, t.toString());
+        }
+    }
+
+    private static int gzip(byte[] batch) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(batch);
+            deflater.finish();
+            byte[] buffer = new byte[BATCH_BYTES];
+            int length = 0;
+            while (!deflater.finished()) {
+                length += deflater.deflate(buffer);
+            }
+            return length;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static final int BATCH_BYTES = 16 * 1024;
+    private static final int BATCHES = 256;
+    private static final int ZSTD_LEVEL = 3;
+
+    private static final Logger log = LoggerFactory.getLogger(CompressionProbe.class);
+}
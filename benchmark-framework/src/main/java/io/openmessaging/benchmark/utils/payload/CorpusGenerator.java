@@ -0,0 +1,187 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates payloads made of records of a {@link PayloadCorpus}, cut to the requested size. The entropy, between 0
+ * and 1, is the probability that each field of a record gets a random value rather than one from a small
+ * vocabulary, skewed towards its first entries: 0 gives very repetitive records, 1 random values within the
+ * structure of the records. Not thread-safe.
+ */
+public class CorpusGenerator {
+
+    private final PayloadCorpus corpus;
+    private final double entropy;
+    private final Random random;
+
+    private long id;
+    private long timestampMillis = 1_700_000_000_000L;
+
+    public CorpusGenerator(PayloadCorpus corpus, double entropy, long seed) {
+        this.corpus = corpus;
+        this.entropy = entropy;
+        this.random = new Random(seed);
+        this.id = 1_000_000 + random.nextInt(1_000_000);
+    }
+
+    public byte[] generate(int size) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + 512);
+        while (out.size() < size) {
+            id += isRandom() ? 1 + random.nextInt(1_000_000) : 1;
+            timestampMillis += isRandom() ? random.nextInt(60_000) : random.nextInt(10);
+            switch (corpus) {
+                case JSON:
+                    writeJson(out);
+                    break;
+                case LOG_LINES:
+                    writeLogLine(out);
+                    break;
+                case AVRO_LIKE:
+                    writeAvroLike(out);
+                    break;
+                default:
+                    throw new IllegalArgumentException("No records for corpus " + corpus);
+            }
+        }
+        return Arrays.copyOf(out.toByteArray(), size);
+    }
+
+    private void writeJson(ByteArrayOutputStream out) {
+        StringBuilder record = new StringBuilder(256);
+        record.append("{\"id\":").append(id)
+                .append(",\"ts\":").append(timestampMillis)
+                .append(",\"user\":\"").append(pick(USERS, 8)).append('"')
+                .append(",\"event\":\"").append(pick(EVENTS, 10)).append('"')
+                .append(",\"country\":\"").append(pick(COUNTRIES, 2)).append('"')
+                .append(",\"amount\":").append(amount())
+                .append(",\"session\":\"").append(pick(SESSIONS, 16)).append('"')
+                .append(",\"tags\":[\"").append(pick(TAGS, 6)).append("\",\"").append(pick(TAGS, 6)).append("\"]}\n");
+        write(out, record);
+    }
+
+    private void writeLogLine(ByteArrayOutputStream out) {
+        StringBuilder line = new StringBuilder(256);
+        line.append(Instant.ofEpochMilli(timestampMillis)).append(' ')
+                .append(pick(LEVELS, 5)).append(" [").append(pick(THREADS, 12)).append("] ")
+                .append(pick(LOGGERS, 24)).append(" - ");
+        switch (random.nextInt(3)) {
+            case 0:
+                line.append("Processed order ").append(id).append(" for customer ").append(pick(USERS, 8))
+                        .append(" in ").append(isRandom() ? random.nextInt(10_000) : 1 + random.nextInt(20))
+                        .append(" ms");
+                break;
+            case 1:
+                line.append("Request ").append(pick(SESSIONS, 16)).append(' ').append(pick(PATHS, 12))
+                        .append(" returned ").append(pick(STATUSES, 3));
+                break;
+            default:
+                line.append("Cache ").append(pick(EVENTS, 10)).append(" hit ratio ").append(amount());
+                break;
+        }
+        line.append('\n');
+        write(out, line);
+    }
+
+    private void writeAvroLike(ByteArrayOutputStream out) {
+        writeVarLong(out, id);
+        writeVarLong(out, timestampMillis);
+        writeString(out, pick(USERS, 8));
+        writeVarLong(out, isRandom() ? random.nextInt(EVENTS.length) : skewedIndex(EVENTS.length));
+        writeString(out, pick(COUNTRIES, 2));
+        long amountBits = Double.doubleToLongBits(amount());
+        for (int i = 0; i < 8; i++) {
+            out.write((int) (amountBits >>> (8 * i)));
+        }
+        writeString(out, pick(SESSIONS, 16));
+        writeVarLong(out, 2);
+        writeString(out, pick(TAGS, 6));
+        writeString(out, pick(TAGS, 6));
+        writeVarLong(out, 0);
+    }
+
+    private boolean isRandom() {
+        return random.nextDouble() < entropy;
+    }
+
+    /**
+     * @return a vocabulary entry, or a random alphanumeric string of the given length with a probability of entropy
+     */
+    private String pick(String[] vocabulary, int randomLength) {
+        if (isRandom()) {
+            char[] chars = new char[randomLength];
+            for (int i = 0; i < randomLength; i++) {
+                chars[i] = ALPHANUMERIC.charAt(random.nextInt(ALPHANUMERIC.length()));
+            }
+            return new String(chars);
+        }
+        return vocabulary[skewedIndex(vocabulary.length)];
+    }
+
+    // Favours the first entries, like the values of real fields
+    private int skewedIndex(int size) {
+        return random.nextInt(random.nextInt(size) + 1);
+    }
+
+    private double amount() {
+        int cents = isRandom() ? random.nextInt(10_000_000) : PRICES[skewedIndex(PRICES.length)];
+        return cents / 100.0;
+    }
+
+    private static void write(ByteArrayOutputStream out, CharSequence text) {
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            out.write((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.write((int) zigZag);
+    }
+
+    private static final String ALPHANUMERIC = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    private static final String[] USERS = { "alice", "bob", "carol", "dave", "erin", "frank", "grace", "heidi",
+            "ivan", "judy", "mallory", "oscar", "peggy", "trent", "victor", "walter" };
+    private static final String[] EVENTS = { "page_view", "click", "add_to_cart", "checkout", "purchase", "login",
+            "logout", "search", "refund", "signup" };
+    private static final String[] COUNTRIES = { "US", "DE", "GB", "FR", "IN", "BR", "JP", "CA", "AU", "NL" };
+    private static final String[] SESSIONS = { "3f9a1c7e5b2d4a60", "9c0e7d21a4b6f385", "51d2b8e0c7a94f36",
+            "e4a7c9015bd23f68", "0b6d3e9f2a1c8574" };
+    private static final String[] TAGS = { "mobile", "web", "promo", "beta", "returning", "new", "vip", "ios",
+            "android" };
+    private static final String[] LEVELS = { "INFO", "INFO", "INFO", "DEBUG", "WARN", "ERROR" };
+    private static final String[] THREADS = { "main", "http-nio-8080-exec-1", "http-nio-8080-exec-2",
+            "scheduler-1", "kafka-producer-network-thread", "ForkJoinPool.commonPool-worker-3" };
+    private static final String[] LOGGERS = { "c.e.orders.OrderService", "c.e.http.RequestLogger",
+            "c.e.cache.CacheManager", "c.e.payments.PaymentGateway", "o.a.k.clients.NetworkClient" };
+    private static final String[] PATHS = { "GET /api/v1/orders", "POST /api/v1/cart", "GET /health",
+            "GET /api/v1/users/me", "PUT /api/v1/orders/items" };
+    private static final String[] STATUSES = { "200", "200", "201", "204", "304", "404", "500" };
+    private static final int[] PRICES = { 999, 1999, 499, 4999, 2500, 10000, 150, 7999 };
+}
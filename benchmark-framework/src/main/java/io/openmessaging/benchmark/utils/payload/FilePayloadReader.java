@@ -40,7 +40,8 @@ public class FilePayloadReader implements PayloadReader {
     }
 
     private void checkPayloadLength(byte[] payload) {
-        if (expectedLength != payload.length) {
+        // Zero or less accepts any length, eg: when the payloads are cut to the sizes of a size distribution
+        if (expectedLength > 0 && expectedLength != payload.length) {
             throw new PayloadException(MessageFormat.format("Payload length mismatch. Actual is: {0}, but expected: {1} ",
                     payload.length, expectedLength));
         }
@@ -0,0 +1,216 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import io.openmessaging.benchmark.worker.commands.PayloadSpec;
+
+/**
+ * Payload records of a file, or a directory of files, in a {@link PayloadFileFormat} with many records per file.
+ * The files are memory-mapped in windows of up to 1 GB and only the boundaries of the records are indexed, so that
+ * corpora of any size are served from the page cache rather than from the heap. A window that would cut a record
+ * ends before it, and the next window starts with that record.
+ *
+ * <p>Only the records from payloadRecordOffset, and at most payloadRecordCount of them when it is not zero, are
+ * indexed and sent, counting from the first record of the first file in name order.
+ */
+public class MappedPayloadRecords {
+
+    private final List<ByteBuffer> windows = new ArrayList<>();
+    private int[] recordWindows = new int[1024];
+    private int[] recordOffsets = new int[1024];
+    private int[] recordLengths = new int[1024];
+    private int size;
+
+    private final PayloadFileFormat format;
+    private final long firstRecord;
+    private final long lastRecord;
+    private long records;
+
+    public MappedPayloadRecords(PayloadSpec spec) {
+        this(spec, MAX_WINDOW_BYTES);
+    }
+
+    MappedPayloadRecords(PayloadSpec spec, int maxWindowBytes) {
+        this.format = spec.payloadFileFormat;
+        this.firstRecord = spec.payloadRecordOffset;
+        this.lastRecord = spec.payloadRecordCount > 0 ? firstRecord + spec.payloadRecordCount : Long.MAX_VALUE;
+
+        for (File file : payloadFiles(spec.payloadFile)) {
+            if (records >= lastRecord) {
+                break;
+            }
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                index(file, channel, maxWindowBytes);
+            } catch (IOException e) {
+                throw new PayloadException("Unable to map payload file " + file + ": " + e.getMessage());
+            }
+        }
+        if (size == 0) {
+            throw new IllegalArgumentException("No payload records in " + spec.payloadFile + " from record "
+                    + firstRecord);
+        }
+    }
+
+    private void index(File file, FileChannel channel, int maxWindowBytes) throws IOException {
+        long fileSize = channel.size();
+        long windowStart = 0;
+        while (windowStart < fileSize && records < lastRecord) {
+            int windowLength = (int) Math.min(fileSize - windowStart, maxWindowBytes);
+            boolean lastWindow = windowStart + windowLength == fileSize;
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+            int windowIndex = windows.size();
+            int indexed = size;
+
+            int position = 0;
+            while (position < windowLength && records < lastRecord) {
+                int offset;
+                int length;
+                int next;
+                if (format == PayloadFileFormat.LENGTH_PREFIXED) {
+                    if (windowLength - position < Integer.BYTES) {
+                        if (lastWindow) {
+                            throw new PayloadException("Truncated length of the record at byte "
+                                    + (windowStart + position) + " of " + file);
+                        }
+                        break;
+                    }
+                    length = window.getInt(position);
+                    if (length < 0) {
+                        throw new PayloadException("Negative length of the record at byte " + (windowStart + position)
+                                + " of " + file);
+                    }
+                    offset = position + Integer.BYTES;
+                    if (length > windowLength - offset) {
+                        if (lastWindow) {
+                            throw new PayloadException("Truncated record at byte " + (windowStart + position) + " of "
+                                    + file);
+                        }
+                        break;
+                    }
+                    next = offset + length;
+                } else {
+                    int end = indexOfNewline(window, position, windowLength);
+                    if (end < 0 && !lastWindow) {
+                        break;
+                    }
+                    offset = position;
+                    length = (end < 0 ? windowLength : end) - position;
+                    next = end < 0 ? windowLength : end + 1;
+                    if (length > 0 && window.get(offset + length - 1) == '\r') {
+                        length--;
+                    }
+                }
+
+                if (length > 0) {
+                    if (records >= firstRecord) {
+                        add(windowIndex, offset, length);
+                    }
+                    records++;
+                }
+                position = next;
+            }
+
+            if (position == 0 && !lastWindow) {
+                throw new PayloadException(String.format("Record at byte %d of %s larger than the %d MB mapping window",
+                        windowStart, file, maxWindowBytes / 1024 / 1024));
+            }
+            if (size > indexed) {
+                windows.add(window);
+            }
+            windowStart += position;
+        }
+    }
+
+    private static int indexOfNewline(ByteBuffer window, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void add(int window, int offset, int length) {
+        if (size == recordOffsets.length) {
+            int capacity = size * 2;
+            recordWindows = Arrays.copyOf(recordWindows, capacity);
+            recordOffsets = Arrays.copyOf(recordOffsets, capacity);
+            recordLengths = Arrays.copyOf(recordLengths, capacity);
+        }
+        recordWindows[size] = window;
+        recordOffsets[size] = offset;
+        recordLengths[size] = length;
+        size++;
+    }
+
+    private static List<File> payloadFiles(String payloadFile) {
+        File file = new File(payloadFile);
+        if (!file.isDirectory()) {
+            return Arrays.asList(file);
+        }
+        File[] files = file.listFiles(File::isFile);
+        if (files == null || files.length == 0) {
+            throw new IllegalArgumentException(
+                    "Payload file must either point to a file or a directory with one or more payload files");
+        }
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a copy of up to {@code count} records spread over the index, eg: to measure their compression
+     */
+    public List<byte[]> sample(int count) {
+        int step = Math.max(1, size / count);
+        List<byte[]> sample = new ArrayList<>();
+        for (int i = 0; i < size && sample.size() < count; i += step) {
+            byte[] record = new byte[recordLengths[i]];
+            ByteBuffer window = windows.get(recordWindows[i]).duplicate();
+            window.position(recordOffsets[i]);
+            window.get(record);
+            sample.add(record);
+        }
+        return sample;
+    }
+
+    /**
+     * @return a cursor over records picked at random, for one producer thread
+     */
+    public PayloadCursor cursor(SplittableRandom random) {
+        ByteBuffer[] views = windows.stream().map(ByteBuffer::asReadOnlyBuffer).toArray(ByteBuffer[]::new);
+        return ignored -> {
+            int record = random.nextInt(size);
+            ByteBuffer view = views[recordWindows[record]];
+            view.limit(recordOffsets[record] + recordLengths[record]).position(recordOffsets[record]);
+            return view.slice();
+        };
+    }
+
+    private static final int MAX_WINDOW_BYTES = 1024 * 1024 * 1024;
+}
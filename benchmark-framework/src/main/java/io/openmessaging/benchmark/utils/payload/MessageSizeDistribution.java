@@ -0,0 +1,225 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Distribution of the message sizes of a workload, in bytes, instead of a single messageSize.
+ */
+public class MessageSizeDistribution {
+
+    public enum Type {
+        /** Every message of the same size. */
+        FIXED,
+
+        /** Sizes uniformly spread between minSize and maxSize. */
+        UNIFORM,
+
+        /**
+         * Long-tailed sizes whose logarithm is normally distributed around log(medianSize) with a standard deviation
+         * of sigma, clamped to minSize and maxSize.
+         */
+        LOGNORMAL,
+
+        /** Sizes taken from an empirical histogram: one {@code size,weight} line per size. */
+        HISTOGRAM,
+    }
+
+    public Type type = Type.FIXED;
+
+    public int size;
+
+    public int minSize = 1;
+    public int maxSize;
+
+    public double medianSize;
+    public double sigma;
+
+    /** Histogram file, read on the coordinator into histogramSizes and histogramWeights. */
+    public String histogramFile;
+    public List<Integer> histogramSizes;
+    public List<Double> histogramWeights;
+
+    private double[] cumulativeWeights;
+
+    public void validate() {
+        switch (type) {
+            case FIXED:
+                checkPositive(size, "size");
+                break;
+            case UNIFORM:
+                checkPositive(minSize, "minSize");
+                if (maxSize < minSize) {
+                    throw new RuntimeException("Message size distribution maxSize must not be lower than minSize");
+                }
+                break;
+            case LOGNORMAL:
+                checkPositive(minSize, "minSize");
+                if (medianSize < minSize || medianSize > maxSize) {
+                    throw new RuntimeException("Message size distribution medianSize must be between minSize and "
+                            + "maxSize");
+                }
+                if (sigma <= 0) {
+                    throw new RuntimeException("Message size distribution sigma must be positive");
+                }
+                break;
+            case HISTOGRAM:
+                if (histogramFile == null && histogramSizes == null) {
+                    throw new RuntimeException("Message size distribution needs a histogramFile");
+                }
+                break;
+        }
+    }
+
+    private static void checkPositive(long value, String field) {
+        if (value <= 0) {
+            throw new RuntimeException(String.format("Message size distribution %s must be positive", field));
+        }
+    }
+
+    /**
+     * Read the histogram file, if any, so that the distribution can be shipped to the workers without it.
+     */
+    public MessageSizeDistribution loadHistogram() {
+        if (type != Type.HISTOGRAM || histogramSizes != null) {
+            return this;
+        }
+
+        List<Integer> sizes = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(Paths.get(histogramFile), StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("[,\\s]+");
+                if (fields.length != 2) {
+                    throw new IllegalArgumentException("Invalid line in message size histogram " + histogramFile
+                            + ", expected size,weight: " + line);
+                }
+                sizes.add(Integer.parseInt(fields[0]));
+                weights.add(Double.parseDouble(fields[1]));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read message size histogram " + histogramFile, e);
+        }
+        if (sizes.isEmpty() || sizes.stream().anyMatch(s -> s <= 0) || weights.stream().anyMatch(w -> w < 0)
+                || weights.stream().mapToDouble(Double::doubleValue).sum() <= 0) {
+            throw new IllegalArgumentException("Message size histogram " + histogramFile
+                    + " needs positive sizes and non-negative weights, not all zero");
+        }
+
+        MessageSizeDistribution loaded = new MessageSizeDistribution();
+        loaded.type = type;
+        loaded.histogramFile = histogramFile;
+        loaded.histogramSizes = sizes;
+        loaded.histogramWeights = weights;
+        return loaded;
+    }
+
+    /**
+     * @return the size below which the given fraction of the messages fall
+     */
+    public int quantile(double p) {
+        switch (type) {
+            case UNIFORM:
+                return (int) Math.min(maxSize, minSize + (long) (p * (maxSize - minSize + 1)));
+            case LOGNORMAL:
+                double drawn = medianSize * Math.exp(sigma * inverseNormal(p));
+                return (int) Math.max(minSize, Math.min(maxSize, Math.round(drawn)));
+            case HISTOGRAM:
+                double[] cumulative = cumulativeWeights();
+                int index = Arrays.binarySearch(cumulative, p * cumulative[cumulative.length - 1]);
+                if (index < 0) {
+                    index = -index - 1;
+                }
+                // Skip the sizes of zero weight
+                while (index < cumulative.length - 1 && histogramWeights.get(index) == 0) {
+                    index++;
+                }
+                return histogramSizes.get(Math.min(index, cumulative.length - 1));
+            case FIXED:
+            default:
+                return size;
+        }
+    }
+
+    private synchronized double[] cumulativeWeights() {
+        if (cumulativeWeights == null) {
+            double[] cumulative = new double[histogramWeights.size()];
+            double sum = 0;
+            for (int i = 0; i < cumulative.length; i++) {
+                sum += histogramWeights.get(i);
+                cumulative[i] = sum;
+            }
+            cumulativeWeights = cumulative;
+        }
+        return cumulativeWeights;
+    }
+
+    /**
+     * Inverse of the standard normal cumulative distribution, with Acklam's rational approximation (relative error
+     * below 1.15e-9).
+     */
+    static double inverseNormal(double p) {
+        final double plow = 0.02425;
+        if (p < plow) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5])
+                    / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+        }
+        if (p > 1 - plow) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5])
+                    / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((A[0] * r + A[1]) * r + A[2]) * r + A[3]) * r + A[4]) * r + A[5]) * q
+                / (((((B[0] * r + B[1]) * r + B[2]) * r + B[3]) * r + B[4]) * r + 1);
+    }
+
+    private static final double[] A = { -3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00 };
+    private static final double[] B = { -5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+            6.680131188771972e+01, -1.328068155288572e+01 };
+    private static final double[] C = { -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+            -2.549671010229297e+00, 4.374664141464968e+00, 2.938163982698783e+00 };
+    private static final double[] D = { 7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+            3.754408661907416e+00 };
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case UNIFORM:
+                return String.format("uniform %d..%d bytes", minSize, maxSize);
+            case LOGNORMAL:
+                return String.format("lognormal median %.0f bytes, sigma %.2f, %d..%d bytes", medianSize, sigma,
+                        minSize, maxSize);
+            case HISTOGRAM:
+                return String.format("histogram %s", histogramFile);
+            case FIXED:
+            default:
+                return String.format("fixed %d bytes", size);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+/**
+ * Content of the randomized payloads, to give the compression codecs something close to real traffic.
+ */
+public enum PayloadCorpus {
+    /** Random bytes followed by zeros, in the proportion of randomBytesRatio. */
+    RANDOM_ZEROS,
+
+    /** Newline separated JSON records of events: ids, timestamps, users, amounts, tags and session tokens. */
+    JSON,
+
+    /** Application log lines: timestamp, level, thread, logger and a message filled with values. */
+    LOG_LINES,
+
+    /**
+     * Binary records encoded like Avro: zig-zag varints, length-prefixed strings, enum indexes and little-endian
+     * doubles.
+     */
+    AVRO_LIKE,
+}
@@ -0,0 +1,30 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Hands out payloads as slices of a larger buffer to one producer thread, so that they are sent without being copied
+ * on the heap. Not thread-safe.
+ */
+public interface PayloadCursor {
+
+    /**
+     * @param size
+     *            size drawn from the payload pool, for the sources whose payloads do not have their own sizes
+     * @return the next payload, between the position and the limit of a read-only slice
+     */
+    ByteBuffer next(int size);
+}
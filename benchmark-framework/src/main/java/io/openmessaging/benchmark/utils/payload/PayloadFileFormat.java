@@ -0,0 +1,31 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+/**
+ * Layout of the payload files.
+ */
+public enum PayloadFileFormat {
+    /** Each file is one payload, read on the heap. */
+    WHOLE_FILE,
+
+    /**
+     * Each file holds many payloads, each one preceded by its length as a 4-byte big-endian integer. The files are
+     * memory-mapped.
+     */
+    LENGTH_PREFIXED,
+
+    /** Each non-empty line of the files, without its line ending, is a payload. The files are memory-mapped. */
+    LINES,
+}
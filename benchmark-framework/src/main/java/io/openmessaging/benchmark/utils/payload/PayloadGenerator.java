@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import io.openmessaging.benchmark.worker.commands.PayloadSpec;
+
+/**
+ * Builds the payload pool described by a {@link PayloadSpec} on the worker that is going to use it.
+ */
+public class PayloadGenerator {
+
+    private final PayloadSpec spec;
+
+    public PayloadGenerator(PayloadSpec spec) {
+        this.spec = spec;
+    }
+
+    public List<byte[]> generate() {
+        if (spec.messageSizeDistribution != null
+                && spec.messageSizeDistribution.type != MessageSizeDistribution.Type.FIXED) {
+            return generateSized(spec.messageSizeDistribution);
+        }
+
+        List<byte[]> payloads = new ArrayList<>();
+
+        if (spec.useRandomizedPayloads && spec.corpus != PayloadCorpus.RANDOM_ZEROS) {
+            CorpusGenerator corpusGenerator = new CorpusGenerator(spec.corpus, spec.entropy, spec.seed);
+            for (int i = 0; i < spec.randomizedPayloadPoolSize; i++) {
+                payloads.add(corpusGenerator.generate(spec.messageSize));
+            }
+        } else if (spec.useRandomizedPayloads) {
+            // create messages that are part random and part zeros
+            // better for testing effects of compression
+            Random r = new Random(spec.seed);
+            int randomBytes = (int) (spec.messageSize * spec.randomBytesRatio);
+            byte[] randArray = new byte[randomBytes];
+            for (int i = 0; i < spec.randomizedPayloadPoolSize; i++) {
+                byte[] payload = new byte[spec.messageSize];
+                r.nextBytes(randArray);
+                System.arraycopy(randArray, 0, payload, 0, randomBytes);
+                payloads.add(payload);
+            }
+        } else {
+            PayloadReader payloadReader = new FilePayloadReader(spec.messageSize);
+            File payloadFile = new File(spec.payloadFile);
+            if (payloadFile.isDirectory()) {
+                File[] payloadFileList = payloadFile.listFiles();
+
+                if (payloadFileList == null || payloadFileList.length == 0) {
+                    throw new IllegalArgumentException("Payload file must either point to a file or a directory with one or more payload files");
+                }
+
+                for (File payloadF : payloadFileList) {
+                    payloads.add(payloadReader.load(payloadF.getAbsolutePath()));
+                }
+            } else {
+                payloads.add(payloadReader.load(spec.payloadFile));
+            }
+        }
+
+        if (payloads.isEmpty()) {
+            throw new IllegalArgumentException("Payload pool must contain at least one payload");
+        }
+        return payloads;
+    }
+
+    /**
+     * Build a pool following the size distribution: entry i of the pool is the quantile (i + 0.5) / n of the
+     * distribution, so that picking entries uniformly draws sizes from it. The sizes of continuous distributions are
+     * rounded to size classes a few percent apart, and the entries of the same size share one payload, so the pool
+     * holds one array per size rather than one per entry.
+     */
+    private List<byte[]> generateSized(MessageSizeDistribution distribution) {
+        byte[] source = null;
+        if (!spec.useRandomizedPayloads) {
+            // The payload files are sliced, and repeated if needed, to the size of each class
+            source = new FilePayloadReader(0).load(firstPayloadFile());
+            if (source.length == 0) {
+                throw new IllegalArgumentException("Payload file must not be empty with a message size distribution");
+            }
+        }
+
+        Map<Integer, byte[]> classes = new HashMap<>();
+        List<byte[]> payloads = new ArrayList<>(SIZED_POOL_ENTRIES);
+        long classBytes = 0;
+        for (int i = 0; i < SIZED_POOL_ENTRIES; i++) {
+            int size = distribution.quantile((i + 0.5) / SIZED_POOL_ENTRIES);
+            if (distribution.type != MessageSizeDistribution.Type.HISTOGRAM) {
+                // Rounding could go past the bounds, eg: a maxSize set to the largest message the broker accepts
+                size = Math.max(distribution.minSize, Math.min(distribution.maxSize, sizeClass(size)));
+            }
+            byte[] payload = classes.get(size);
+            if (payload == null) {
+                payload = source != null ? slice(source, size) : randomized(size);
+                classes.put(size, payload);
+                classBytes += size;
+                if (classBytes > MAX_SIZED_POOL_BYTES) {
+                    throw new IllegalArgumentException(String.format(
+                            "Message size distribution %s needs more than %d MB of payloads", distribution,
+                            MAX_SIZED_POOL_BYTES / 1024 / 1024));
+                }
+            }
+            payloads.add(payload);
+        }
+        return payloads;
+    }
+
+    /**
+     * Round the size to its class: exact up to EXACT_SIZES bytes, then on a geometric grid with SIZE_CLASS_RATIO
+     * between consecutive classes, which keeps each message within about 1% of its drawn size.
+     */
+    static int sizeClass(int size) {
+        if (size <= EXACT_SIZES) {
+            return size;
+        }
+        long k = Math.round(Math.log((double) size / EXACT_SIZES) / Math.log(SIZE_CLASS_RATIO));
+        return (int) Math.round(EXACT_SIZES * Math.pow(SIZE_CLASS_RATIO, k));
+    }
+
+    private byte[] randomized(int size) {
+        if (spec.corpus != PayloadCorpus.RANDOM_ZEROS) {
+            return new CorpusGenerator(spec.corpus, spec.entropy, spec.seed + size).generate(size);
+        }
+        int randomBytes = (int) (size * spec.randomBytesRatio);
+        byte[] randArray = new byte[randomBytes];
+        new Random(spec.seed + size).nextBytes(randArray);
+        byte[] payload = new byte[size];
+        System.arraycopy(randArray, 0, payload, 0, randomBytes);
+        return payload;
+    }
+
+    private static byte[] slice(byte[] source, int size) {
+        byte[] payload = new byte[size];
+        for (int offset = 0; offset < size; offset += source.length) {
+            System.arraycopy(source, 0, payload, offset, Math.min(source.length, size - offset));
+        }
+        return payload;
+    }
+
+    private String firstPayloadFile() {
+        File payloadFile = new File(spec.payloadFile);
+        if (payloadFile.isDirectory()) {
+            File[] payloadFileList = payloadFile.listFiles();
+            if (payloadFileList == null || payloadFileList.length == 0) {
+                throw new IllegalArgumentException(
+                        "Payload file must either point to a file or a directory with one or more payload files");
+            }
+            return payloadFileList[0].getAbsolutePath();
+        }
+        return spec.payloadFile;
+    }
+
+    private static final int SIZED_POOL_ENTRIES = 65536;
+    private static final int EXACT_SIZES = 64;
+    private static final double SIZE_CLASS_RATIO = 1.02;
+    private static final long MAX_SIZED_POOL_BYTES = 1024L * 1024 * 1024;
+}
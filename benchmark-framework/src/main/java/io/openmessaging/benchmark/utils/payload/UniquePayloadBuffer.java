@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.payload;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+import io.openmessaging.benchmark.worker.commands.PayloadSpec;
+
+/**
+ * A large off-heap buffer of generated content, from which every message takes the next window as its payload, so
+ * that no two messages carry the same bytes until the buffer is exhausted many times over. The windows are read-only
+ * slices of the buffer, so sending a unique payload costs neither a copy nor random draws.
+ *
+ * <p>Each producer thread walks its own region of the buffer with a {@link Cursor}. When the next window passes the
+ * end of the region, the cursor starts the region again one byte further than on the previous lap, which gives
+ * windows different from the previous laps for the next {@value #LAP_SHIFTS} laps.
+ */
+public class UniquePayloadBuffer {
+
+    private final ByteBuffer buffer;
+
+    public UniquePayloadBuffer(PayloadSpec spec, long seed) {
+        buffer = ByteBuffer.allocateDirect(spec.uniquePayloadBufferMB * 1024 * 1024);
+        if (spec.corpus != PayloadCorpus.RANDOM_ZEROS) {
+            CorpusGenerator corpusGenerator = new CorpusGenerator(spec.corpus, spec.entropy, seed);
+            while (buffer.hasRemaining()) {
+                buffer.put(corpusGenerator.generate(Math.min(FILL_CHUNK_BYTES, buffer.remaining())));
+            }
+        } else {
+            // Random bytes: the zeros of randomBytesRatio would repeat from one window to the next
+            SplittableRandom random = new SplittableRandom(seed);
+            while (buffer.remaining() >= Long.BYTES) {
+                buffer.putLong(random.nextLong());
+            }
+            while (buffer.hasRemaining()) {
+                buffer.put((byte) random.nextInt());
+            }
+        }
+        buffer.clear();
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * @return a cursor over the part {@code index} of the buffer split in {@code count} parts, for windows of up to
+     *         {@code maxSize} bytes
+     */
+    public Cursor cursor(int index, int count, int maxSize) {
+        int regionSize = buffer.capacity() / count;
+        if (regionSize < 2 * maxSize + LAP_SHIFTS) {
+            throw new IllegalArgumentException(String.format(
+                    "Unique payload buffer of %d MB too small for %d producer threads and messages of %d bytes",
+                    buffer.capacity() / 1024 / 1024, count, maxSize));
+        }
+        return new Cursor(buffer.asReadOnlyBuffer(), index * regionSize, regionSize);
+    }
+
+    /**
+     * Walks a region of the buffer, not thread-safe.
+     */
+    public static class Cursor implements PayloadCursor {
+        private final ByteBuffer buffer;
+        private final int regionStart;
+        private final int regionSize;
+        private int offset;
+        private long laps;
+
+        private Cursor(ByteBuffer buffer, int regionStart, int regionSize) {
+            this.buffer = buffer;
+            this.regionStart = regionStart;
+            this.regionSize = regionSize;
+        }
+
+        @Override
+        public ByteBuffer next(int size) {
+            if (offset + size > regionSize) {
+                laps++;
+                offset = (int) (laps % LAP_SHIFTS);
+            }
+            int start = regionStart + offset;
+            offset += size;
+            buffer.limit(start + size).position(start);
+            return buffer.slice();
+        }
+    }
+
+    static final int LAP_SHIFTS = 4096;
+    private static final int FILL_CHUNK_BYTES = 1024 * 1024;
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.trace;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import io.openmessaging.benchmark.worker.commands.PayloadSpec;
+
+/**
+ * Payloads of the sizes found in a trace, part random and part zeros like the randomized payloads of a workload.
+ * The payload of each size is built once and reused, as long as the cached payloads fit in a memory budget.
+ * Not thread-safe.
+ */
+public class TracePayloads {
+
+    static final long DEFAULT_CACHE_BYTES = 256L * 1024 * 1024;
+
+    private final double randomBytesRatio;
+    private final long seed;
+    private final long cacheBytes;
+
+    private final Map<Integer, byte[]> payloads = new HashMap<>();
+    private long cachedBytes;
+
+    public TracePayloads(PayloadSpec spec) {
+        this(spec.randomBytesRatio, spec.seed, DEFAULT_CACHE_BYTES);
+    }
+
+    TracePayloads(double randomBytesRatio, long seed, long cacheBytes) {
+        this.randomBytesRatio = randomBytesRatio;
+        this.seed = seed;
+        this.cacheBytes = cacheBytes;
+    }
+
+    public byte[] get(int size) {
+        byte[] payload = payloads.get(size);
+        if (payload == null) {
+            payload = create(size);
+            if (cachedBytes + size <= cacheBytes) {
+                payloads.put(size, payload);
+                cachedBytes += size;
+            }
+        }
+        return payload;
+    }
+
+    private byte[] create(int size) {
+        byte[] randomBytes = new byte[(int) (size * randomBytesRatio)];
+        new Random(seed + size).nextBytes(randomBytes);
+        byte[] payload = new byte[size];
+        System.arraycopy(randomBytes, 0, payload, 0, randomBytes.length);
+        return payload;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.trace;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a captured trace of messages, one per line: {@code timestampMicros,topic,key,size}.
+ *
+ * <ul>
+ * <li>timestamps are in microseconds, in non-decreasing order, and only their difference with the first record
+ * matters</li>
+ * <li>topic is the index of the topic in the workload, taken modulo the number of topics. Topic names are hashed
+ * to an index instead</li>
+ * <li>key is left empty for messages without a key</li>
+ * </ul>
+ *
+ * Empty lines and lines starting with {@code #} are skipped. The file is memory-mapped a window at a time, so that
+ * traces of many GB are streamed through the page cache rather than loaded on the heap.
+ */
+public class TraceReader implements Closeable {
+
+    static final long DEFAULT_WINDOW_BYTES = 256L * 1024 * 1024;
+
+    private static final int KEY_CACHE_SIZE = 4096;
+
+    private final File file;
+    private final int topicCount;
+    private final long windowBytes;
+
+    private final FileChannel channel;
+    private final long fileSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    // File offset of the next line to read
+    private long position;
+    private long lineNumber;
+    private long recordIndex;
+    private long firstTimestampMicros = -1;
+    private long lastTimestampMicros;
+
+    // Keys of the recent records by hash of their bytes, so that the records of a key reuse the same String
+    private final byte[][] cachedKeyBytes = new byte[KEY_CACHE_SIZE][];
+    private final String[] cachedKeys = new String[KEY_CACHE_SIZE];
+
+    public TraceReader(File file, int topicCount) throws IOException {
+        this(file, topicCount, DEFAULT_WINDOW_BYTES);
+    }
+
+    TraceReader(File file, int topicCount, long windowBytes) throws IOException {
+        if (topicCount <= 0) {
+            throw new IllegalArgumentException("A trace needs at least one topic to replay on");
+        }
+        this.file = file;
+        this.topicCount = topicCount;
+        this.windowBytes = windowBytes;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.fileSize = channel.size();
+    }
+
+    /**
+     * Read the next record of the trace into the given one.
+     *
+     * @return false at the end of the trace
+     */
+    public boolean next(TraceRecord record) throws IOException {
+        while (position < fileSize) {
+            if (window == null || position - windowStart >= window.limit()) {
+                map();
+            }
+            int start = (int) (position - windowStart);
+            int end = indexOfNewline(start);
+            if (end < 0) {
+                if (windowStart + window.limit() < fileSize) {
+                    // The line goes past the window, map the next one from the start of the line
+                    if (start == 0) {
+                        throw new IllegalArgumentException(String.format("Line %d of trace %s is longer than %d bytes",
+                                lineNumber + 1, file, windowBytes));
+                    }
+                    map();
+                    continue;
+                }
+                end = window.limit();
+            }
+            position = windowStart + end + 1;
+            lineNumber++;
+
+            int lineEnd = end > start && window.get(end - 1) == '\r' ? end - 1 : end;
+            if (lineEnd == start || window.get(start) == '#') {
+                continue;
+            }
+            parse(start, lineEnd, record);
+            return true;
+        }
+        return false;
+    }
+
+    private void map() throws IOException {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(windowBytes, fileSize - windowStart));
+    }
+
+    private int indexOfNewline(int offset) {
+        for (int i = offset; i < window.limit(); i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void parse(int start, int end, TraceRecord record) {
+        int[] commas = new int[3];
+        int found = 0;
+        for (int i = start; i < end && found < 3; i++) {
+            if (window.get(i) == ',') {
+                commas[found++] = i;
+            }
+        }
+        if (found < 3) {
+            throw invalidLine("expected timestampMicros,topic,key,size");
+        }
+
+        long timestampMicros = parseLong(start, commas[0], "timestamp");
+        if (firstTimestampMicros < 0) {
+            firstTimestampMicros = timestampMicros;
+        } else if (timestampMicros < lastTimestampMicros) {
+            throw invalidLine("timestamps must not go backwards");
+        }
+        lastTimestampMicros = timestampMicros;
+
+        record.index = recordIndex++;
+        record.offsetMicros = timestampMicros - firstTimestampMicros;
+        record.topic = parseTopic(commas[0] + 1, commas[1]);
+        record.key = commas[2] > commas[1] + 1 ? key(commas[1] + 1, commas[2]) : null;
+        record.size = (int) parseLong(commas[2] + 1, end, "size");
+    }
+
+    private int parseTopic(int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = window.get(i);
+            if (b < '0' || b > '9') {
+                return Math.floorMod(string(start, end).hashCode(), topicCount);
+            }
+        }
+        return (int) (parseLong(start, end, "topic") % topicCount);
+    }
+
+    private long parseLong(int start, int end, String field) {
+        if (start == end) {
+            throw invalidLine("missing " + field);
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            byte b = window.get(i);
+            if (b < '0' || b > '9') {
+                throw invalidLine("invalid " + field);
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private String key(int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + window.get(i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (KEY_CACHE_SIZE - 1);
+        byte[] cached = cachedKeyBytes[slot];
+        if (cached != null && cached.length == end - start) {
+            int i = 0;
+            while (i < cached.length && cached[i] == window.get(start + i)) {
+                i++;
+            }
+            if (i == cached.length) {
+                return cachedKeys[slot];
+            }
+        }
+        byte[] bytes = bytes(start, end);
+        cachedKeyBytes[slot] = bytes;
+        cachedKeys[slot] = new String(bytes, StandardCharsets.UTF_8);
+        return cachedKeys[slot];
+    }
+
+    private String string(int start, int end) {
+        return new String(bytes(start, end), StandardCharsets.UTF_8);
+    }
+
+    private byte[] bytes(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = window.get(start + i);
+        }
+        return bytes;
+    }
+
+    private IllegalArgumentException invalidLine(String reason) {
+        return new IllegalArgumentException(String.format("Line %d of trace %s is invalid: %s", lineNumber, file,
+                reason));
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
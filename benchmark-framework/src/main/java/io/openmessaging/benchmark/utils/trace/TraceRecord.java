@@ -0,0 +1,34 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.utils.trace;
+
+/**
+ * One message of a trace. The reader reuses the same instance for every record it reads.
+ */
+public class TraceRecord {
+
+    /** Position of the record in the trace, starting at 0. */
+    public long index;
+
+    /** Time of the message relative to the first record of the trace. */
+    public long offsetMicros;
+
+    /** Index of the topic of the message in the topics of the workload. */
+    public int topic;
+
+    /** Key of the message, null if it has none. */
+    public String key;
+
+    public int size;
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.HdrHistogram.Recorder;
+
+import io.openmessaging.benchmark.driver.BenchmarkProducer;
+import io.openmessaging.benchmark.driver.MessageKey;
+
+/**
+ * A producer recreated by the producer churn, that records how long its first send took to be acknowledged. That
+ * first send pays for the connection and metadata setup that a short-lived producer never amortizes.
+ */
+class ChurnedProducer implements BenchmarkProducer {
+
+    private final BenchmarkProducer delegate;
+    private final Recorder firstSendLatencyRecorder;
+    private final AtomicBoolean firstSend = new AtomicBoolean(true);
+
+    ChurnedProducer(BenchmarkProducer delegate, Recorder firstSendLatencyRecorder) {
+        this.delegate = delegate;
+        this.firstSendLatencyRecorder = firstSendLatencyRecorder;
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(Optional<String> key, byte[] payload) {
+        return sendAsync(key.map(MessageKey::of).orElse(null), payload);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageKey key, byte[] payload) {
+        if (!firstSend.get() || !firstSend.compareAndSet(true, false)) {
+            return delegate.sendAsync(key, payload);
+        }
+        return recordFirstSend(System.nanoTime(), delegate.sendAsync(key, payload));
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageKey key, ByteBuffer payload) {
+        if (!firstSend.get() || !firstSend.compareAndSet(true, false)) {
+            return delegate.sendAsync(key, payload);
+        }
+        return recordFirstSend(System.nanoTime(), delegate.sendAsync(key, payload));
+    }
+
+    private CompletableFuture<Void> recordFirstSend(long start, CompletableFuture<Void> future) {
+        future.thenRun(() -> firstSendLatencyRecorder
+                .recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)));
+        return future;
+    }
+
+    @Override
+    public void close() throws Exception {
+        delegate.close();
+    }
+}
@@ -20,13 +20,10 @@ import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
-import io.netty.buffer.ByteBufUtil;
-import io.netty.buffer.Unpooled;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.openmessaging.benchmark.Workers;
 import io.openmessaging.benchmark.utils.ListPartition;
 import io.openmessaging.benchmark.worker.commands.*;
-import org.HdrHistogram.Histogram;
-import org.apache.commons.lang3.tuple.Pair;
-import org.apache.commons.lang3.tuple.Triple;
 import org.apache.pulsar.common.util.FutureUtil;
 import org.asynchttpclient.AsyncHttpClient;
 import org.asynchttpclient.Response;
@@ -35,16 +32,27 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.ByteBuffer;
+import java.net.ConnectException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Stream;
-import java.util.zip.DataFormatException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static java.util.stream.Collectors.toList;
 import static org.asynchttpclient.Dsl.asyncHttpClient;
@@ -54,30 +62,133 @@ public class DistributedWorkersEnsemble implements Worker {
 
     private final static int REQUEST_TIMEOUT_MS = 300_000;
     private final static int READ_TIMEOUT_MS = 300_000;
+    private final static int HEARTBEAT_INTERVAL_MS = 5_000;
+    private final static int HEARTBEAT_TIMEOUT_MS = 30_000;
+    private final static long MAX_WAIT_FOR_WORKER_MS = TimeUnit.HOURS.toMillis(1);
+    private final static double DEFAULT_WEIGHT = 1.0;
+    private final static int CLOCK_SYNC_SAMPLES = 8;
+    private final static int CLOCK_SYNC_INTERVAL_MS = 60_000;
+    // How far ahead phase changes are scheduled, must cover the time to reach all the workers
+    private final static int PHASE_CHANGE_DELAY_MS = 500;
+    // Start load also leaves time for the workers to build their payload pools
+    private final static int START_LOAD_DELAY_MS = 2_000;
+
+    // Workers still taking part in the test, lost workers are removed under the CONTINUE policy
     private final List<String> workers;
     private final List<String> producerWorkers;
     private final List<String> consumerWorkers;
 
+    // Relative capacity of each worker, used to split rates and consumers proportionally
+    private final Map<String, Double> weights = new ConcurrentHashMap<>();
+
+    // Estimated difference between the clock of each worker and the local one, in ms
+    private final Map<String, Long> clockOffsets = new ConcurrentHashMap<>();
+
     private final AsyncHttpClient httpClient;
 
-    private int numberOfUsedProducerWorkers;
+    private final StatsAggregationMode statsAggregationMode;
+    private final int statsAggregationFanout;
+    private final StatsAggregator statsAggregator;
+
+    private final WorkerFailurePolicy failurePolicy;
+    private final ScheduledExecutorService heartbeatExecutor;
+    private final ScheduledExecutorService clockSyncExecutor;
+    private final Map<String, Long> lastHeartbeat = new ConcurrentHashMap<>();
+    private final Map<String, String> workerInstanceIds = new ConcurrentHashMap<>();
+    private final Set<String> restartedWorkers = ConcurrentHashMap.newKeySet();
+    private final Set<String> awaitedWorkers = ConcurrentHashMap.newKeySet();
+    private final Queue<WorkerFleetEvent> pendingFleetEvents = new ConcurrentLinkedQueue<>();
+
+    private final Set<String> usedProducerWorkers = ConcurrentHashMap.newKeySet();
+    // Topic of each producer created on each worker, to split a replayed trace between them
+    private final Map<String, List<String>> producerTopics = new ConcurrentHashMap<>();
+    private final Map<String, ConsumerAssignment> consumerAssignments = new ConcurrentHashMap<>();
+    // Share of the publish rate of each worker when it follows from its producers of the topic groups, else empty
+    private final Map<String, Double> topicGroupRateShares = new ConcurrentHashMap<>();
+    private volatile double publishRate = -1;
 
     public DistributedWorkersEnsemble(List<String> workers, boolean extraConsumerWorkers) {
+        this(workers, extraConsumerWorkers, WorkerFailurePolicy.ABORT);
+    }
+
+    public DistributedWorkersEnsemble(List<String> workers, boolean extraConsumerWorkers,
+            WorkerFailurePolicy failurePolicy) {
+        this(workersConfig(workers), extraConsumerWorkers, failurePolicy);
+    }
+
+    public DistributedWorkersEnsemble(Workers workersConfig, boolean extraConsumerWorkers,
+            WorkerFailurePolicy failurePolicy) {
+        List<String> workers = workersConfig.allWorkers();
         Preconditions.checkArgument(workers.size() > 1);
 
-        this.workers = workers;
+        this.workers = new CopyOnWriteArrayList<>(workers);
+        this.failurePolicy = failurePolicy;
 
-	// For driver-jms extra consumers are required.
-	// If there is an odd number of workers then allocate the extra to consumption.
-	int numberOfProducerWorkers = extraConsumerWorkers ? (workers.size() + 2) / 3 : workers.size() / 2;
-	List<List<String>> partitions = Lists.partition(Lists.reverse(workers), workers.size() - numberOfProducerWorkers);
-	this.producerWorkers = partitions.get(1);
-	this.consumerWorkers = partitions.get(0);
+        if (workersConfig.producerWorkers != null || workersConfig.consumerWorkers != null) {
+            Preconditions.checkArgument(
+                    workersConfig.producerWorkers != null && !workersConfig.producerWorkers.isEmpty()
+                            && workersConfig.consumerWorkers != null && !workersConfig.consumerWorkers.isEmpty(),
+                    "Both producerWorkers and consumerWorkers must be listed when assigning roles explicitly");
+            this.producerWorkers = new CopyOnWriteArrayList<>(workersConfig.producerWorkers);
+            this.consumerWorkers = new CopyOnWriteArrayList<>(workersConfig.consumerWorkers);
+        } else {
+            int numberOfProducerWorkers;
+            if (workersConfig.producerRatio != null) {
+                Preconditions.checkArgument(workersConfig.producerRatio > 0 && workersConfig.producerRatio < 1,
+                        "producerRatio must be between 0 and 1");
+                numberOfProducerWorkers = (int) Math.round(workers.size() * workersConfig.producerRatio);
+                numberOfProducerWorkers = Math.max(1, Math.min(workers.size() - 1, numberOfProducerWorkers));
+            } else {
+                // For driver-jms extra consumers are required.
+                // If there is an odd number of workers then allocate the extra to consumption.
+                numberOfProducerWorkers = extraConsumerWorkers ? (workers.size() + 2) / 3 : workers.size() / 2;
+            }
+            List<List<String>> partitions = Lists.partition(Lists.reverse(workers),
+                    workers.size() - numberOfProducerWorkers);
+            this.producerWorkers = new CopyOnWriteArrayList<>(partitions.get(1));
+            this.consumerWorkers = new CopyOnWriteArrayList<>(partitions.get(0));
+        }
 
         log.info("Workers list - producers: {}", producerWorkers);
         log.info("Workers list - consumers: {}", consumerWorkers);
+        log.info("Worker failure policy: {}", failurePolicy);
 
         httpClient = asyncHttpClient(config().setRequestTimeout(REQUEST_TIMEOUT_MS).setReadTimeout(READ_TIMEOUT_MS));
+
+        statsAggregationMode = workersConfig.statsAggregation != null
+                ? StatsAggregationMode.valueOf(workersConfig.statsAggregation.toUpperCase())
+                : StatsAggregationMode.PARALLEL;
+        Preconditions.checkArgument(workersConfig.statsAggregationFanout > 1,
+                "statsAggregationFanout must be greater than 1");
+        statsAggregationFanout = workersConfig.statsAggregationFanout;
+        statsAggregator = new StatsAggregator(Runtime.getRuntime().availableProcessors());
+        log.info("Stats aggregation: {}", statsAggregationMode);
+
+        if (workersConfig.calibrate) {
+            calibrateWeights();
+        } else if (workersConfig.weights != null) {
+            workersConfig.weights.forEach((worker, weight) -> {
+                Preconditions.checkArgument(weight > 0, "Weight of worker %s must be positive", worker);
+                weights.put(worker, weight);
+            });
+        }
+        if (!weights.isEmpty()) {
+            workers.forEach(w -> weights.putIfAbsent(w, DEFAULT_WEIGHT));
+            log.info("Workers weights: {}", weights);
+        }
+
+        long now = System.currentTimeMillis();
+        workers.forEach(w -> lastHeartbeat.put(w, now));
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("worker-heartbeat"));
+        heartbeatExecutor.scheduleWithFixedDelay(this::sendHeartbeats, 0, HEARTBEAT_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+
+        syncClocks();
+        log.info("Workers clock offsets (ms): {}", clockOffsets);
+        // Separate from the heartbeats, so that a slow worker cannot delay them past their timeout
+        clockSyncExecutor = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("worker-clock-sync"));
+        clockSyncExecutor.scheduleWithFixedDelay(this::syncClocks, CLOCK_SYNC_INTERVAL_MS, CLOCK_SYNC_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
     }
 
     @Override
@@ -89,10 +200,30 @@ public class DistributedWorkersEnsemble implements Worker {
     @Override
     @SuppressWarnings("unchecked")
     public List<String> createOrValidateTopics(TopicsInfo topicsInfo) throws IOException {
-        // Create all topics from a single worker node
         try {
-            return (List<String>) post(workers.get(0), "/create-topics", writer.writeValueAsBytes(topicsInfo), List.class)
-                    .join();
+            if (topicsInfo.isExistingTopics()) {
+                // Validating is a single metadata request, a single worker node is enough
+                return (List<String>) post(workers.get(0), "/create-topics", writer.writeValueAsBytes(topicsInfo),
+                        List.class).join();
+            }
+
+            // Split the topics to create across all the workers, keeping the topic indexes contiguous
+            List<String> creators = new ArrayList<>(workers);
+            List<CompletableFuture<List>> futures = new ArrayList<>();
+            int firstTopicIndex = 0;
+            for (int i = 0; i < creators.size() && firstTopicIndex < topicsInfo.numberOfTopics; i++) {
+                int remaining = topicsInfo.numberOfTopics - firstTopicIndex;
+                int numberOfTopics = (remaining + creators.size() - i - 1) / (creators.size() - i);
+                futures.add(post(creators.get(i), "/create-topics",
+                        writer.writeValueAsBytes(topicsInfo.slice(firstTopicIndex, numberOfTopics)), List.class));
+                firstTopicIndex += numberOfTopics;
+            }
+
+            List<String> topics = new ArrayList<>();
+            for (CompletableFuture<List> future : futures) {
+                topics.addAll((List<String>) future.join());
+            }
+            return topics;
         } catch (Exception e) {
             // Capture the stack trace on the current thread too since this exception likely
             // originates on the netty request handling thread.
@@ -105,8 +236,12 @@ public class DistributedWorkersEnsemble implements Worker {
         // topics is a normalized list i.e. it accounts for duplicated entries in case
         // of m topics and n producers where m < n. In this case, map the topics as is
         // to honor the number of producers per topic configured for the workload
+        // Most capable workers first, so they are the ones used when there are fewer topics than workers
+        List<String> producers = new ArrayList<>(producerWorkers);
+        producers.sort(Comparator.comparingDouble(this::weight).reversed());
+
         List<List<String>> topicsPerProducer;
-        if (topics.size() <= producerWorkers.size()) {
+        if (topics.size() <= producers.size()) {
             topicsPerProducer = new ArrayList<>();
             for (String topic : topics) {
                 List<String> topicList = new ArrayList<>();
@@ -114,19 +249,22 @@ public class DistributedWorkersEnsemble implements Worker {
                 topicsPerProducer.add(topicList);
             }
         } else {
-            topicsPerProducer = ListPartition.partitionList(topics, producerWorkers.size());
+            topicsPerProducer = ListPartition.partitionListWeighted(topics, weights(producers));
         }
 
         Map<String, List<String>> topicsPerProducerMap = Maps.newHashMap();
         int i = 0;
         for (List<String> assignedTopics : topicsPerProducer) {
-            topicsPerProducerMap.put(producerWorkers.get(i++), assignedTopics);
+            topicsPerProducerMap.put(producers.get(i++), assignedTopics);
         }
 
         // Number of actually used workers might be less than available workers
-        numberOfUsedProducerWorkers = i;
+        usedProducerWorkers.clear();
+        usedProducerWorkers.addAll(topicsPerProducerMap.keySet());
+        producerTopics.clear();
+        producerTopics.putAll(topicsPerProducerMap);
 
-        log.info("Number of producers configured for the topic: " + numberOfUsedProducerWorkers);
+        log.info("Number of producers configured for the topic: " + usedProducerWorkers.size());
 
         List<CompletableFuture<Void>> futures = topicsPerProducerMap.keySet().stream().map(producer -> {
             try {
@@ -144,11 +282,37 @@ public class DistributedWorkersEnsemble implements Worker {
 
     @Override
     public void startLoad(ProducerWorkAssignment producerWorkAssignment) throws IOException {
+        publishRate = producerWorkAssignment.publishRate;
+        Map<String, Map<String, Double>> groupRates = topicGroupRatesPerWorker(producerWorkAssignment.topicGroups);
+        topicGroupRateShares.clear();
+        groupRates.forEach((worker, workerGroupRates) -> topicGroupRateShares.put(worker,
+                publishRate > 0 ? workerGroupRates.values().stream().mapToDouble(r -> r).sum() / publishRate : 0));
         // Reduce the publish rate across all the brokers
-        if (numberOfUsedProducerWorkers != 0) {
-            producerWorkAssignment.publishRate /= numberOfUsedProducerWorkers;
-        }
-        sendPost(producerWorkers, "/start-load", writer.writeValueAsBytes(producerWorkAssignment));
+        Map<String, Double> rates = publishRatePerWorker(publishRate);
+        long startAt = System.currentTimeMillis() + START_LOAD_DELAY_MS;
+        List<Map<String, int[]>> traceSlots = TraceSlots.split(producerWorkers.stream()
+                .map(worker -> producerTopics.getOrDefault(worker, Collections.emptyList())).collect(toList()));
+        List<String> sendingWorkers = producerWorkers.stream().filter(usedProducerWorkers::contains).collect(toList());
+        sendPost(producerWorkers, worker -> "/start-load", worker -> {
+            ProducerWorkAssignment assignment = groupRates.isEmpty()
+                    ? producerWorkAssignment.withPublishRate(rates.get(worker))
+                    : producerWorkAssignment.withTopicGroupRates(groupRates.get(worker));
+            // Each worker draws different keys, while the run stays reproducible
+            assignment.keySeed += producerWorkers.indexOf(worker);
+            if (sendingWorkers.contains(worker)) {
+                assignment.payloadSpec = assignment.payloadSpec.withRecordRange(sendingWorkers.indexOf(worker),
+                        sendingWorkers.size());
+            }
+            if (assignment.traceFile != null) {
+                assignment.traceSlots = traceSlots.get(producerWorkers.indexOf(worker));
+            }
+            assignment.startAtMillis = workerTime(worker, startAt);
+            try {
+                return writer.writeValueAsBytes(assignment);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
     }
 
     @Override
@@ -158,14 +322,18 @@ public class DistributedWorkersEnsemble implements Worker {
 
     @Override
     public void adjustPublishRate(double publishRate) throws IOException {
+        this.publishRate = publishRate;
         // Reduce the publish rate across all the brokers
-        publishRate /= numberOfUsedProducerWorkers;
-        sendPost(producerWorkers, "/adjust-publish-rate", writer.writeValueAsBytes(publishRate));
+        sendPost(producerWorkers, atNextPhase("/adjust-publish-rate"),
+                ratesAsBody(publishRatePerWorker(publishRate)));
     }
 
     @Override
     public void stopAll() {
-        sendPost(workers, "/stop-all", new byte[0]);
+        sendPost(workers, atNextPhase("/stop-all"), worker -> new byte[0]);
+        publishRate = -1;
+        consumerAssignments.clear();
+        topicGroupRateShares.clear();
     }
 
     @Override
@@ -178,17 +346,29 @@ public class DistributedWorkersEnsemble implements Worker {
         sendPost(consumerWorkers, "/resume-consumers", new byte[0]);
     }
 
+    @Override
+    public void pauseProducers() throws IOException {
+        sendPost(producerWorkers, "/pause-producers", new byte[0]);
+    }
+
+    @Override
+    public void resumeProducers() throws IOException {
+        sendPost(producerWorkers, "/resume-producers", new byte[0]);
+    }
+
     @Override
     public void createConsumers(ConsumerAssignment overallConsumerAssignment) {
+        List<String> consumers = new ArrayList<>(consumerWorkers);
         List<List<TopicSubscription>> subscriptionsPerConsumer = ListPartition
-                .partitionList(overallConsumerAssignment.topicsSubscriptions, consumerWorkers.size());
+                .partitionListWeighted(overallConsumerAssignment.topicsSubscriptions, weights(consumers));
         Map<String, ConsumerAssignment> topicsPerWorkerMap = Maps.newHashMap();
         int i = 0;
         for (List<TopicSubscription> tsl : subscriptionsPerConsumer) {
             ConsumerAssignment individualAssignement = new ConsumerAssignment();
             individualAssignement.topicsSubscriptions = tsl;
-            topicsPerWorkerMap.put(consumerWorkers.get(i++), individualAssignement);
+            topicsPerWorkerMap.put(consumers.get(i++), individualAssignement);
         }
+        consumerAssignments.putAll(topicsPerWorkerMap);
 
         List<CompletableFuture<Void>> futures = topicsPerWorkerMap.keySet().stream().map(consumer -> {
             try {
@@ -205,66 +385,125 @@ public class DistributedWorkersEnsemble implements Worker {
     }
 
     @Override
-    public PeriodStats getPeriodStats() {
-        List<PeriodStats> individualStats = get(workers, "/period-stats", PeriodStats.class);
-        PeriodStats stats = new PeriodStats();
-        individualStats.forEach(is -> {
-            stats.errors += is.errors;
-            stats.messagesSent += is.messagesSent;
-            stats.bytesSent += is.bytesSent;
-            stats.messagesReceived += is.messagesReceived;
-            stats.bytesReceived += is.bytesReceived;
-            stats.totalMessagesSent += is.totalMessagesSent;
-            stats.totalMessagesReceived += is.totalMessagesReceived;
-            stats.totalErrors += is.totalErrors;
+    public void addConsumers(ConsumerAssignment consumerAssignment) throws IOException {
+        List<String> consumers = new ArrayList<>(consumerWorkers);
+        List<List<TopicSubscription>> subscriptionsPerConsumer = ListPartition
+                .partitionListWeighted(consumerAssignment.topicsSubscriptions, weights(consumers));
+        Map<String, ConsumerAssignment> assignments = new HashMap<>();
+        for (int i = 0; i < subscriptionsPerConsumer.size(); i++) {
+            if (!subscriptionsPerConsumer.get(i).isEmpty()) {
+                ConsumerAssignment assignment = new ConsumerAssignment();
+                assignment.topicsSubscriptions = subscriptionsPerConsumer.get(i);
+                assignments.put(consumers.get(i), assignment);
+            }
+        }
 
-            try {
-                stats.publishLatency.add(Histogram.decodeFromCompressedByteBuffer(
-                        ByteBuffer.wrap(is.publishLatencyBytes), TimeUnit.SECONDS.toMicros(30)));
+        sendPostPerWorker(assignments, "/add-consumers");
+        assignments.forEach((worker, assignment) -> consumerAssignments
+                .computeIfAbsent(worker, x -> new ConsumerAssignment())
+                .topicsSubscriptions.addAll(assignment.topicsSubscriptions));
+    }
 
-                stats.scheduleLatency.add(Histogram.decodeFromCompressedByteBuffer(
-                    ByteBuffer.wrap(is.scheduleLatencyBytes), TimeUnit.SECONDS.toMicros(30)));
+    @Override
+    public void removeConsumers(ConsumerAssignment consumerAssignment) throws IOException {
+        // Each consumer has to be removed by the worker that owns it
+        Map<String, ConsumerAssignment> assignments = new HashMap<>();
+        for (TopicSubscription ts : consumerAssignment.topicsSubscriptions) {
+            for (Map.Entry<String, ConsumerAssignment> e : consumerAssignments.entrySet()) {
+                if (e.getValue().topicsSubscriptions.remove(ts)) {
+                    assignments.computeIfAbsent(e.getKey(), x -> new ConsumerAssignment()).topicsSubscriptions
+                            .add(ts);
+                    break;
+                }
+            }
+        }
 
-                stats.publishDelayLatency.add(Histogram.decodeFromCompressedByteBuffer(
-                        ByteBuffer.wrap(is.publishDelayLatencyBytes), TimeUnit.SECONDS.toMicros(30)));
+        sendPostPerWorker(assignments, "/remove-consumers");
+    }
 
-                stats.endToEndLatency.add(Histogram.decodeFromCompressedByteBuffer(
-                        ByteBuffer.wrap(is.endToEndLatencyBytes), TimeUnit.HOURS.toMicros(12)));
-            } catch (ArrayIndexOutOfBoundsException | DataFormatException e) {
-                throw new RuntimeException(e);
+    private void sendPostPerWorker(Map<String, ConsumerAssignment> assignments, String path) {
+        List<CompletableFuture<Void>> futures = assignments.entrySet().stream().map(e -> {
+            try {
+                return sendPost(e.getKey(), path, writer.writeValueAsBytes(e.getValue()));
+            } catch (Exception ex) {
+                CompletableFuture<Void> future = new CompletableFuture<>();
+                future.completeExceptionally(ex);
+                return future;
             }
-        });
+        }).collect(toList());
 
+        FutureUtil.waitForAll(futures).join();
+    }
+
+    @Override
+    public PeriodStats getPeriodStats() {
+        List<String> missingWorkers = new ArrayList<>();
+        List<PeriodStats> individualStats = statsAggregationMode == StatsAggregationMode.TREE
+                ? getFromGroups("/aggregate-period-stats", "/period-stats", PeriodStats.class, missingWorkers)
+                : get(workers, "/period-stats", PeriodStats.class);
+
+        long start = System.nanoTime();
+        PeriodStats stats = statsAggregator.mergePeriodStats(individualStats);
+        stats.aggregationTimeMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        stats.missingWorkers.addAll(missingWorkers);
+
+        WorkerFleetEvent event;
+        while ((event = pendingFleetEvents.poll()) != null) {
+            stats.fleetEvents.add(event);
+        }
         return stats;
     }
 
     @Override
     public CumulativeLatencies getCumulativeLatencies() {
-        List<CumulativeLatencies> individualStats = get(workers, "/cumulative-latencies", CumulativeLatencies.class);
-
-        final CumulativeLatencies stats = new CumulativeLatencies();
-        individualStats.forEach(is -> Stream.of(
-                        Pair.of("Publish Latency", Triple.of(stats.publishLatency, is.publishLatencyBytes, TimeUnit.SECONDS.toMicros(30))),
-                        Pair.of("Schedule Latency", Triple.of(stats.scheduleLatency, is.scheduleLatencyBytes, TimeUnit.SECONDS.toMicros(30))),
-                        Pair.of("Publish Delay Latency", Triple.of(stats.publishDelayLatency, is.publishDelayLatencyBytes, TimeUnit.SECONDS.toMicros(30))),
-                        Pair.of("End to End Latency", Triple.of(stats.endToEndLatency, is.endToEndLatencyBytes, TimeUnit.HOURS.toMicros(12))))
-                .forEach(pair -> {
-                    final Triple<Histogram, byte[], Long> triple = pair.getRight();
-                    final Histogram histogram = triple.getLeft();
-                    final ByteBuffer buffer = ByteBuffer.wrap(triple.getMiddle());
-                    final long micros = triple.getRight();
-                    Histogram otherHistogram = null;
-                    try {
-                        otherHistogram = Histogram.decodeFromCompressedByteBuffer(buffer, micros);
-                    } catch (Exception e) {
-                        log.error("Failed to decode {}:\n{}", pair.getLeft(),
-                                ByteBufUtil.prettyHexDump(Unpooled.wrappedBuffer(is.publishDelayLatencyBytes)));
-                        throw new RuntimeException(e);
-                    }
-                    histogram.add(otherHistogram);
-                }));
+        List<String> missingWorkers = new ArrayList<>();
+        List<CumulativeLatencies> individualStats = statsAggregationMode == StatsAggregationMode.TREE
+                ? getFromGroups("/aggregate-cumulative-latencies", "/cumulative-latencies",
+                        CumulativeLatencies.class, missingWorkers)
+                : get(workers, "/cumulative-latencies", CumulativeLatencies.class);
+
+        CumulativeLatencies latencies = statsAggregator.mergeCumulativeLatencies(individualStats);
+        latencies.missingWorkers.addAll(missingWorkers);
+        return latencies;
+    }
 
-        return stats;
+    /**
+     * Have the first worker of each group pre-merge the stats of the rest of the group. Reading the stats resets
+     * them, so the stats of a group are only fetched directly from its members when its leader could not even be
+     * reached. Otherwise the leader may already have drained them, and the group is left out of the result.
+     *
+     * @param missingWorkers filled with the workers whose stats are missing from the result
+     */
+    private <T> List<T> getFromGroups(String aggregatePath, String path, Class<T> clazz, List<String> missingWorkers) {
+        checkWorkersHealth();
+        List<List<String>> groups = Lists.partition(new ArrayList<>(workers), statsAggregationFanout);
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (List<String> group : groups) {
+            try {
+                futures.add(post(group.get(0), aggregatePath,
+                        writer.writeValueAsBytes(group.subList(1, group.size())), clazz));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        List<T> results = new ArrayList<>();
+        for (int i = 0; i < groups.size(); i++) {
+            try {
+                results.add(futures.get(i).join());
+            } catch (Exception e) {
+                if (Throwables.getCausalChain(e).stream().anyMatch(ConnectException.class::isInstance)) {
+                    log.warn("Failed to reach {} to aggregate {}, falling back to fetching it from each worker: {}",
+                            groups.get(i).get(0), path, e.getMessage());
+                    results.addAll(get(groups.get(i), path, clazz));
+                } else {
+                    log.error("Failed to aggregate {} on {}, the stats of its group of {} workers are missing: {}",
+                            path, groups.get(i).get(0), groups.get(i).size(), e.getMessage());
+                    missingWorkers.addAll(groups.get(i));
+                }
+            }
+        }
+        return results;
     }
 
     @Override
@@ -275,6 +514,11 @@ public class DistributedWorkersEnsemble implements Worker {
         individualStats.forEach(is -> {
             stats.messagesSent += is.messagesSent;
             stats.messagesReceived += is.messagesReceived;
+            stats.bytesSent += is.bytesSent;
+            stats.bytesReceived += is.bytesReceived;
+            stats.consumersWaitingForFirstMessage += is.consumersWaitingForFirstMessage;
+            stats.addMessagesSentPerPartition(is.messagesSentPerPartition);
+            stats.addCompression(is.compression);
         });
 
         return stats;
@@ -282,26 +526,37 @@ public class DistributedWorkersEnsemble implements Worker {
 
     @Override
     public void resetStats() throws IOException {
-        sendPost(workers, "/reset-stats", new byte[0]);
+        sendPost(workers, atNextPhase("/reset-stats"), worker -> new byte[0]);
     }
 
     /**
      * Send a request to multiple hosts and wait for all responses
      */
     private void sendPost(List<String> hosts, String path, byte[] body) {
-        int cnt = hosts
-            .parallelStream()
-            .mapToInt(host -> {
-                try {
-                    sendPost(host, path, body).get(); // HTTP client has a timeout, so no timeout here.
-                } catch (Exception e) {
-                    log.error("failed to send POST to {}{}", host, path, e);
-                    Throwables.throwIfUnchecked(e);
-                    throw new RuntimeException(e);
-                }
-                return 1;
-            })
-            .sum();
+        sendPost(hosts, host -> path, host -> body);
+    }
+
+    /**
+     * Send a request with a different path and body to each host and wait for all responses
+     */
+    private void sendPost(List<String> hosts, Function<String, String> pathPerHost,
+            Function<String, byte[]> bodyPerHost) {
+        checkWorkersHealth();
+        List<String> targets = new ArrayList<>(hosts);
+        List<CompletableFuture<Void>> futures = targets.stream()
+                .map(host -> sendPost(host, pathPerHost.apply(host), bodyPerHost.apply(host))).collect(toList());
+
+        int cnt = 0;
+        String path = null;
+        for (int i = 0; i < targets.size(); i++) {
+            String host = targets.get(i);
+            String hostPath = pathPerHost.apply(host);
+            if (awaitResponse(host, hostPath, futures.get(i).thenApply(x -> Boolean.TRUE),
+                    () -> sendPost(host, hostPath, bodyPerHost.apply(host)).thenApply(x -> Boolean.TRUE)) != null) {
+                cnt++;
+            }
+            path = hostPath;
+        }
         log.debug("POST {} sent to {} hosts", path, cnt);
     }
 
@@ -313,17 +568,19 @@ public class DistributedWorkersEnsemble implements Worker {
     }
 
     private <T> List<T> get(List<String> hosts, String path, Class<T> clazz) {
-        List<CompletableFuture<T>> futures = hosts.stream().map(w -> get(w, path, clazz)).collect(toList());
-
-        CompletableFuture<List<T>> resultFuture = new CompletableFuture<>();
-        FutureUtil.waitForAll(futures).thenRun(() -> {
-            resultFuture.complete(futures.stream().map(CompletableFuture::join).collect(toList()));
-        }).exceptionally(ex -> {
-            resultFuture.completeExceptionally(ex);
-            return null;
-        });
-
-        return resultFuture.join();
+        checkWorkersHealth();
+        List<String> targets = new ArrayList<>(hosts);
+        List<CompletableFuture<T>> futures = targets.stream().map(w -> get(w, path, clazz)).collect(toList());
+
+        List<T> results = new ArrayList<>();
+        for (int i = 0; i < targets.size(); i++) {
+            String host = targets.get(i);
+            T result = awaitResponse(host, path, futures.get(i), () -> get(host, path, clazz));
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        return results;
     }
 
     private <T> CompletableFuture<T> get(String host, String path, Class<T> clazz) {
@@ -348,6 +605,349 @@ public class DistributedWorkersEnsemble implements Worker {
         });
     }
 
+    /**
+     * Wait for the response of a single worker, applying the failure policy if the worker turns out to be
+     * unresponsive.
+     *
+     * @return the response, or null if the worker was dropped from the test
+     */
+    private <T> T awaitResponse(String host, String path, CompletableFuture<T> future,
+            Supplier<CompletableFuture<T>> retry) {
+        while (true) {
+            try {
+                return future.get(); // HTTP client has a timeout, so no timeout here.
+            } catch (Exception e) {
+                // A worker that just crashed still has a recent heartbeat, so ask it directly whether it is alive
+                if (probeWorker(host)) {
+                    // The worker is alive, so this is a genuine failure of the request
+                    log.error("failed to send {} to {}", path, host, e);
+                    Throwables.throwIfUnchecked(e);
+                    throw new RuntimeException(e);
+                }
+
+                if (!handleUnresponsiveWorker(host, "Request " + path + " failed: " + e.getMessage())) {
+                    return null;
+                }
+                future = retry.get();
+            }
+        }
+    }
+
+    /**
+     * Apply the failure policy to the workers that have missed their heartbeats.
+     */
+    private void checkWorkersHealth() {
+        long now = System.currentTimeMillis();
+        for (String worker : workers) {
+            if (now - lastHeartbeat.get(worker) > HEARTBEAT_TIMEOUT_MS) {
+                handleUnresponsiveWorker(worker, "No heartbeat for " + (now - lastHeartbeat.get(worker)) + " ms");
+            }
+        }
+    }
+
+    /**
+     * @return true if the worker is back and the request should be retried, false if it was dropped
+     */
+    private boolean handleUnresponsiveWorker(String worker, String reason) {
+        switch (failurePolicy) {
+            case CONTINUE:
+                removeWorker(worker, reason);
+                return false;
+            case WAIT:
+                awaitWorker(worker, reason);
+                return true;
+            case ABORT:
+            default:
+                String msg = String.format("Worker %s is not responding: %s", worker, reason);
+                log.error(msg);
+                throw new RuntimeException(msg);
+        }
+    }
+
+    private synchronized void removeWorker(String worker, String reason) {
+        if (!workers.remove(worker)) {
+            // Already dropped by another thread
+            return;
+        }
+        boolean wasProducer = producerWorkers.remove(worker);
+        boolean wasConsumer = consumerWorkers.remove(worker);
+
+        WorkerFleetEvent event = new WorkerFleetEvent(WorkerFleetEvent.Type.LOST, worker, reason, workers.size());
+        log.error("Dropping worker from the test: {}", event);
+        pendingFleetEvents.add(event);
+
+        // In case the worker is only partitioned away, make sure it does not keep producing when it comes back
+        sendPost(worker, "/stop-all", new byte[0]).exceptionally(ex -> null);
+
+        if (wasProducer && usedProducerWorkers.remove(worker)) {
+            if (usedProducerWorkers.isEmpty()) {
+                throw new RuntimeException("All producer workers have been lost");
+            }
+            if (publishRate > 0) {
+                log.info("Redistributing publish rate {} across {} producer workers", publishRate,
+                        usedProducerWorkers.size());
+                sendPost(producerWorkers, atNextPhase("/adjust-publish-rate"),
+                        ratesAsBody(publishRatePerWorker(publishRate)));
+            }
+        }
+
+        ConsumerAssignment lostAssignment = consumerAssignments.remove(worker);
+        if (wasConsumer && lostAssignment != null && !lostAssignment.topicsSubscriptions.isEmpty()) {
+            if (consumerWorkers.isEmpty()) {
+                throw new RuntimeException("All consumer workers have been lost");
+            }
+            log.info("Moving {} consumers of {} to the remaining consumer workers",
+                    lostAssignment.topicsSubscriptions.size(), worker);
+            List<String> consumers = new ArrayList<>(consumerWorkers);
+            List<List<TopicSubscription>> reassigned = ListPartition
+                    .partitionListWeighted(lostAssignment.topicsSubscriptions, weights(consumers));
+            for (int i = 0; i < reassigned.size(); i++) {
+                if (reassigned.get(i).isEmpty()) {
+                    continue;
+                }
+                String consumer = consumers.get(i);
+                ConsumerAssignment assignment = new ConsumerAssignment();
+                assignment.topicsSubscriptions = reassigned.get(i);
+                try {
+                    sendPost(Collections.singletonList(consumer), "/create-consumers",
+                            writer.writeValueAsBytes(assignment));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                consumerAssignments.computeIfAbsent(consumer, x -> new ConsumerAssignment())
+                        .topicsSubscriptions.addAll(assignment.topicsSubscriptions);
+            }
+        }
+    }
+
+    private void awaitWorker(String worker, String reason) {
+        if (awaitedWorkers.add(worker)) {
+            WorkerFleetEvent event = new WorkerFleetEvent(WorkerFleetEvent.Type.LOST, worker, reason,
+                    workers.size() - awaitedWorkers.size());
+            log.warn("Pausing until worker comes back: {}", event);
+            pendingFleetEvents.add(event);
+        }
+
+        long deadline = System.currentTimeMillis() + MAX_WAIT_FOR_WORKER_MS;
+        while (!isResponsive(worker)) {
+            if (restartedWorkers.contains(worker)) {
+                throw new RuntimeException(String.format(
+                        "Worker %s was restarted and lost its producers and consumers", worker));
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new RuntimeException(String.format("Worker %s did not come back after %d minutes", worker,
+                        TimeUnit.MILLISECONDS.toMinutes(MAX_WAIT_FOR_WORKER_MS)));
+            }
+            try {
+                Thread.sleep(HEARTBEAT_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+
+        if (awaitedWorkers.remove(worker)) {
+            WorkerFleetEvent event = new WorkerFleetEvent(WorkerFleetEvent.Type.RECOVERED, worker,
+                    "Heartbeat resumed", workers.size() - awaitedWorkers.size());
+            log.info("Worker is back: {}", event);
+            pendingFleetEvents.add(event);
+        }
+    }
+
+    private boolean isResponsive(String worker) {
+        return System.currentTimeMillis() - lastHeartbeat.get(worker) <= HEARTBEAT_TIMEOUT_MS;
+    }
+
+    /**
+     * Send a heartbeat to the worker right away.
+     *
+     * @return true if the worker answered and is still the same process, false if it is down or was restarted
+     */
+    private boolean probeWorker(String worker) {
+        boolean alive;
+        try {
+            Response response = httpClient.prepareGet(worker + "/heartbeat").setRequestTimeout(HEARTBEAT_INTERVAL_MS)
+                    .execute().get();
+            String knownInstanceId = workerInstanceIds.get(worker);
+            alive = response.getStatusCode() == 200
+                    && (knownInstanceId == null || knownInstanceId.equals(response.getResponseBody()));
+            if (!alive && response.getStatusCode() == 200) {
+                restartedWorkers.add(worker);
+            }
+        } catch (Exception e) {
+            log.debug("Heartbeat probe to {} failed: {}", worker, e.getMessage());
+            alive = false;
+        }
+
+        // Let the failure policy, and the wait for the worker to come back, see the outcome right away
+        lastHeartbeat.put(worker, alive ? System.currentTimeMillis() : 0L);
+        return alive;
+    }
+
+    /**
+     * Schedule a phase change a little ahead, at the same instant on every worker.
+     *
+     * @return the request path for each worker, carrying the target time in the worker's clock
+     */
+    private Function<String, String> atNextPhase(String path) {
+        long at = System.currentTimeMillis() + PHASE_CHANGE_DELAY_MS;
+        return worker -> path + "?at=" + workerTime(worker, at);
+    }
+
+    private long workerTime(String worker, long localTimeMillis) {
+        return localTimeMillis + clockOffsets.getOrDefault(worker, 0L);
+    }
+
+    /**
+     * Estimate the clock offset of each worker, keeping the sample with the shortest round trip as it bounds
+     * the error best. All the workers are sampled at once, and the samples of each worker one after the other.
+     */
+    private void syncClocks() {
+        CompletableFuture.allOf(workers.stream().map(this::syncClock).toArray(CompletableFuture[]::new)).join();
+    }
+
+    private CompletableFuture<Void> syncClock(String worker) {
+        // Round trip and offset of the best sample so far
+        long[] best = { Long.MAX_VALUE, 0 };
+        CompletableFuture<Void> samples = CompletableFuture.completedFuture(null);
+        for (int i = 0; i < CLOCK_SYNC_SAMPLES; i++) {
+            samples = samples.thenCompose(x -> sampleClock(worker)).thenAccept(sample -> {
+                if (sample != null && sample[0] < best[0]) {
+                    best[0] = sample[0];
+                    best[1] = sample[1];
+                }
+            });
+        }
+        return samples.thenRun(() -> {
+            if (best[0] != Long.MAX_VALUE) {
+                clockOffsets.put(worker, best[1]);
+            } else {
+                log.warn("Could not estimate the clock offset of {}, phase changes may not be aligned", worker);
+            }
+        });
+    }
+
+    /**
+     * @return the round trip and the clock offset measured by a single request, or null if it failed
+     */
+    private CompletableFuture<long[]> sampleClock(String worker) {
+        long sent = System.currentTimeMillis();
+        return httpClient.prepareGet(worker + "/clock").setRequestTimeout(HEARTBEAT_INTERVAL_MS).execute()
+                .toCompletableFuture().thenApply(response -> {
+                    long received = System.currentTimeMillis();
+                    long workerTime = Long.parseLong(response.getResponseBody().trim());
+                    return new long[] { received - sent, workerTime - (sent + received) / 2 };
+                }).exceptionally(ex -> {
+                    log.debug("Clock sync with {} failed: {}", worker, ex.getMessage());
+                    return null;
+                });
+    }
+
+    private void sendHeartbeats() {
+        for (String worker : workers) {
+            httpClient.prepareGet(worker + "/heartbeat").setRequestTimeout(HEARTBEAT_INTERVAL_MS).execute()
+                    .toCompletableFuture().thenAccept(response -> {
+                        if (response.getStatusCode() != 200) {
+                            return;
+                        }
+                        String instanceId = response.getResponseBody();
+                        String knownInstanceId = workerInstanceIds.putIfAbsent(worker, instanceId);
+                        if (knownInstanceId != null && !knownInstanceId.equals(instanceId)) {
+                            if (restartedWorkers.add(worker)) {
+                                log.error("Worker {} was restarted during the test", worker);
+                            }
+                            return;
+                        }
+                        lastHeartbeat.put(worker, System.currentTimeMillis());
+                    }).exceptionally(ex -> {
+                        log.debug("Heartbeat to {} failed: {}", worker, ex.getMessage());
+                        return null;
+                    });
+        }
+    }
+
+    /**
+     * Run the calibration on all workers at once and use the scores as weights.
+     */
+    private void calibrateWeights() {
+        log.info("Calibrating {} workers", workers.size());
+        List<CompletableFuture<Double>> futures = workers.stream().map(w -> get(w, "/calibrate", Double.class))
+                .collect(toList());
+        for (int i = 0; i < workers.size(); i++) {
+            weights.put(workers.get(i), futures.get(i).join());
+        }
+    }
+
+    private double weight(String worker) {
+        return weights.getOrDefault(worker, DEFAULT_WEIGHT);
+    }
+
+    private List<Double> weights(List<String> workers) {
+        return workers.stream().map(this::weight).collect(toList());
+    }
+
+    /**
+     * Split the rate of each topic group across the producer workers, proportionally to the number of producers of
+     * the group each one has, so that every producer of a group publishes at the same rate.
+     *
+     * @return the rate of each group on each producer worker, empty without topic groups
+     */
+    private Map<String, Map<String, Double>> topicGroupRatesPerWorker(List<TopicGroupLoad> topicGroups) {
+        Map<String, Map<String, Double>> rates = new HashMap<>();
+        for (TopicGroupLoad group : topicGroups) {
+            Set<String> groupTopics = new HashSet<>(group.topics);
+            Map<String, Long> groupProducers = new HashMap<>();
+            for (String worker : producerWorkers) {
+                groupProducers.put(worker, producerTopics.getOrDefault(worker, Collections.emptyList()).stream()
+                        .filter(groupTopics::contains).count());
+            }
+            long total = groupProducers.values().stream().mapToLong(n -> n).sum();
+            groupProducers.forEach((worker, n) -> rates.computeIfAbsent(worker, x -> new HashMap<>())
+                    .put(group.name, total > 0 ? group.publishRate * n / total : 0));
+        }
+        return rates;
+    }
+
+    /**
+     * Split the overall publish rate across the producer workers in use, proportionally to their weights, or to
+     * their share of the topic group producers.
+     */
+    private Map<String, Double> publishRatePerWorker(double publishRate) {
+        Map<String, Double> shares = new HashMap<>(topicGroupRateShares);
+        if (!shares.isEmpty()) {
+            // Renormalized over the workers still in use, in case some were lost
+            double totalShare = usedProducerWorkers.stream().mapToDouble(w -> shares.getOrDefault(w, 0.0)).sum();
+            Map<String, Double> rates = new HashMap<>();
+            for (String worker : producerWorkers) {
+                rates.put(worker, totalShare > 0 ? publishRate * shares.getOrDefault(worker, 0.0) / totalShare : 0);
+            }
+            return rates;
+        }
+
+        double totalWeight = usedProducerWorkers.stream().mapToDouble(this::weight).sum();
+        Map<String, Double> rates = new HashMap<>();
+        for (String worker : producerWorkers) {
+            rates.put(worker, totalWeight > 0 ? publishRate * weight(worker) / totalWeight : publishRate);
+        }
+        return rates;
+    }
+
+    private static Function<String, byte[]> ratesAsBody(Map<String, Double> rates) {
+        return worker -> {
+            try {
+                return writer.writeValueAsBytes(rates.get(worker));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    private static Workers workersConfig(List<String> workers) {
+        Workers workersConfig = new Workers();
+        workersConfig.workers = workers;
+        return workersConfig;
+    }
+
     /**
      * Assert that the status code is exactly 200, log and throw otherwise.
      * @param response the response to check
@@ -365,6 +965,9 @@ public class DistributedWorkersEnsemble implements Worker {
 
     @Override
     public void close() throws Exception {
+        heartbeatExecutor.shutdownNow();
+        clockSyncExecutor.shutdownNow();
+        statsAggregator.close();
         httpClient.close();
     }
 
@@ -22,11 +22,17 @@ import java.time.Instant;
 import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -36,7 +42,13 @@ import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.google.common.base.Preconditions;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import io.openmessaging.benchmark.CatchUpRead;
+import io.openmessaging.benchmark.utils.OperationRateLimiter;
+import io.openmessaging.benchmark.utils.ProfiledRateLimiter;
+import io.openmessaging.benchmark.utils.RateProfile;
 import io.openmessaging.benchmark.utils.UniformRateLimiter;
+import org.HdrHistogram.Histogram;
 import org.HdrHistogram.Recorder;
 import org.apache.bookkeeper.stats.Counter;
 import org.apache.bookkeeper.stats.NullStatsLogger;
@@ -50,25 +62,58 @@ import io.openmessaging.benchmark.DriverConfiguration;
 import io.openmessaging.benchmark.driver.BenchmarkConsumer;
 import io.openmessaging.benchmark.driver.BenchmarkDriver;
 import io.openmessaging.benchmark.driver.BenchmarkProducer;
+import io.openmessaging.benchmark.driver.MessageKey;
 import io.openmessaging.benchmark.driver.ConsumerCallback;
 import io.openmessaging.benchmark.utils.RandomGenerator;
 import io.openmessaging.benchmark.utils.Timer;
 import io.openmessaging.benchmark.utils.distributor.KeyDistributor;
+import io.openmessaging.benchmark.utils.distributor.KeyDistributorType;
+import io.openmessaging.benchmark.utils.distributor.KeySpace;
+import io.openmessaging.benchmark.utils.payload.CompressionProbe;
+import io.openmessaging.benchmark.utils.payload.MappedPayloadRecords;
+import io.openmessaging.benchmark.utils.payload.PayloadCursor;
+import io.openmessaging.benchmark.utils.payload.PayloadFileFormat;
+import io.openmessaging.benchmark.utils.payload.PayloadGenerator;
+import io.openmessaging.benchmark.utils.payload.UniquePayloadBuffer;
+import io.openmessaging.benchmark.utils.trace.TracePayloads;
+import io.openmessaging.benchmark.utils.trace.TraceReader;
+import io.openmessaging.benchmark.utils.trace.TraceRecord;
+import io.openmessaging.benchmark.worker.commands.CompressionStats;
 import io.openmessaging.benchmark.worker.commands.ConsumerAssignment;
 import io.openmessaging.benchmark.worker.commands.CountersStats;
 import io.openmessaging.benchmark.worker.commands.CumulativeLatencies;
+import io.openmessaging.benchmark.worker.commands.PayloadSpec;
 import io.openmessaging.benchmark.worker.commands.PeriodStats;
 import io.openmessaging.benchmark.worker.commands.ProducerWorkAssignment;
+import io.openmessaging.benchmark.worker.commands.TopicGroupLoad;
+import io.openmessaging.benchmark.worker.commands.TopicSubscription;
 import io.openmessaging.benchmark.worker.commands.TopicsInfo;
 
 public class LocalWorker implements Worker, ConsumerCallback {
 
     private BenchmarkDriver benchmarkDriver = null;
+    private DriverConfiguration driverConfiguration = null;
 
-    private List<BenchmarkProducer> producers = new ArrayList<>();
-    private List<BenchmarkConsumer> consumers = new ArrayList<>();
+    private final List<BenchmarkProducer> producers = new ArrayList<>();
+    // Topic of each producer, in the same order, so that churned producers can be recreated
+    private final List<String> producerTopics = new ArrayList<>();
+    private volatile ScheduledExecutorService churnExecutor;
+    // Churned producers that are waiting for the sending threads to let go of them before being closed
+    private final Set<BenchmarkProducer> retiredProducers = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<BenchmarkConsumer> consumers = new ArrayList<>();
 
-    private volatile UniformRateLimiter rateLimiter = new UniformRateLimiter(1.0);
+    // Subscription of each consumer, so that consumers can be removed during the run
+    private final Map<BenchmarkConsumer, TopicSubscription> consumerSubscriptions = new IdentityHashMap<>();
+
+    // Consumers added during the run, flagged until they receive their first message
+    private final Map<BenchmarkConsumer, AtomicBoolean> waitingForFirstMessage = new IdentityHashMap<>();
+
+    private volatile OperationRateLimiter rateLimiter = new UniformRateLimiter(1.0);
+    private volatile RateProfile rateProfile;
+    private volatile long rateProfileStartNs;
+
+    // Rate limiters and stats of the topic groups, by group name
+    private final Map<String, TopicGroupState> topicGroups = new ConcurrentHashMap<>();
 
     private final ExecutorService executor = Executors.newCachedThreadPool(new DefaultThreadFactory("local-worker"));
 
@@ -91,6 +136,15 @@ public class LocalWorker implements Worker, ConsumerCallback {
     private final LongAdder totalMessagesSent = new LongAdder();
     private final LongAdder totalErrors = new LongAdder();
     private final LongAdder totalMessagesReceived = new LongAdder();
+    private final LongAdder totalBytesSent = new LongAdder();
+    private final LongAdder totalBytesReceived = new LongAdder();
+
+    // Messages sent per partition with keys, as hashed by the Kafka default partitioner, null when not tracked
+    private volatile LongAdder[] totalMessagesSentPerPartition;
+    private volatile int[] keyPartitions;
+
+    // Compression of the payload pool with each codec, measured in the background once the load starts
+    private volatile Map<String, CompressionStats> payloadCompression;
 
     private final Recorder publishLatencyRecorder = new Recorder(5);
     private final Recorder cumulativePublishLatencyRecorder = new Recorder(5);
@@ -106,12 +160,25 @@ public class LocalWorker implements Worker, ConsumerCallback {
 
     private final Recorder endToEndLatencyRecorder = new Recorder(TimeUnit.HOURS.toMicros(12), 5);
     private final Recorder endToEndCumulativeLatencyRecorder = new Recorder(TimeUnit.HOURS.toMicros(12), 5);
+
+    // Setup happens before the stats are reset for the test, so the creation latencies are kept in histograms fed
+    // by their recorders, that survive reading the cumulative latencies and are only cleared by stopAll
+    private final Recorder producerCreationLatencyRecorder = new Recorder(5);
+    private final Histogram producerCreationLatency = new Histogram(5);
+    private final Recorder producerFirstSendLatencyRecorder = new Recorder(5);
+    private final Recorder steadyPublishLatencyRecorder = new Recorder(5);
+    private final Recorder consumerCreationLatencyRecorder = new Recorder(5);
+    private final Histogram consumerCreationLatency = new Histogram(5);
     private final OpStatsLogger endToEndLatencyStats;
 
     private boolean testCompleted = false;
 
     private boolean consumersArePaused = false;
 
+    // Producers stop sending while paused, and restart at the last publish rate when resumed
+    private volatile boolean producersArePaused = false;
+    private volatile double publishRate;
+
     public LocalWorker() {
         this(NullStatsLogger.INSTANCE);
     }
@@ -137,7 +204,13 @@ public class LocalWorker implements Worker, ConsumerCallback {
         Preconditions.checkArgument(benchmarkDriver == null);
         testCompleted = false;
 
-        DriverConfiguration driverConfiguration = mapper.readValue(driverConfigFile, DriverConfiguration.class);
+        driverConfiguration = mapper.readValue(driverConfigFile, DriverConfiguration.class);
+        Preconditions.checkArgument(driverConfiguration.topicCreationBatchSize > 0,
+                "topicCreationBatchSize must be positive");
+        Preconditions.checkArgument(driverConfiguration.topicCreationConcurrency > 0,
+                "topicCreationConcurrency must be positive");
+        Preconditions.checkArgument(driverConfiguration.clientCreationConcurrency > 0,
+                "clientCreationConcurrency must be positive");
 
         log.info("Driver: {}", writer.writeValueAsString(driverConfiguration));
 
@@ -155,35 +228,49 @@ public class LocalWorker implements Worker, ConsumerCallback {
         boolean useExisting = topicsInfo.isExistingTopics();
 
         if (useExisting) {
-            for (String topicName : topicsInfo.allExistingTopics()) {
-                if (!benchmarkDriver.validateTopicExists(topicName).join()) {
-                    throw new RuntimeException(String.format("Topic specified in workload does not exist: %s",
-                        topicName));
-                }
-                topics.add(topicName);
+            List<String> missing = benchmarkDriver.validateTopicsExist(topicsInfo.allExistingTopics()).join();
+            if (!missing.isEmpty()) {
+                throw new RuntimeException(String.format("Topics specified in workload do not exist: %s",
+                    missing));
             }
+            topics.addAll(topicsInfo.allExistingTopics());
         } else {
-            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            String topicPrefix = benchmarkDriver.getTopicNamePrefix();
             for (int i = 0; i < topicsInfo.numberOfTopics; i++) {
-                String topicPrefix = benchmarkDriver.getTopicNamePrefix();
-                String topic = String.format("%s-%s-%04d", topicPrefix, RandomGenerator.getRandomString(), i);
-                topics.add(topic);
-                futures.add(benchmarkDriver.createTopic(topic, topicsInfo.numberOfPartitionsPerTopic));
+                int index = topicsInfo.firstTopicIndex + i;
+                topics.add(String.format("%s-%s-%04d", topicPrefix, RandomGenerator.getRandomString(), index));
             }
-            futures.forEach(CompletableFuture::join);
+            createTopics(topics, topicsInfo.numberOfPartitionsPerTopic);
         }
 
         return topics;
     }
 
+    /**
+     * Create the topics in batches, with a bounded number of batches in flight so that large workloads do not
+     * flood the cluster with admin requests.
+     */
+    private void createTopics(List<String> topics, int partitions) {
+        Timer timer = new Timer();
+        Semaphore inFlight = new Semaphore(driverConfiguration.topicCreationConcurrency);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (List<String> batch : Lists.partition(topics, driverConfiguration.topicCreationBatchSize)) {
+            inFlight.acquireUninterruptibly();
+            CompletableFuture<Void> future = benchmarkDriver.createTopics(batch, partitions);
+            future.whenComplete((x, ex) -> inFlight.release());
+            futures.add(future);
+        }
+        futures.forEach(CompletableFuture::join);
+        log.info("Created {} topics in {} ms", topics.size(), timer.elapsedMillis());
+    }
+
     @Override
     public void createProducers(List<String> topics) {
         Timer timer = new Timer();
 
-        List<CompletableFuture<BenchmarkProducer>> futures = topics.stream()
-                .map(topic -> benchmarkDriver.createProducer(topic)).collect(toList());
-
-        futures.forEach(f -> producers.add(f.join()));
+        producers.addAll(createClients(topics, topic -> benchmarkDriver.createProducer(topic),
+                producerCreationLatencyRecorder));
+        producerTopics.addAll(topics);
         log.info("Created {} producers in {} ms", producers.size(), timer.elapsedMillis());
     }
 
@@ -191,30 +278,541 @@ public class LocalWorker implements Worker, ConsumerCallback {
     public void createConsumers(ConsumerAssignment consumerAssignment) {
         Timer timer = new Timer();
 
-        List<CompletableFuture<BenchmarkConsumer>> futures = consumerAssignment.topicsSubscriptions.stream()
-                .map(ts -> benchmarkDriver.createConsumer(ts.topic, ts.subscription, this)).collect(toList());
-
-        futures.forEach(f -> consumers.add(f.join()));
+        List<BenchmarkConsumer> created = createClients(consumerAssignment.topicsSubscriptions,
+                ts -> benchmarkDriver.createConsumer(ts.topic, ts.subscription, consumerCallback(ts)),
+                consumerCreationLatencyRecorder);
+        synchronized (consumers) {
+            for (int i = 0; i < created.size(); i++) {
+                consumers.add(created.get(i));
+                consumerSubscriptions.put(created.get(i), consumerAssignment.topicsSubscriptions.get(i));
+            }
+        }
         log.info("Created {} consumers in {} ms", consumers.size(), timer.elapsedMillis());
     }
 
+    @Override
+    public void addConsumers(ConsumerAssignment consumerAssignment) {
+        Timer timer = new Timer();
+
+        List<AtomicBoolean> flags = new ArrayList<>();
+        // The catch-up readers are not waited for, they are followed in their own stats
+        consumerAssignment.topicsSubscriptions.forEach(ts -> flags.add(new AtomicBoolean(!ts.catchUp)));
+        List<TopicSubscription> subscriptions = consumerAssignment.topicsSubscriptions;
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < subscriptions.size(); i++) {
+            indexes.add(i);
+        }
+
+        List<BenchmarkConsumer> created = createClients(indexes,
+                i -> benchmarkDriver.createConsumer(subscriptions.get(i).topic, subscriptions.get(i).subscription,
+                        subscriptions.get(i).catchUp ? consumerCallback(subscriptions.get(i))
+                                : firstMessageTracker(flags.get(i))),
+                consumerCreationLatencyRecorder);
+        synchronized (consumers) {
+            for (int i = 0; i < created.size(); i++) {
+                consumers.add(created.get(i));
+                consumerSubscriptions.put(created.get(i), subscriptions.get(i));
+                waitingForFirstMessage.put(created.get(i), flags.get(i));
+            }
+        }
+        log.info("Added {} consumers in {} ms", created.size(), timer.elapsedMillis());
+    }
+
+    @Override
+    public void removeConsumers(ConsumerAssignment consumerAssignment) throws IOException {
+        List<BenchmarkConsumer> removed = new ArrayList<>();
+        synchronized (consumers) {
+            for (TopicSubscription ts : consumerAssignment.topicsSubscriptions) {
+                // Remove the most recently created consumer of the subscription
+                for (int i = consumers.size() - 1; i >= 0; i--) {
+                    BenchmarkConsumer consumer = consumers.get(i);
+                    if (ts.equals(consumerSubscriptions.get(consumer))) {
+                        consumers.remove(i);
+                        consumerSubscriptions.remove(consumer);
+                        waitingForFirstMessage.remove(consumer);
+                        removed.add(consumer);
+                        break;
+                    }
+                }
+            }
+        }
+
+        Timer timer = new Timer();
+        for (BenchmarkConsumer consumer : removed) {
+            try {
+                consumer.close();
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+        log.info("Removed {} consumers in {} ms", removed.size(), timer.elapsedMillis());
+    }
+
+    /**
+     * Callback for a consumer added during the run, that clears its flag on the first message it receives.
+     */
+    private ConsumerCallback firstMessageTracker(AtomicBoolean waiting) {
+        return new ConsumerCallback() {
+            @Override
+            public void messageReceived(byte[] payload, long publishTimestamp) {
+                waiting.set(false);
+                LocalWorker.this.messageReceived(payload, publishTimestamp);
+            }
+
+            @Override
+            public void messageReceived(ByteBuffer payload, long publishTimestamp) {
+                waiting.set(false);
+                LocalWorker.this.messageReceived(payload, publishTimestamp);
+            }
+
+            @Override
+            public void messageReceived(int payloadSize, long e2eLatencyNs) {
+                waiting.set(false);
+                LocalWorker.this.messageReceived(payloadSize, e2eLatencyNs);
+            }
+
+            @Override
+            public void error() {
+                LocalWorker.this.error();
+            }
+        };
+    }
+
+    /**
+     * Create the clients from a bounded pool of threads, since most drivers build them synchronously in the
+     * calling thread, and record how long each one took.
+     */
+    private <T, C> List<C> createClients(List<T> specs, Function<T, CompletableFuture<C>> factory,
+            Recorder latencyRecorder) {
+        ExecutorService creationExecutor = Executors.newFixedThreadPool(
+                driverConfiguration.clientCreationConcurrency, new DefaultThreadFactory("client-creation"));
+        try {
+            List<CompletableFuture<C>> futures = specs.stream().map(spec -> CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                C client = factory.apply(spec).join();
+                latencyRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                return client;
+            }, creationExecutor)).collect(toList());
+
+            return futures.stream().map(CompletableFuture::join).collect(toList());
+        } finally {
+            creationExecutor.shutdown();
+        }
+    }
+
+    private TopicGroupState topicGroup(String name) {
+        return topicGroups.computeIfAbsent(name, k -> new TopicGroupState());
+    }
+
+    private ConsumerCallback consumerCallback(TopicSubscription ts) {
+        if (ts.catchUp) {
+            return catchUpCallback(topicGroup(CatchUpRead.READERS_STATS),
+                    topicGroup(CatchUpRead.READERS_TEST_DATA_STATS), ts.catchUpFromMillis);
+        }
+        return ts.topicGroup != null ? topicGroupCallback(topicGroup(ts.topicGroup)) : this;
+    }
+
+    /**
+     * Callback recording the messages of a topic group in its own stats, on top of the stats of the worker.
+     */
+    private ConsumerCallback topicGroupCallback(TopicGroupState group) {
+        return new ConsumerCallback() {
+            @Override
+            public void messageReceived(byte[] payload, long publishTimestamp) {
+                group.messageReceived(payload.length, endToEndLatencyMicros(publishTimestamp));
+                LocalWorker.this.messageReceived(payload, publishTimestamp);
+            }
+
+            @Override
+            public void messageReceived(ByteBuffer payload, long publishTimestamp) {
+                group.messageReceived(payload.remaining(), endToEndLatencyMicros(publishTimestamp));
+                LocalWorker.this.messageReceived(payload, publishTimestamp);
+            }
+
+            @Override
+            public void messageReceived(int payloadSize, long e2eLatencyNs) {
+                long e2eLatencyMicros = e2eLatencyNs >= 0 ? TimeUnit.NANOSECONDS.toMicros(e2eLatencyNs) : -1;
+                group.messageReceived(payloadSize, e2eLatencyMicros);
+                LocalWorker.this.messageReceived(payloadSize, e2eLatencyNs);
+            }
+
+            @Override
+            public void error() {
+                LocalWorker.this.error();
+            }
+        };
+    }
+
+    /**
+     * Callback recording the messages of the catch-up readers only in their own stats, so that the stats of the
+     * worker keep following the tailing consumers. The messages published since {@code testStartMillis} are also
+     * recorded in the stats of the test data, to follow the progress of the readers through what the test produced.
+     */
+    private ConsumerCallback catchUpCallback(TopicGroupState readers, TopicGroupState testData,
+            long testStartMillis) {
+        return new ConsumerCallback() {
+            @Override
+            public void messageReceived(byte[] payload, long publishTimestamp) {
+                received(payload.length, publishTimestamp, endToEndLatencyMicros(publishTimestamp));
+            }
+
+            @Override
+            public void messageReceived(ByteBuffer payload, long publishTimestamp) {
+                received(payload.remaining(), publishTimestamp, endToEndLatencyMicros(publishTimestamp));
+            }
+
+            @Override
+            public void messageReceived(int payloadSize, long e2eLatencyNs) {
+                if (e2eLatencyNs < 0) {
+                    // Publish time unknown, counted as test data
+                    received(payloadSize, Long.MAX_VALUE, -1);
+                    return;
+                }
+                received(payloadSize, System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(e2eLatencyNs),
+                        TimeUnit.NANOSECONDS.toMicros(e2eLatencyNs));
+            }
+
+            private void received(int payloadSize, long publishTimestampMillis, long e2eLatencyMicros) {
+                readers.messageReceived(payloadSize, e2eLatencyMicros);
+                if (publishTimestampMillis >= testStartMillis) {
+                    testData.messageReceived(payloadSize, e2eLatencyMicros);
+                }
+            }
+
+            @Override
+            public void error() {
+                LocalWorker.this.error();
+            }
+        };
+    }
+
     @Override
     public void startLoad(ProducerWorkAssignment producerWorkAssignment) {
-        int processors = Runtime.getRuntime().availableProcessors();
+        if (!producerWorkAssignment.topicGroups.isEmpty()) {
+            startTopicGroupsLoad(producerWorkAssignment);
+            return;
+        }
+        if (producerWorkAssignment.traceFile != null) {
+            startTraceReplay(producerWorkAssignment);
+            return;
+        }
 
-        rateLimiter = new UniformRateLimiter(producerWorkAssignment.publishRate);
+        int processors = Runtime.getRuntime().availableProcessors();
 
         Map<Integer, List<BenchmarkProducer>> processorAssignment = new TreeMap<>();
 
         int processorIdx = 0;
         for (BenchmarkProducer p : producers) {
-            processorAssignment.computeIfAbsent(processorIdx, x -> new ArrayList<BenchmarkProducer>()).add(p);
+            // Copy-on-write, so that churned producers can be swapped while the threads iterate
+            processorAssignment.computeIfAbsent(processorIdx, x -> new CopyOnWriteArrayList<>()).add(p);
 
             processorIdx = (processorIdx + 1) % processors;
         }
 
-        processorAssignment.values().forEach(producers -> submitProducersToExecutor(producers,
-                KeyDistributor.build(producerWorkAssignment.keyDistributorType), producerWorkAssignment.payloadData));
+        Timer timer = new Timer();
+        PayloadSpec payloadSpec = producerWorkAssignment.payloadSpec;
+        List<byte[]> payloads;
+        MappedPayloadRecords payloadRecords = null;
+        if (payloadSpec.payloadFileFormat != PayloadFileFormat.WHOLE_FILE) {
+            payloadRecords = new MappedPayloadRecords(payloadSpec);
+            // The records are sent from the mapped files, this copy of some of them is only measured
+            payloads = payloadRecords.sample(PAYLOAD_RECORDS_SAMPLE);
+            log.info("Mapped and indexed {} payload records in {} ms", payloadRecords.size(), timer.elapsedMillis());
+        } else {
+            payloads = new PayloadGenerator(payloadSpec).generate();
+            log.info("Generated {} payloads in {} ms", payloads.size(), timer.elapsedMillis());
+        }
+        measurePayloadCompression(payloads, payloadSpec.seed);
+        UniquePayloadBuffer uniquePayloads = null;
+        if (payloadSpec.uniquePayloadBufferMB > 0) {
+            // Seeded with the key seed as well, which both the ensemble and the swarm offset for each worker, to keep
+            // payloads unique across workers
+            timer = new Timer();
+            uniquePayloads = new UniquePayloadBuffer(payloadSpec, payloadSpec.seed + producerWorkAssignment.keySeed);
+            log.info("Generated {} MB of unique payloads in {} ms", uniquePayloads.capacity() / 1024 / 1024,
+                    timer.elapsedMillis());
+        }
+
+        long startNs = startRateProfile(producerWorkAssignment);
+        publishRate = producerWorkAssignment.publishRate;
+        rateLimiter = newRateLimiter(producerWorkAssignment.publishRate, startNs);
+
+        KeySpace keySpace = producerWorkAssignment.keySpace != null ? producerWorkAssignment.keySpace
+                : new KeySpace();
+        if (producerWorkAssignment.keyDistributorType != KeyDistributorType.NO_KEY
+                && producerWorkAssignment.partitionsPerTopic > 0) {
+            keyPartitions = keySpace.getPartitions(producerWorkAssignment.partitionsPerTopic);
+            LongAdder[] sentPerPartition = new LongAdder[producerWorkAssignment.partitionsPerTopic];
+            Arrays.setAll(sentPerPartition, i -> new LongAdder());
+            totalMessagesSentPerPartition = sentPerPartition;
+        }
+
+        boolean churn = producerWorkAssignment.producerChurnFraction > 0;
+        SplittableRandom keyRandom = new SplittableRandom(producerWorkAssignment.keySeed);
+        SplittableRandom payloadRandom = new SplittableRandom(payloadSpec.seed + producerWorkAssignment.keySeed);
+        int maxPayloadSize = payloads.stream().mapToInt(p -> p.length).max().getAsInt();
+        int thread = 0;
+        for (List<BenchmarkProducer> threadProducers : processorAssignment.values()) {
+            PayloadCursor payloadCursor = null;
+            if (uniquePayloads != null) {
+                payloadCursor = uniquePayloads.cursor(thread, processorAssignment.size(), maxPayloadSize);
+            } else if (payloadRecords != null) {
+                payloadCursor = payloadRecords.cursor(payloadRandom.split());
+            }
+            submitProducersToExecutor(threadProducers,
+                    KeyDistributor.build(producerWorkAssignment.keyDistributorType, keySpace, keyRandom.split()),
+                    payloads, payloadCursor, churn, null);
+            thread++;
+        }
+
+        if (churn) {
+            startProducerChurn(new ArrayList<>(processorAssignment.values()), producerWorkAssignment);
+        }
+    }
+
+    private void measurePayloadCompression(List<byte[]> payloads, long seed) {
+        executor.submit(() -> {
+            Map<String, CompressionStats> compression = CompressionProbe.measure(payloads, seed);
+            compression.forEach((codec, stats) -> log.info("Payloads compress {}x with {}, for {} ms of CPU per MB",
+                    String.format("%.2f", (double) stats.uncompressedBytes / stats.compressedBytes), codec,
+                    String.format("%.2f", stats.cpuNanos / 1e6 / (stats.uncompressedBytes / 1024.0 / 1024.0))));
+            payloadCompression = compression;
+        });
+    }
+
+    /**
+     * Load each topic group with the producers of its topics, at its own rate and with its own payloads and keys.
+     * The producers of a group are spread over the processors like the ones of a plain workload.
+     */
+    private void startTopicGroupsLoad(ProducerWorkAssignment assignment) {
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        Map<String, TopicGroupLoad> groupOfTopic = new HashMap<>();
+        assignment.topicGroups.forEach(load -> load.topics.forEach(topic -> groupOfTopic.put(topic, load)));
+        Map<String, List<BenchmarkProducer>> groupProducers = new LinkedHashMap<>();
+        for (int i = 0; i < producers.size(); i++) {
+            TopicGroupLoad load = groupOfTopic.get(producerTopics.get(i));
+            if (load != null) {
+                groupProducers.computeIfAbsent(load.name, k -> new ArrayList<>()).add(producers.get(i));
+            }
+        }
+
+        long startNs = startRateProfile(assignment);
+        publishRate = assignment.publishRate;
+        rateLimiter = newRateLimiter(assignment.publishRate, startNs);
+
+        SplittableRandom keyRandom = new SplittableRandom(assignment.keySeed);
+        for (TopicGroupLoad load : assignment.topicGroups) {
+            List<BenchmarkProducer> loadProducers = groupProducers.getOrDefault(load.name, Collections.emptyList());
+            if (loadProducers.isEmpty()) {
+                continue;
+            }
+
+            TopicGroupState group = topicGroup(load.name);
+            group.rateShare = assignment.publishRate > 0 ? load.publishRate / assignment.publishRate : 0;
+            group.rateLimiter = newRateLimiter(load.publishRate, startNs);
+
+            Timer timer = new Timer();
+            List<byte[]> payloads = new PayloadGenerator(load.payloadSpec).generate();
+            KeySpace keySpace = load.keySpace != null ? load.keySpace : new KeySpace();
+
+            int threads = Math.min(processors, loadProducers.size());
+            for (int t = 0; t < threads; t++) {
+                List<BenchmarkProducer> threadProducers = new CopyOnWriteArrayList<>();
+                for (int i = t; i < loadProducers.size(); i += threads) {
+                    threadProducers.add(loadProducers.get(i));
+                }
+                submitProducersToExecutor(threadProducers,
+                        KeyDistributor.build(load.keyDistributorType, keySpace, keyRandom.split()), payloads, null,
+                        false, group);
+            }
+            log.info("Topic group {}: {} producers at {} msg/s, {} payloads generated in {} ms", load.name,
+                    loadProducers.size(), load.publishRate, payloads.size(), timer.elapsedMillis());
+        }
+    }
+
+    /**
+     * Replay the share of the trace that falls on the producers of this worker. The records of each topic are split
+     * between its producers by key, or by position for the records without key, so that the messages of a key keep
+     * their order. Each message is sent at the time given by the trace, and its publish delay is accounted from that
+     * time as with the paced load.
+     */
+    private void startTraceReplay(ProducerWorkAssignment assignment) {
+        Map<String, List<BenchmarkProducer>> producersPerTopic = new HashMap<>();
+        for (int i = 0; i < producers.size(); i++) {
+            producersPerTopic.computeIfAbsent(producerTopics.get(i), k -> new ArrayList<>()).add(producers.get(i));
+        }
+
+        int topicCount = assignment.traceTopics.size();
+        BenchmarkProducer[][] topicProducers = new BenchmarkProducer[topicCount][];
+        int[] firstSlot = new int[topicCount];
+        int[] totalSlots = new int[topicCount];
+        for (int t = 0; t < topicCount; t++) {
+            String topic = assignment.traceTopics.get(t);
+            topicProducers[t] = producersPerTopic.getOrDefault(topic, Collections.emptyList())
+                    .toArray(new BenchmarkProducer[0]);
+            int[] slots = assignment.traceSlots != null ? assignment.traceSlots.get(topic) : null;
+            firstSlot[t] = slots != null ? slots[0] : 0;
+            totalSlots[t] = slots != null ? slots[1] : topicProducers[t].length;
+        }
+
+        long startNs = startRateProfile(assignment);
+        double timeCompression = assignment.traceTimeCompression;
+        TracePayloads payloads = new TracePayloads(assignment.payloadSpec);
+        log.info("Replaying trace {} on {} producers, {} times faster than captured", assignment.traceFile,
+                producers.size(), timeCompression);
+
+        executor.submit(() -> {
+            TraceRecord record = new TraceRecord();
+            // Message keys of the recent records by hash, so that the records of a key share one instance
+            MessageKey[] keys = new MessageKey[TRACE_KEY_CACHE_SIZE];
+            long replayed = 0;
+            try (TraceReader reader = new TraceReader(new File(assignment.traceFile), topicCount)) {
+                while (!testCompleted && reader.next(record)) {
+                    int total = totalSlots[record.topic];
+                    if (total == 0) {
+                        continue;
+                    }
+                    int hash = record.key != null ? record.key.hashCode() : Long.hashCode(record.index);
+                    int slot = Math.floorMod(hash, total) - firstSlot[record.topic];
+                    BenchmarkProducer[] candidates = topicProducers[record.topic];
+                    if (slot < 0 || slot >= candidates.length) {
+                        continue;
+                    }
+
+                    final long intendedSendTime = startNs + (long) (record.offsetMicros * 1000 / timeCompression);
+                    // A trace may be idle for long, wake up regularly to stop with the test
+                    while (!testCompleted && intendedSendTime - System.nanoTime() > 0) {
+                        uninterruptibleSleepNs(Math.min(intendedSendTime, System.nanoTime() + TRACE_MAX_SLEEP_NS));
+                    }
+                    if (testCompleted) {
+                        break;
+                    }
+                    final long sendTime = System.nanoTime();
+                    byte[] payload = payloads.get(record.size);
+                    MessageKey key = null;
+                    if (record.key != null) {
+                        int cacheSlot = hash & (TRACE_KEY_CACHE_SIZE - 1);
+                        key = keys[cacheSlot];
+                        if (key == null || !key.asString().equals(record.key)) {
+                            key = MessageKey.of(record.key);
+                            keys[cacheSlot] = key;
+                        }
+                    }
+                    CompletableFuture<Void> f = candidates[slot].sendAsync(key, payload);
+                    recordScheduleLatency(sendTime);
+                    f.thenRun(() -> recordSent(payload.length, intendedSendTime, sendTime)).exceptionally(ex -> {
+                        recordSendError(ex);
+                        return null;
+                    });
+                    replayed++;
+                }
+                log.info("Replayed {} messages of trace {}", replayed, assignment.traceFile);
+            } catch (Throwable t) {
+                log.error("Failed to replay trace {} after {} messages", assignment.traceFile, replayed, t);
+            }
+        });
+    }
+
+    /**
+     * Set the rate profile of the assignment and return the instant at which the load starts.
+     */
+    private long startRateProfile(ProducerWorkAssignment assignment) {
+        long startNs = System.nanoTime();
+        if (assignment.startAtMillis > 0) {
+            // Start at the instant agreed with the other workers rather than when this request got here
+            long delayMillis = assignment.startAtMillis - System.currentTimeMillis();
+            if (delayMillis < 0) {
+                log.warn("Starting load {} ms after the requested start time", -delayMillis);
+            }
+            startNs += TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        }
+        rateProfile = assignment.rateProfile;
+        rateProfileStartNs = startNs;
+        if (rateProfile != null) {
+            log.info("Publishing with rate profile {}", rateProfile);
+        }
+        return startNs;
+    }
+
+    /**
+     * Continuously close and recreate a fraction of the producers while the load goes on. Each churned producer is
+     * replaced after its lifetime, with the replacements staggered so that the churn is spread evenly over time.
+     */
+    private void startProducerChurn(List<List<BenchmarkProducer>> producersPerThread,
+            ProducerWorkAssignment assignment) {
+        int churned = (int) Math.round(producers.size() * Math.min(1.0, assignment.producerChurnFraction));
+        if (churned == 0) {
+            return;
+        }
+        long lifetimeMicros = (long) (assignment.producerChurnLifetimeSeconds * 1_000_000);
+        log.info("Churning {} of {} producers, each living {} s", churned, producers.size(),
+                assignment.producerChurnLifetimeSeconds);
+
+        Map<BenchmarkProducer, String> topics = new IdentityHashMap<>();
+        for (int i = 0; i < producers.size(); i++) {
+            topics.put(producers.get(i), producerTopics.get(i));
+        }
+
+        churnExecutor = Executors.newScheduledThreadPool(driverConfiguration.clientCreationConcurrency,
+                new DefaultThreadFactory("producer-churn"));
+        // Take the producers round-robin across the threads, so that no thread only sends with new producers
+        int n = 0;
+        for (int i = 0; n < churned; i++) {
+            for (List<BenchmarkProducer> threadProducers : producersPerThread) {
+                if (i < threadProducers.size() && n < churned) {
+                    int index = i;
+                    String topic = topics.get(threadProducers.get(index));
+                    long graceMicros = closeGraceMicros(threadProducers.size(), producersPerThread.size());
+                    churnExecutor.scheduleWithFixedDelay(
+                            () -> churnProducer(threadProducers, index, topic, graceMicros),
+                            lifetimeMicros * (n + 1) / churned, lifetimeMicros, TimeUnit.MICROSECONDS);
+                    n++;
+                }
+            }
+        }
+    }
+
+    /**
+     * How long a replaced producer is kept open: twice the time a sending thread takes to go once through its
+     * producers at the current rate, so that a pass that started before the swap is done with it.
+     */
+    private long closeGraceMicros(int producersInThread, int threads) {
+        double threadRate = Math.max(1.0, publishRate) / threads;
+        long passMicros = (long) (producersInThread / threadRate * 1_000_000);
+        return Math.max(TimeUnit.SECONDS.toMicros(1), 2 * passMicros);
+    }
+
+    private void churnProducer(List<BenchmarkProducer> threadProducers, int index, String topic, long graceMicros) {
+        try {
+            long start = System.nanoTime();
+            BenchmarkProducer fresh = new ChurnedProducer(benchmarkDriver.createProducer(topic).join(),
+                    producerFirstSendLatencyRecorder);
+            producerCreationLatencyRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+
+            BenchmarkProducer old = threadProducers.set(index, fresh);
+            synchronized (producers) {
+                producers.set(producers.indexOf(old), fresh);
+                retiredProducers.add(old);
+            }
+            // A sending thread may still be iterating over a snapshot of its list that holds the old producer
+            churnExecutor.schedule(() -> closeRetiredProducer(old), graceMicros, TimeUnit.MICROSECONDS);
+        } catch (Exception e) {
+            log.warn("Failed to churn producer on topic {}", topic, e);
+        }
+    }
+
+    private void closeRetiredProducer(BenchmarkProducer producer) {
+        synchronized (producers) {
+            if (!retiredProducers.remove(producer)) {
+                return;
+            }
+        }
+        try {
+            producer.close();
+        } catch (Exception e) {
+            log.warn("Failed to close churned producer", e);
+        }
     }
 
     @Override
@@ -239,44 +837,60 @@ public class LocalWorker implements Worker, ConsumerCallback {
         log.debug("probed {} producers", cnt);
     }
 
-    private void submitProducersToExecutor(List<BenchmarkProducer> producers, KeyDistributor keyDistributor, List<byte[]> payloads) {
+    private void submitProducersToExecutor(List<BenchmarkProducer> producers, KeyDistributor keyDistributor,
+            List<byte[]> payloads, PayloadCursor payloadCursor, boolean churn, TopicGroupState group) {
         executor.submit(() -> {
             int payloadCount = payloads.size();
             ThreadLocalRandom r = ThreadLocalRandom.current();
             byte[] firstPayload = payloads.get(0);
+            LongAdder[] sentPerPartition = totalMessagesSentPerPartition;
+            int[] partitions = keyPartitions;
 
             try {
                 while (!testCompleted) {
+                    if (producersArePaused) {
+                        uninterruptibleSleepNs(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10));
+                        continue;
+                    }
                     producers.forEach(producer -> {
                         byte[] payloadData = payloadCount == 0 ? firstPayload : payloads.get(r.nextInt(payloadCount));
-                        final long intendedSendTime = rateLimiter.acquire();
+                        final long intendedSendTime = (group != null ? group.rateLimiter : rateLimiter).acquire();
                         uninterruptibleSleepNs(intendedSendTime);
                         final long sendTime = System.nanoTime();
-                        CompletableFuture<Void> f = producer.sendAsync(Optional.ofNullable(keyDistributor.next()), payloadData);
-                        long scheduleMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sendTime);
-                        scheduleLatencyRecorder.recordValue(scheduleMicros);
-                        cumulativeScheduleLatencyRecorder.recordValue(scheduleMicros);
-                        scheduleLatencyStats.registerSuccessfulEvent(scheduleMicros, TimeUnit.MICROSECONDS);
+                        int keyIndex = keyDistributor.nextIndex();
+                        MessageKey key = keyIndex < 0 ? null : keyDistributor.get(keyIndex);
+                        // Unique payloads take the size of the payload drawn from the pool, records their own
+                        ByteBuffer payloadSlice = payloadCursor == null ? null : payloadCursor.next(payloadData.length);
+                        int payloadSize = payloadSlice == null ? payloadData.length : payloadSlice.remaining();
+                        CompletableFuture<Void> f;
+                        try {
+                            f = payloadSlice == null ? producer.sendAsync(key, payloadData)
+                                    : producer.sendAsync(key, payloadSlice);
+                        } catch (Exception e) {
+                            // A send that fails synchronously must not end the loop of the other producers
+                            recordSendError(e);
+                            if (group != null) {
+                                group.sendFailed();
+                            }
+                            return;
+                        }
+                        recordScheduleLatency(sendTime);
                         f.thenRun(() -> {
-                            messagesSent.increment();
-                            totalMessagesSent.increment();
-                            messagesSentCounter.inc();
-                            bytesSent.add(payloadData.length);
-                            bytesSentCounter.add(payloadData.length);
-
-                            long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sendTime);
-                            publishLatencyRecorder.recordValue(latencyMicros);
-                            cumulativePublishLatencyRecorder.recordValue(latencyMicros);
-                            publishLatencyStats.registerSuccessfulEvent(latencyMicros, TimeUnit.MICROSECONDS);
-
-                            final long sendDelayMicros = TimeUnit.NANOSECONDS.toMicros(sendTime - intendedSendTime);
-                            publishDelayLatencyRecorder.recordValue(sendDelayMicros);
-                            cumulativePublishDelayLatencyRecorder.recordValue(sendDelayMicros);
-                            publishDelayLatencyStats.registerSuccessfulEvent(sendDelayMicros, TimeUnit.MICROSECONDS);
+                            if (sentPerPartition != null && keyIndex >= 0) {
+                                sentPerPartition[partitions[keyIndex]].increment();
+                            }
+                            long latencyMicros = recordSent(payloadSize, intendedSendTime, sendTime);
+                            if (group != null) {
+                                group.messageSent(latencyMicros);
+                            }
+                            if (churn && !(producer instanceof ChurnedProducer)) {
+                                steadyPublishLatencyRecorder.recordValue(latencyMicros);
+                            }
                         }).exceptionally(ex -> {
-                            errors.increment();
-                            totalErrors.increment();
-                            log.warn("Write error on message", ex);
+                            recordSendError(ex);
+                            if (group != null) {
+                                group.sendFailed();
+                            }
                             return null;
                         });
                     });
@@ -287,13 +901,66 @@ public class LocalWorker implements Worker, ConsumerCallback {
         });
     }
 
+    private void recordScheduleLatency(long sendTime) {
+        long scheduleMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sendTime);
+        scheduleLatencyRecorder.recordValue(scheduleMicros);
+        cumulativeScheduleLatencyRecorder.recordValue(scheduleMicros);
+        scheduleLatencyStats.registerSuccessfulEvent(scheduleMicros, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Record an acknowledged message, with its publish delay from the time it was intended to be sent.
+     *
+     * @return the publish latency in microseconds
+     */
+    private long recordSent(int size, long intendedSendTime, long sendTime) {
+        messagesSent.increment();
+        totalMessagesSent.increment();
+        messagesSentCounter.inc();
+        bytesSent.add(size);
+        totalBytesSent.add(size);
+        bytesSentCounter.add(size);
+
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sendTime);
+        publishLatencyRecorder.recordValue(latencyMicros);
+        cumulativePublishLatencyRecorder.recordValue(latencyMicros);
+        publishLatencyStats.registerSuccessfulEvent(latencyMicros, TimeUnit.MICROSECONDS);
+
+        final long sendDelayMicros = TimeUnit.NANOSECONDS.toMicros(sendTime - intendedSendTime);
+        publishDelayLatencyRecorder.recordValue(sendDelayMicros);
+        cumulativePublishDelayLatencyRecorder.recordValue(sendDelayMicros);
+        publishDelayLatencyStats.registerSuccessfulEvent(sendDelayMicros, TimeUnit.MICROSECONDS);
+        return latencyMicros;
+    }
+
+    private void recordSendError(Throwable ex) {
+        errors.increment();
+        totalErrors.increment();
+        log.warn("Write error on message", ex);
+    }
+
     @Override
     public void adjustPublishRate(double publishRate) {
+        this.publishRate = publishRate;
+        long now = System.nanoTime();
+        topicGroups.values().stream().filter(group -> group.rateLimiter != null).forEach(group -> {
+            double groupRate = publishRate * group.rateShare;
+            group.rateLimiter = groupRate < 1.0 ? new UniformRateLimiter(1.0) : newRateLimiter(groupRate, now);
+        });
+
         if(publishRate < 1.0) {
             rateLimiter = new UniformRateLimiter(1.0);
             return;
         }
-        rateLimiter = new UniformRateLimiter(publishRate);
+        rateLimiter = newRateLimiter(publishRate, now);
+    }
+
+    private OperationRateLimiter newRateLimiter(double publishRate, long startNs) {
+        RateProfile profile = rateProfile;
+        if (profile == null || profile.isUniform()) {
+            return new UniformRateLimiter(publishRate, startNs);
+        }
+        return new ProfiledRateLimiter(profile, publishRate, startNs, rateProfileStartNs);
     }
 
     @Override
@@ -316,6 +983,7 @@ public class LocalWorker implements Worker, ConsumerCallback {
         stats.scheduleLatency = scheduleLatencyRecorder.getIntervalHistogram();
         stats.publishDelayLatency = publishDelayLatencyRecorder.getIntervalHistogram();
         stats.endToEndLatency = endToEndLatencyRecorder.getIntervalHistogram();
+        topicGroups.forEach((name, group) -> stats.topicGroups.put(name, group.getPeriodStats()));
         return stats;
     }
 
@@ -326,14 +994,42 @@ public class LocalWorker implements Worker, ConsumerCallback {
         latencies.scheduleLatency = cumulativeScheduleLatencyRecorder.getIntervalHistogram();
         latencies.publishDelayLatency = cumulativePublishDelayLatencyRecorder.getIntervalHistogram();
         latencies.endToEndLatency = endToEndCumulativeLatencyRecorder.getIntervalHistogram();
+        latencies.producerCreationLatency = retained(producerCreationLatencyRecorder, producerCreationLatency);
+        latencies.consumerCreationLatency = retained(consumerCreationLatencyRecorder, consumerCreationLatency);
+        latencies.producerFirstSendLatency = producerFirstSendLatencyRecorder.getIntervalHistogram();
+        latencies.steadyPublishLatency = steadyPublishLatencyRecorder.getIntervalHistogram();
         return latencies;
     }
 
+    /**
+     * Move what the recorder got since the last call into the retained histogram, and return a copy of it.
+     */
+    private static Histogram retained(Recorder recorder, Histogram retained) {
+        synchronized (retained) {
+            retained.add(recorder.getIntervalHistogram());
+            return retained.copy();
+        }
+    }
+
     @Override
     public CountersStats getCountersStats() throws IOException {
         CountersStats stats = new CountersStats();
         stats.messagesSent = totalMessagesSent.sum();
         stats.messagesReceived = totalMessagesReceived.sum();
+        stats.bytesSent = totalBytesSent.sum();
+        stats.bytesReceived = totalBytesReceived.sum();
+        LongAdder[] sentPerPartition = totalMessagesSentPerPartition;
+        if (sentPerPartition != null) {
+            stats.messagesSentPerPartition = Arrays.stream(sentPerPartition).mapToLong(LongAdder::sum).toArray();
+        }
+        Map<String, CompressionStats> compression = payloadCompression;
+        if (compression != null) {
+            stats.compression = compression;
+        }
+        synchronized (consumers) {
+            stats.consumersWaitingForFirstMessage = waitingForFirstMessage.values().stream()
+                    .filter(AtomicBoolean::get).count();
+        }
         return stats;
     }
 
@@ -357,15 +1053,10 @@ public class LocalWorker implements Worker, ConsumerCallback {
         totalMessagesReceived.increment();
         messagesReceivedCounter.inc();
         bytesReceived.add(size);
+        totalBytesReceived.add(size);
         bytesReceivedCounter.add(size);
 
-        // NOTE: PublishTimestamp is expected to be using the wall-clock time across
-        // machines in milliseocnds
-        Instant currentTime = Instant.now();
-
-        long currentTimeNanos = TimeUnit.SECONDS.toNanos(currentTime.getEpochSecond()) + currentTime.getNano();
-        long publishTimeNanos = TimeUnit.MILLISECONDS.toNanos(publishTimestampMillis);
-        long endToEndLatencyMicros = TimeUnit.NANOSECONDS.toMicros(currentTimeNanos - publishTimeNanos);
+        long endToEndLatencyMicros = endToEndLatencyMicros(publishTimestampMillis);
         if (endToEndLatencyMicros > 0) {
             endToEndCumulativeLatencyRecorder.recordValue(endToEndLatencyMicros);
             endToEndLatencyRecorder.recordValue(endToEndLatencyMicros);
@@ -381,6 +1072,16 @@ public class LocalWorker implements Worker, ConsumerCallback {
         }
     }
 
+    private static long endToEndLatencyMicros(long publishTimestampMillis) {
+        // NOTE: PublishTimestamp is expected to be using the wall-clock time across
+        // machines in milliseocnds
+        Instant currentTime = Instant.now();
+
+        long currentTimeNanos = TimeUnit.SECONDS.toNanos(currentTime.getEpochSecond()) + currentTime.getNano();
+        long publishTimeNanos = TimeUnit.MILLISECONDS.toNanos(publishTimestampMillis);
+        return TimeUnit.NANOSECONDS.toMicros(currentTimeNanos - publishTimeNanos);
+    }
+
     @Override
     public void messageReceived(int payloadSize, long e2eLatencyNs) {
         if (e2eLatencyNs < 0) {
@@ -392,6 +1093,7 @@ public class LocalWorker implements Worker, ConsumerCallback {
         totalMessagesReceived.increment();
         messagesReceivedCounter.inc();
         bytesReceived.add(payloadSize);
+        totalBytesReceived.add(payloadSize);
         bytesReceivedCounter.add(payloadSize);
 
 
@@ -422,6 +1124,20 @@ public class LocalWorker implements Worker, ConsumerCallback {
         log.info("Resuming consumers");
     }
 
+    @Override
+    public void pauseProducers() throws IOException {
+        producersArePaused = true;
+        log.info("Pausing producers");
+    }
+
+    @Override
+    public void resumeProducers() throws IOException {
+        // A new schedule, rather than a burst of the messages that were not sent while paused
+        adjustPublishRate(publishRate);
+        producersArePaused = false;
+        log.info("Resuming producers");
+    }
+
     @Override
     public void resetStats() throws IOException {
         publishLatencyRecorder.reset();
@@ -432,12 +1148,16 @@ public class LocalWorker implements Worker, ConsumerCallback {
         cumulativePublishDelayLatencyRecorder.reset();
         endToEndLatencyRecorder.reset();
         endToEndCumulativeLatencyRecorder.reset();
+        producerFirstSendLatencyRecorder.reset();
+        steadyPublishLatencyRecorder.reset();
+        topicGroups.values().forEach(TopicGroupState::resetStats);
     }
 
     @Override
     public void stopAll() throws IOException {
         testCompleted = true;
         consumersArePaused = false;
+        producersArePaused = false;
 
         publishLatencyRecorder.reset();
         scheduleLatencyRecorder.reset();
@@ -447,6 +1167,21 @@ public class LocalWorker implements Worker, ConsumerCallback {
         cumulativePublishDelayLatencyRecorder.reset();
         endToEndLatencyRecorder.reset();
         endToEndCumulativeLatencyRecorder.reset();
+        producerCreationLatencyRecorder.reset();
+        consumerCreationLatencyRecorder.reset();
+        synchronized (producerCreationLatency) {
+            producerCreationLatency.reset();
+        }
+        synchronized (consumerCreationLatency) {
+            consumerCreationLatency.reset();
+        }
+        producerFirstSendLatencyRecorder.reset();
+        steadyPublishLatencyRecorder.reset();
+
+        if (churnExecutor != null) {
+            churnExecutor.shutdownNow();
+            churnExecutor = null;
+        }
 
         messagesSent.reset();
         bytesSent.reset();
@@ -454,19 +1189,36 @@ public class LocalWorker implements Worker, ConsumerCallback {
         bytesReceived.reset();
         totalMessagesSent.reset();
         totalMessagesReceived.reset();
+        totalBytesSent.reset();
+        totalBytesReceived.reset();
+        totalMessagesSentPerPartition = null;
+        keyPartitions = null;
+        payloadCompression = null;
+        topicGroups.clear();
 
         try {
             Thread.sleep(100);
 
-            for (BenchmarkProducer producer : producers) {
-                producer.close();
+            synchronized (producers) {
+                for (BenchmarkProducer producer : producers) {
+                    producer.close();
+                }
+                for (BenchmarkProducer producer : retiredProducers) {
+                    producer.close();
+                }
+                producers.clear();
+                producerTopics.clear();
+                retiredProducers.clear();
             }
-            producers.clear();
 
-            for (BenchmarkConsumer consumer : consumers) {
-                consumer.close();
+            synchronized (consumers) {
+                for (BenchmarkConsumer consumer : consumers) {
+                    consumer.close();
+                }
+                consumers.clear();
+                consumerSubscriptions.clear();
+                waitingForFirstMessage.clear();
             }
-            consumers.clear();
 
             if (benchmarkDriver != null) {
                 benchmarkDriver.close();
@@ -482,6 +1234,11 @@ public class LocalWorker implements Worker, ConsumerCallback {
         executor.shutdown();
     }
 
+    private static final int PAYLOAD_RECORDS_SAMPLE = 4096;
+
+    private static final int TRACE_KEY_CACHE_SIZE = 4096;
+    private static final long TRACE_MAX_SLEEP_NS = TimeUnit.MILLISECONDS.toNanos(100);
+
     private static final ObjectWriter writer = new ObjectMapper().writerWithDefaultPrettyPrinter();
 
     private static final ObjectMapper mapper = new ObjectMapper(new YAMLFactory())
@@ -0,0 +1,30 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+/**
+ * How a distributed ensemble merges the stats of its workers on each sample.
+ */
+public enum StatsAggregationMode {
+    /**
+     * The coordinator fetches the stats of every worker and decodes and merges them on several threads
+     */
+    PARALLEL,
+
+    /**
+     * Workers are split in groups, the first worker of each group fetches and merges the stats of its peers, and
+     * the coordinator only merges the per-group results
+     */
+    TREE,
+}
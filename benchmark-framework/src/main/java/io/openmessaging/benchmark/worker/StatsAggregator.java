@@ -0,0 +1,185 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Lists;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.openmessaging.benchmark.worker.commands.CumulativeLatencies;
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+
+/**
+ * Merges the stats reported by several workers. The serialized histograms are decoded and merged in parallel,
+ * each thread folding a slice of the workers into a partial result, and the partial results are merged at the
+ * end.
+ */
+public class StatsAggregator implements AutoCloseable {
+
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    public StatsAggregator(int parallelism) {
+        this.parallelism = parallelism;
+        this.executor = Executors.newFixedThreadPool(parallelism, new DefaultThreadFactory("stats-aggregator"));
+    }
+
+    public PeriodStats mergePeriodStats(List<PeriodStats> individualStats) {
+        return merge(individualStats, PeriodStats::new, partial -> {
+            PeriodStats stats = new PeriodStats();
+            for (PeriodStats is : partial) {
+                addPeriodStats(stats, is, decodePeriodHistograms(is));
+            }
+            return stats;
+        }, partials -> {
+            PeriodStats stats = new PeriodStats();
+            for (PeriodStats partial : partials) {
+                addPeriodStats(stats, partial, partial);
+            }
+            return stats;
+        });
+    }
+
+    public CumulativeLatencies mergeCumulativeLatencies(List<CumulativeLatencies> individualStats) {
+        return merge(individualStats, CumulativeLatencies::new, partial -> {
+            CumulativeLatencies stats = new CumulativeLatencies();
+            for (CumulativeLatencies is : partial) {
+                addCumulativeLatencies(stats, decodeCumulativeHistograms(is));
+            }
+            return stats;
+        }, partials -> {
+            CumulativeLatencies stats = new CumulativeLatencies();
+            for (CumulativeLatencies partial : partials) {
+                addCumulativeLatencies(stats, partial);
+            }
+            return stats;
+        });
+    }
+
+    private <T> T merge(List<T> individualStats, Supplier<T> empty, Function<List<T>, T> mergeSlice,
+            Function<List<T>, T> mergePartials) {
+        if (individualStats.isEmpty()) {
+            return empty.get();
+        }
+
+        int sliceSize = (individualStats.size() + parallelism - 1) / parallelism;
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (List<T> slice : Lists.partition(individualStats, sliceSize)) {
+            futures.add(CompletableFuture.supplyAsync(() -> mergeSlice.apply(slice), executor));
+        }
+
+        List<T> partials = new ArrayList<>();
+        futures.forEach(f -> partials.add(f.join()));
+        return partials.size() == 1 ? partials.get(0) : mergePartials.apply(partials);
+    }
+
+    private static void addPeriodStats(PeriodStats stats, PeriodStats counters, PeriodStats histograms) {
+        stats.errors += counters.errors;
+        stats.pollErrors += counters.pollErrors;
+        stats.messagesSent += counters.messagesSent;
+        stats.bytesSent += counters.bytesSent;
+        stats.messagesReceived += counters.messagesReceived;
+        stats.bytesReceived += counters.bytesReceived;
+        stats.totalMessagesSent += counters.totalMessagesSent;
+        stats.totalMessagesReceived += counters.totalMessagesReceived;
+        stats.totalErrors += counters.totalErrors;
+        stats.missingWorkers.addAll(counters.missingWorkers);
+
+        stats.publishLatency.add(histograms.publishLatency);
+        stats.scheduleLatency.add(histograms.scheduleLatency);
+        stats.publishDelayLatency.add(histograms.publishDelayLatency);
+        stats.endToEndLatency.add(histograms.endToEndLatency);
+
+        counters.topicGroups.forEach((name, group) -> addPeriodStats(
+                stats.topicGroups.computeIfAbsent(name, k -> new PeriodStats()), group,
+                histograms.topicGroups.get(name)));
+    }
+
+    private static void addCumulativeLatencies(CumulativeLatencies stats, CumulativeLatencies other) {
+        stats.missingWorkers.addAll(other.missingWorkers);
+        stats.publishLatency.add(other.publishLatency);
+        stats.scheduleLatency.add(other.scheduleLatency);
+        stats.publishDelayLatency.add(other.publishDelayLatency);
+        stats.endToEndLatency.add(other.endToEndLatency);
+        stats.producerCreationLatency.add(other.producerCreationLatency);
+        stats.consumerCreationLatency.add(other.consumerCreationLatency);
+        stats.producerFirstSendLatency.add(other.producerFirstSendLatency);
+        stats.steadyPublishLatency.add(other.steadyPublishLatency);
+    }
+
+    private static PeriodStats decodePeriodHistograms(PeriodStats is) {
+        PeriodStats decoded = new PeriodStats();
+        decoded.publishLatency = decode("Publish Latency", is.publishLatencyBytes, TimeUnit.SECONDS.toMicros(30));
+        decoded.scheduleLatency = decode("Schedule Latency", is.scheduleLatencyBytes, TimeUnit.SECONDS.toMicros(30));
+        decoded.publishDelayLatency = decode("Publish Delay Latency", is.publishDelayLatencyBytes,
+                TimeUnit.SECONDS.toMicros(30));
+        decoded.endToEndLatency = decode("End to End Latency", is.endToEndLatencyBytes, TimeUnit.HOURS.toMicros(12));
+        is.topicGroups.forEach((name, group) -> decoded.topicGroups.put(name, decodePeriodHistograms(group)));
+        return decoded;
+    }
+
+    private static CumulativeLatencies decodeCumulativeHistograms(CumulativeLatencies is) {
+        CumulativeLatencies decoded = new CumulativeLatencies();
+        decoded.missingWorkers = is.missingWorkers;
+        decoded.publishLatency = decode("Publish Latency", is.publishLatencyBytes, TimeUnit.SECONDS.toMicros(30));
+        decoded.scheduleLatency = decode("Schedule Latency", is.scheduleLatencyBytes, TimeUnit.SECONDS.toMicros(30));
+        decoded.publishDelayLatency = decode("Publish Delay Latency", is.publishDelayLatencyBytes,
+                TimeUnit.SECONDS.toMicros(30));
+        decoded.endToEndLatency = decode("End to End Latency", is.endToEndLatencyBytes, TimeUnit.HOURS.toMicros(12));
+        decoded.producerCreationLatency = decode("Producer Creation Latency", is.producerCreationLatencyBytes,
+                TimeUnit.SECONDS.toMicros(30));
+        decoded.consumerCreationLatency = decode("Consumer Creation Latency", is.consumerCreationLatencyBytes,
+                TimeUnit.SECONDS.toMicros(30));
+        decoded.producerFirstSendLatency = decode("Producer First Send Latency", is.producerFirstSendLatencyBytes,
+                TimeUnit.SECONDS.toMicros(30));
+        decoded.steadyPublishLatency = decode("Steady Publish Latency", is.steadyPublishLatencyBytes,
+                TimeUnit.SECONDS.toMicros(30));
+        return decoded;
+    }
+
+    private static Histogram decode(String name, byte[] bytes, long minBarForHighestTrackableValue) {
+        if (bytes == null) {
+            // Not reported by this worker
+            return new Histogram(5);
+        }
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes), minBarForHighestTrackableValue);
+        } catch (Exception e) {
+            log.error("Failed to decode {}:\n{}", name, ByteBufUtil.prettyHexDump(Unpooled.wrappedBuffer(bytes)));
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(StatsAggregator.class);
+}
@@ -25,7 +25,10 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -115,6 +118,9 @@ public class SwarmWorker implements Worker {
     private final static int READ_TIMEOUT_MS = 300_000;
     private final List<String> workers;
 
+    // Topic of each producer, the same on every worker
+    private volatile List<String> producerTopics = Collections.emptyList();
+
     private final AsyncHttpClient httpClient;
 
     public SwarmWorker(List<String> workers) {
@@ -141,6 +147,7 @@ public class SwarmWorker implements Worker {
 
     @Override
     public void createProducers(List<String> topics) {
+        producerTopics = topics;
         List<CompletableFuture<Void>> futures = workers.stream().map(worker -> {
             try {
                 return sendPost(worker, "/create-producers",
@@ -158,8 +165,23 @@ public class SwarmWorker implements Worker {
     @Override
     public void startLoad(ProducerWorkAssignment producerWorkAssignment) throws IOException {
         // Reduce the publish rate across all the brokers
-        producerWorkAssignment.publishRate /= workers.size();
-        sendPost(workers, "/start-load", writer.writeValueAsBytes(producerWorkAssignment));
+        ProducerWorkAssignment assignment = producerWorkAssignment.withPublishRate(
+                producerWorkAssignment.publishRate / workers.size());
+        // Every worker has producers on all the topics, so each one replays its own slots of the trace
+        List<Map<String, int[]>> traceSlots = assignment.traceFile != null
+                ? TraceSlots.split(Collections.nCopies(workers.size(), producerTopics))
+                : null;
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < workers.size(); i++) {
+            // Each worker draws different keys, while the run stays reproducible
+            assignment.keySeed = producerWorkAssignment.keySeed + i;
+            assignment.payloadSpec = producerWorkAssignment.payloadSpec.withRecordRange(i, workers.size());
+            if (traceSlots != null) {
+                assignment.traceSlots = traceSlots.get(i);
+            }
+            futures.add(sendPost(workers.get(i), "/start-load", writer.writeValueAsBytes(assignment)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
     }
 
     @Override
@@ -189,6 +211,26 @@ public class SwarmWorker implements Worker {
         sendPost(workers, "/resume-consumers", new byte[0]);
     }
 
+    @Override
+    public void pauseProducers() throws IOException {
+        sendPost(workers, "/pause-producers", new byte[0]);
+    }
+
+    @Override
+    public void resumeProducers() throws IOException {
+        sendPost(workers, "/resume-producers", new byte[0]);
+    }
+
+    @Override
+    public void addConsumers(ConsumerAssignment consumerAssignment) throws IOException {
+        sendPost(workers, "/add-consumers", writer.writeValueAsBytes(consumerAssignment));
+    }
+
+    @Override
+    public void removeConsumers(ConsumerAssignment consumerAssignment) throws IOException {
+        sendPost(workers, "/remove-consumers", writer.writeValueAsBytes(consumerAssignment));
+    }
+
     @Override
     public void createConsumers(ConsumerAssignment overallConsumerAssignment) {
         List<CompletableFuture<Void>> futures = workers.stream().map(worker -> {
@@ -209,36 +251,40 @@ public class SwarmWorker implements Worker {
     public PeriodStats getPeriodStats() {
         List<PeriodStats> individualStats = get(workers, "/period-stats", PeriodStats.class);
         PeriodStats stats = new PeriodStats();
-        individualStats.forEach(is -> {
-            stats.errors += is.errors;
-            stats.messagesSent += is.messagesSent;
-            stats.bytesSent += is.bytesSent;
-            stats.messagesReceived += is.messagesReceived;
-            stats.bytesReceived += is.bytesReceived;
-            stats.totalMessagesSent += is.totalMessagesSent;
-            stats.totalMessagesReceived += is.totalMessagesReceived;
-            stats.totalErrors += is.totalErrors;
-
-            try {
-                stats.publishLatency.add(Histogram.decodeFromCompressedByteBuffer(
-                        ByteBuffer.wrap(is.publishLatencyBytes), TimeUnit.SECONDS.toMicros(30)));
-
-                stats.scheduleLatency.add(Histogram.decodeFromCompressedByteBuffer(
-                    ByteBuffer.wrap(is.scheduleLatencyBytes), TimeUnit.SECONDS.toMicros(30)));
-
-                stats.publishDelayLatency.add(Histogram.decodeFromCompressedByteBuffer(
-                        ByteBuffer.wrap(is.publishDelayLatencyBytes), TimeUnit.SECONDS.toMicros(30)));
-
-                stats.endToEndLatency.add(Histogram.decodeFromCompressedByteBuffer(
-                        ByteBuffer.wrap(is.endToEndLatencyBytes), TimeUnit.HOURS.toMicros(12)));
-            } catch (ArrayIndexOutOfBoundsException | DataFormatException e) {
-                throw new RuntimeException(e);
-            }
-        });
-
+        individualStats.forEach(is -> addPeriodStats(stats, is));
         return stats;
     }
 
+    private static void addPeriodStats(PeriodStats stats, PeriodStats is) {
+        stats.errors += is.errors;
+        stats.messagesSent += is.messagesSent;
+        stats.bytesSent += is.bytesSent;
+        stats.messagesReceived += is.messagesReceived;
+        stats.bytesReceived += is.bytesReceived;
+        stats.totalMessagesSent += is.totalMessagesSent;
+        stats.totalMessagesReceived += is.totalMessagesReceived;
+        stats.totalErrors += is.totalErrors;
+
+        try {
+            stats.publishLatency.add(Histogram.decodeFromCompressedByteBuffer(
+                    ByteBuffer.wrap(is.publishLatencyBytes), TimeUnit.SECONDS.toMicros(30)));
+
+            stats.scheduleLatency.add(Histogram.decodeFromCompressedByteBuffer(
+                ByteBuffer.wrap(is.scheduleLatencyBytes), TimeUnit.SECONDS.toMicros(30)));
+
+            stats.publishDelayLatency.add(Histogram.decodeFromCompressedByteBuffer(
+                    ByteBuffer.wrap(is.publishDelayLatencyBytes), TimeUnit.SECONDS.toMicros(30)));
+
+            stats.endToEndLatency.add(Histogram.decodeFromCompressedByteBuffer(
+                    ByteBuffer.wrap(is.endToEndLatencyBytes), TimeUnit.HOURS.toMicros(12)));
+        } catch (ArrayIndexOutOfBoundsException | DataFormatException e) {
+            throw new RuntimeException(e);
+        }
+
+        is.topicGroups.forEach((name, group) -> addPeriodStats(
+                stats.topicGroups.computeIfAbsent(name, k -> new PeriodStats()), group));
+    }
+
     @Override
     public CumulativeLatencies getCumulativeLatencies() {
         List<CumulativeLatencies> individualStats = get(workers, "/cumulative-latencies", CumulativeLatencies.class);
@@ -278,6 +324,30 @@ public class SwarmWorker implements Worker {
                         ByteBufUtil.prettyHexDump(Unpooled.wrappedBuffer(is.endToEndLatencyBytes)));
                 throw new RuntimeException(e);
             }
+
+            try {
+                stats.producerCreationLatency.add(Histogram.decodeFromCompressedByteBuffer(
+                        ByteBuffer.wrap(is.producerCreationLatencyBytes), TimeUnit.SECONDS.toMicros(30)));
+                stats.consumerCreationLatency.add(Histogram.decodeFromCompressedByteBuffer(
+                        ByteBuffer.wrap(is.consumerCreationLatencyBytes), TimeUnit.SECONDS.toMicros(30)));
+            } catch (Exception e) {
+                log.error("Failed to decode client creation latency");
+                throw new RuntimeException(e);
+            }
+
+            try {
+                if (is.producerFirstSendLatencyBytes != null) {
+                    stats.producerFirstSendLatency.add(Histogram.decodeFromCompressedByteBuffer(
+                            ByteBuffer.wrap(is.producerFirstSendLatencyBytes), TimeUnit.SECONDS.toMicros(30)));
+                }
+                if (is.steadyPublishLatencyBytes != null) {
+                    stats.steadyPublishLatency.add(Histogram.decodeFromCompressedByteBuffer(
+                            ByteBuffer.wrap(is.steadyPublishLatencyBytes), TimeUnit.SECONDS.toMicros(30)));
+                }
+            } catch (Exception e) {
+                log.error("Failed to decode producer churn latency");
+                throw new RuntimeException(e);
+            }
         });
 
         return stats;
@@ -292,6 +362,11 @@ public class SwarmWorker implements Worker {
         individualStats.forEach(is -> {
             stats.messagesSent += is.messagesSent;
             stats.messagesReceived += is.messagesReceived;
+            stats.bytesSent += is.bytesSent;
+            stats.bytesReceived += is.bytesReceived;
+            stats.consumersWaitingForFirstMessage += is.consumersWaitingForFirstMessage;
+            stats.addMessagesSentPerPartition(is.messagesSentPerPartition);
+            stats.addCompression(is.compression);
         });
 
         return stats;
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Recorder;
+
+import io.openmessaging.benchmark.utils.OperationRateLimiter;
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+
+/**
+ * Rate limiter and stats of one topic group on this worker, kept apart from the other groups so that each can be
+ * reported on its own.
+ */
+class TopicGroupState {
+
+    volatile OperationRateLimiter rateLimiter;
+
+    // Share of the worker publish rate going to this group, so that rate adjustments keep the ratio between groups
+    volatile double rateShare;
+
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder messagesReceived = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder totalMessagesSent = new LongAdder();
+    private final LongAdder totalMessagesReceived = new LongAdder();
+
+    private final Recorder publishLatencyRecorder = new Recorder(5);
+    private final Recorder endToEndLatencyRecorder = new Recorder(5);
+
+    void messageSent(long publishLatencyMicros) {
+        messagesSent.increment();
+        totalMessagesSent.increment();
+        publishLatencyRecorder.recordValue(publishLatencyMicros);
+    }
+
+    void sendFailed() {
+        errors.increment();
+    }
+
+    void messageReceived(int payloadSize, long endToEndLatencyMicros) {
+        messagesReceived.increment();
+        bytesReceived.add(payloadSize);
+        totalMessagesReceived.increment();
+        if (endToEndLatencyMicros > 0) {
+            endToEndLatencyRecorder.recordValue(endToEndLatencyMicros);
+        }
+    }
+
+    PeriodStats getPeriodStats() {
+        PeriodStats stats = new PeriodStats();
+        stats.messagesSent = messagesSent.sumThenReset();
+        stats.errors = errors.sumThenReset();
+        stats.messagesReceived = messagesReceived.sumThenReset();
+        stats.bytesReceived = bytesReceived.sumThenReset();
+        stats.totalMessagesSent = totalMessagesSent.sum();
+        stats.totalMessagesReceived = totalMessagesReceived.sum();
+        stats.publishLatency = publishLatencyRecorder.getIntervalHistogram();
+        stats.endToEndLatency = endToEndLatencyRecorder.getIntervalHistogram();
+        return stats;
+    }
+
+    void resetStats() {
+        publishLatencyRecorder.reset();
+        endToEndLatencyRecorder.reset();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the records of each topic of a trace between the workers that have producers on it, one slot per producer,
+ * so that every record is replayed by exactly one worker.
+ */
+class TraceSlots {
+
+    private TraceSlots() {
+    }
+
+    /**
+     * @param topicsPerWorker topic of each producer of each worker, a topic appearing once per producer
+     * @return the {@code [first slot, total slots]} of each topic, for each worker in the same order
+     */
+    static List<Map<String, int[]>> split(List<List<String>> topicsPerWorker) {
+        Map<String, Integer> totalSlots = new HashMap<>();
+        List<Map<String, int[]>> slotsPerWorker = new ArrayList<>();
+        for (List<String> topics : topicsPerWorker) {
+            Map<String, int[]> slots = new HashMap<>();
+            for (String topic : topics) {
+                slots.computeIfAbsent(topic, t -> new int[] { totalSlots.getOrDefault(t, 0), 0 });
+                totalSlots.merge(topic, 1, Integer::sum);
+            }
+            slotsPerWorker.add(slots);
+        }
+        slotsPerWorker.forEach(slots -> slots.forEach((topic, slot) -> slot[1] = totalSlots.get(topic)));
+        return slotsPerWorker;
+    }
+}
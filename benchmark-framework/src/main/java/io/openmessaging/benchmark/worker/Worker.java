@@ -48,6 +48,17 @@ public interface Worker extends AutoCloseable {
 
     void createConsumers(ConsumerAssignment consumerAssignment) throws IOException;
 
+    /**
+     * Create more consumers while the load is running, eg: to measure a consumer group rebalance. Each new consumer
+     * is counted in {@link CountersStats#consumersWaitingForFirstMessage} until it receives its first message.
+     */
+    void addConsumers(ConsumerAssignment consumerAssignment) throws IOException;
+
+    /**
+     * Close one consumer for each topic subscription of the assignment while the load is running.
+     */
+    void removeConsumers(ConsumerAssignment consumerAssignment) throws IOException;
+
     void probeProducers() throws IOException;
 
     void startLoad(ProducerWorkAssignment producerWorkAssignment) throws IOException;
@@ -58,6 +69,13 @@ public interface Worker extends AutoCloseable {
 
     void resumeConsumers() throws IOException;
 
+    /**
+     * Stop sending messages until {@link #resumeProducers()}, eg: to read the topics with no concurrent writes.
+     */
+    void pauseProducers() throws IOException;
+
+    void resumeProducers() throws IOException;
+
     CountersStats getCountersStats() throws IOException;
 
     PeriodStats getPeriodStats() throws IOException;
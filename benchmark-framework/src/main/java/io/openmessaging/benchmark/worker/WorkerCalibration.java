@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * Short CPU bound run that estimates how much load a worker host can drive, so that the ensemble can give more
+ * work to bigger instances. The loop mimics the producer hot path: take a timestamp, touch a payload and record a
+ * latency, on every core of the host.
+ */
+public class WorkerCalibration {
+
+    private static final int PAYLOAD_SIZE = 1024;
+
+    /**
+     * @return the number of loop iterations per second achieved across all cores
+     */
+    public static double measure(long durationMillis) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new DefaultThreadFactory("calibration"));
+        try {
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                final int seed = i;
+                futures.add(executor.submit(() -> run(deadline, seed)));
+            }
+
+            long iterations = 0;
+            for (Future<Long> future : futures) {
+                iterations += future.get();
+            }
+
+            double score = iterations / ((System.nanoTime() - start) / 1e9);
+            log.info("Calibration: {} threads, {} iterations/s", threads, (long) score);
+            return score;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long run(long deadline, int seed) {
+        byte[] source = new byte[PAYLOAD_SIZE];
+        byte[] target = new byte[PAYLOAD_SIZE];
+        new Random(seed).nextBytes(source);
+        Histogram histogram = new Histogram(TimeUnit.SECONDS.toMicros(30), 5);
+
+        long iterations = 0;
+        long now = System.nanoTime();
+        while (now < deadline) {
+            System.arraycopy(source, 0, target, 0, PAYLOAD_SIZE);
+            source[(int) (iterations % PAYLOAD_SIZE)] ^= target[(int) Math.floorMod(now, (long) PAYLOAD_SIZE)];
+            long sendTime = now;
+            now = System.nanoTime();
+            histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(now - sendTime));
+            iterations++;
+        }
+        return iterations;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(WorkerCalibration.class);
+}
@@ -0,0 +1,34 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.worker;
+
+/**
+ * What a distributed ensemble should do when one of its workers stops responding.
+ */
+public enum WorkerFailurePolicy {
+    /**
+     * Fail the running workload, which is the historical behavior
+     */
+    ABORT,
+
+    /**
+     * Drop the worker, redistribute its publish rate and subscriptions to the remaining workers and keep going
+     */
+    CONTINUE,
+
+    /**
+     * Block until the worker responds to heartbeats again, then resume where it left off
+     */
+    WAIT,
+}
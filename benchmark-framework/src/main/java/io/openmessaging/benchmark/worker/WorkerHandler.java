@@ -14,12 +14,17 @@
 package io.openmessaging.benchmark.worker;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import org.HdrHistogram.Histogram;
 import org.apache.bookkeeper.stats.StatsLogger;
+import org.asynchttpclient.AsyncHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,12 +43,18 @@ import io.openmessaging.benchmark.worker.commands.PeriodStats;
 import io.openmessaging.benchmark.worker.commands.ProducerWorkAssignment;
 import io.openmessaging.benchmark.worker.commands.TopicsInfo;
 
+import static java.util.stream.Collectors.toList;
+import static org.asynchttpclient.Dsl.asyncHttpClient;
+
 @SuppressWarnings("unchecked")
 public class WorkerHandler {
 
     private final Worker localWorker;
     volatile long lastPeriodStatsTime = -1;
 
+    // Lets the coordinator notice when a worker process was restarted during a test
+    private final String instanceId = UUID.randomUUID().toString();
+
     public WorkerHandler(Javalin app, StatsLogger statsLogger) {
         this.localWorker = new LocalWorker(statsLogger);
 
@@ -52,15 +63,24 @@ public class WorkerHandler {
         app.post("/create-producers", this::handleCreateProducers);
         app.post("/probe-producers", this::handleProbeProducers);
         app.post("/create-consumers", this::handleCreateConsumers);
+        app.post("/add-consumers", this::handleAddConsumers);
+        app.post("/remove-consumers", this::handleRemoveConsumers);
         app.post("/pause-consumers", this::handlePauseConsumers);
         app.post("/resume-consumers", this::handleResumeConsumers);
+        app.post("/pause-producers", this::handlePauseProducers);
+        app.post("/resume-producers", this::handleResumeProducers);
         app.post("/start-load", this::handleStartLoad);
         app.post("/adjust-publish-rate", this::handleAdjustPublishRate);
         app.post("/stop-all", this::handleStopAll);
         app.get("/period-stats", this::handlePeriodStats);
         app.get("/cumulative-latencies", this::handleCumulativeLatencies);
+        app.post("/aggregate-period-stats", this::handleAggregatePeriodStats);
+        app.post("/aggregate-cumulative-latencies", this::handleAggregateCumulativeLatencies);
         app.get("/counters-stats", this::handleCountersStats);
         app.post("/reset-stats", this::handleResetStats);
+        app.get("/heartbeat", this::handleHeartbeat);
+        app.get("/calibrate", this::handleCalibrate);
+        app.get("/clock", this::handleClock);
 
         app.exception(RuntimeException.class, (e, ctx) -> {
             log.error("Request handler: {} - Exception: {}", ctx.path(), e.getMessage());
@@ -102,6 +122,20 @@ public class WorkerHandler {
         localWorker.createConsumers(consumerAssignment);
     }
 
+    private void handleAddConsumers(Context ctx) throws Exception {
+        ConsumerAssignment consumerAssignment = mapper.readValue(ctx.body(), ConsumerAssignment.class);
+
+        log.info("Received add consumers request for topics: {}", consumerAssignment.topicsSubscriptions);
+        localWorker.addConsumers(consumerAssignment);
+    }
+
+    private void handleRemoveConsumers(Context ctx) throws Exception {
+        ConsumerAssignment consumerAssignment = mapper.readValue(ctx.body(), ConsumerAssignment.class);
+
+        log.info("Received remove consumers request for topics: {}", consumerAssignment.topicsSubscriptions);
+        localWorker.removeConsumers(consumerAssignment);
+    }
+
     private void handlePauseConsumers(Context ctx) throws Exception {
         localWorker.pauseConsumers();
     }
@@ -110,11 +144,21 @@ public class WorkerHandler {
         localWorker.resumeConsumers();
     }
 
+    private void handlePauseProducers(Context ctx) throws Exception {
+        localWorker.pauseProducers();
+    }
+
+    private void handleResumeProducers(Context ctx) throws Exception {
+        localWorker.resumeProducers();
+    }
+
     private void handleStartLoad(Context ctx) throws Exception {
         ProducerWorkAssignment producerWorkAssignment = mapper.readValue(ctx.body(), ProducerWorkAssignment.class);
 
         log.info("Start load publish-rate: {} msg/s -- payload-size: {}", producerWorkAssignment.publishRate,
-                producerWorkAssignment.payloadData.get(0).length);
+                producerWorkAssignment.payloadSpec.messageSizeDistribution != null
+                        ? producerWorkAssignment.payloadSpec.messageSizeDistribution
+                        : producerWorkAssignment.payloadSpec.messageSize);
 
         localWorker.startLoad(producerWorkAssignment);
     }
@@ -122,14 +166,33 @@ public class WorkerHandler {
     private void handleAdjustPublishRate(Context ctx) throws Exception {
         Double publishRate = mapper.readValue(ctx.body(), Double.class);
         log.info("Adjust publish-rate: {} msg/s", publishRate);
+        awaitPhaseStart(ctx);
         localWorker.adjustPublishRate(publishRate);
     }
 
     private void handleStopAll(Context ctx) throws Exception {
         log.info("Stop All");
+        awaitPhaseStart(ctx);
         localWorker.stopAll();
     }
 
+    /**
+     * Phase changes sent by the ensemble carry the wall clock time, on this worker, at which they should be
+     * applied, so that all the workers switch at the same instant.
+     */
+    private void awaitPhaseStart(Context ctx) throws InterruptedException {
+        String at = ctx.queryParam("at");
+        if (at == null) {
+            return;
+        }
+        long delayMillis = Long.parseLong(at) - System.currentTimeMillis();
+        if (delayMillis > 0) {
+            Thread.sleep(delayMillis);
+        } else if (delayMillis < 0) {
+            log.warn("Applying {} {} ms after the requested time", ctx.path(), -delayMillis);
+        }
+    }
+
     /**
      * Serialize the given histogram to a byte array.
      */
@@ -164,6 +227,10 @@ public class WorkerHandler {
     }
 
     private void handlePeriodStats(Context ctx) throws Exception {
+        ctx.result(writer.writeValueAsString(collectPeriodStats()));
+    }
+
+    private PeriodStats collectPeriodStats() throws IOException {
         PeriodStats stats = localWorker.getPeriodStats();
 
         // We output the stats for the current worker to the log, in the same way as the driver, in order
@@ -175,44 +242,158 @@ public class WorkerHandler {
         }
         lastPeriodStatsTime = now;
 
-        // Serialize histograms
+        serializeHistograms(stats);
+        return stats;
+    }
+
+    private void serializeHistograms(PeriodStats stats) {
         synchronized (serializeLock) {
             stats.publishLatencyBytes      = serializeHistogram(stats.publishLatency);
             stats.scheduleLatencyBytes     = serializeHistogram(stats.scheduleLatency);
             stats.publishDelayLatencyBytes = serializeHistogram(stats.publishDelayLatency);
             stats.endToEndLatencyBytes     = serializeHistogram(stats.endToEndLatency);
         }
-
-        ctx.result(writer.writeValueAsString(stats));
+        stats.topicGroups.values().forEach(this::serializeHistograms);
     }
 
     private void handleCumulativeLatencies(Context ctx) throws Exception {
         CumulativeLatencies stats = localWorker.getCumulativeLatencies();
+        serializeHistograms(stats);
+        ctx.result(writer.writeValueAsString(stats));
+    }
 
-        // Serialize histograms
+    private void serializeHistograms(CumulativeLatencies stats) {
         synchronized (serializeLock) {
             stats.publishLatencyBytes      = serializeHistogram(stats.publishLatency);
             stats.scheduleLatencyBytes     = serializeHistogram(stats.scheduleLatency);
             stats.publishDelayLatencyBytes = serializeHistogram(stats.publishDelayLatency);
             stats.endToEndLatencyBytes     = serializeHistogram(stats.endToEndLatency);
+            stats.producerCreationLatencyBytes = serializeHistogram(stats.producerCreationLatency);
+            stats.consumerCreationLatencyBytes = serializeHistogram(stats.consumerCreationLatency);
+            stats.producerFirstSendLatencyBytes = serializeHistogram(stats.producerFirstSendLatency);
+            stats.steadyPublishLatencyBytes = serializeHistogram(stats.steadyPublishLatency);
         }
+    }
 
+    /**
+     * Merge the stats of this worker with the ones of the given peers, so that the coordinator of a large
+     * ensemble only has to merge one result per group of workers.
+     */
+    private void handleAggregatePeriodStats(Context ctx) throws Exception {
+        List<String> peers = (List<String>) mapper.readValue(ctx.body(), List.class);
+        List<CompletableFuture<PeriodStats>> futures = peers.stream()
+                .map(peer -> getFromPeer(peer, "/period-stats", PeriodStats.class)).collect(toList());
+
+        List<PeriodStats> individualStats = new ArrayList<>();
+        individualStats.add(collectPeriodStats());
+        List<String> failedPeers = joinPeers(peers, futures, individualStats, "/period-stats");
+
+        PeriodStats stats = getStatsAggregator().mergePeriodStats(individualStats);
+        stats.missingWorkers.addAll(failedPeers);
+        serializeHistograms(stats);
+        ctx.result(writer.writeValueAsString(stats));
+    }
+
+    private void handleAggregateCumulativeLatencies(Context ctx) throws Exception {
+        List<String> peers = (List<String>) mapper.readValue(ctx.body(), List.class);
+        List<CompletableFuture<CumulativeLatencies>> futures = peers.stream()
+                .map(peer -> getFromPeer(peer, "/cumulative-latencies", CumulativeLatencies.class))
+                .collect(toList());
+
+        CumulativeLatencies own = localWorker.getCumulativeLatencies();
+        serializeHistograms(own);
+        List<CumulativeLatencies> individualStats = new ArrayList<>();
+        individualStats.add(own);
+        List<String> failedPeers = joinPeers(peers, futures, individualStats, "/cumulative-latencies");
+
+        CumulativeLatencies stats = getStatsAggregator().mergeCumulativeLatencies(individualStats);
+        stats.missingWorkers.addAll(failedPeers);
+        serializeHistograms(stats);
         ctx.result(writer.writeValueAsString(stats));
     }
 
+    /**
+     * Wait for the stats of each peer. The stats of this worker and of the other peers are already drained, so a
+     * failed peer is only reported as missing rather than failing the whole group.
+     *
+     * @return the peers that failed
+     */
+    private static <T> List<String> joinPeers(List<String> peers, List<CompletableFuture<T>> futures, List<T> results,
+            String path) {
+        List<String> failedPeers = new ArrayList<>();
+        for (int i = 0; i < peers.size(); i++) {
+            try {
+                results.add(futures.get(i).join());
+            } catch (Exception e) {
+                log.warn("Failed to get {} from peer {}, merging the stats of the others: {}", path, peers.get(i),
+                        e.getMessage());
+                failedPeers.add(peers.get(i));
+            }
+        }
+        return failedPeers;
+    }
+
+    private <T> CompletableFuture<T> getFromPeer(String peer, String path, Class<T> clazz) {
+        return getPeerHttpClient().prepareGet(peer + path).execute().toCompletableFuture().thenApply(response -> {
+            if (response.getStatusCode() != 200) {
+                throw new RuntimeException(String.format("Request %s to peer %s failed with status %d", path, peer,
+                        response.getStatusCode()));
+            }
+            try {
+                return mapper.readValue(response.getResponseBody(), clazz);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private synchronized AsyncHttpClient getPeerHttpClient() {
+        if (peerHttpClient == null) {
+            peerHttpClient = asyncHttpClient();
+        }
+        return peerHttpClient;
+    }
+
+    private synchronized StatsAggregator getStatsAggregator() {
+        if (statsAggregator == null) {
+            statsAggregator = new StatsAggregator(Runtime.getRuntime().availableProcessors());
+        }
+        return statsAggregator;
+    }
+
     private void handleCountersStats(Context ctx) throws Exception {
         ctx.result(writer.writeValueAsString(localWorker.getCountersStats()));
     }
 
     private void handleResetStats(Context ctx) throws Exception {
         log.info("Reset stats");
+        awaitPhaseStart(ctx);
         localWorker.resetStats();
     }
 
+    private void handleHeartbeat(Context ctx) throws Exception {
+        ctx.result(instanceId);
+    }
+
+    private void handleCalibrate(Context ctx) throws Exception {
+        log.info("Calibrate");
+        ctx.result(writer.writeValueAsString(WorkerCalibration.measure(CALIBRATION_DURATION_MS)));
+    }
+
+    private void handleClock(Context ctx) throws Exception {
+        ctx.result(Long.toString(System.currentTimeMillis()));
+    }
+
+    // Only used when this worker pre-merges the stats of its peers
+    private AsyncHttpClient peerHttpClient;
+    private StatsAggregator statsAggregator;
+
     private final Object serializeLock = new Object();
     private ByteBuffer histogramSerializationBuffer = ByteBuffer.allocate(1024 * 1024);
 
 
+    private static final long CALIBRATION_DURATION_MS = 3_000;
+
     private static final Logger log = LoggerFactory.getLogger(WorkerHandler.class);
 
     private static final ObjectMapper mapper = new ObjectMapper()
@@ -0,0 +1,31 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.worker.commands;
+
+/**
+ * Result of compressing batches of the payload pool of a worker with one codec.
+ */
+public class CompressionStats {
+    public long uncompressedBytes;
+    public long compressedBytes;
+
+    /** CPU time spent compressing, in nanoseconds. */
+    public long cpuNanos;
+
+    public void add(CompressionStats other) {
+        uncompressedBytes += other.uncompressedBytes;
+        compressedBytes += other.compressedBytes;
+        cpuNanos += other.cpuNanos;
+    }
+}
@@ -13,7 +13,45 @@
  */
 package io.openmessaging.benchmark.worker.commands;
 
+import java.util.Map;
+import java.util.TreeMap;
+
 public class CountersStats {
     public long messagesSent;
     public long messagesReceived;
+
+    /** Payload bytes sent and received since the start of the load, following the actual message sizes. */
+    public long bytesSent;
+    public long bytesReceived;
+
+    /** Consumers added during the run that have not received any message yet. */
+    public long consumersWaitingForFirstMessage;
+
+    /**
+     * Messages sent to each partition with keys since the start of the load, estimated with the Kafka default
+     * partitioner, null if not tracked.
+     */
+    public long[] messagesSentPerPartition;
+
+    /** Compression of the payload pool of the producer workers with each codec, empty until measured. */
+    public Map<String, CompressionStats> compression = new TreeMap<>();
+
+    public void addMessagesSentPerPartition(long[] other) {
+        if (other == null) {
+            return;
+        }
+        if (messagesSentPerPartition == null) {
+            messagesSentPerPartition = new long[other.length];
+        }
+        for (int i = 0; i < Math.min(other.length, messagesSentPerPartition.length); i++) {
+            messagesSentPerPartition[i] += other[i];
+        }
+    }
+
+    public void addCompression(Map<String, CompressionStats> other) {
+        if (other == null) {
+            return;
+        }
+        other.forEach((codec, stats) -> compression.computeIfAbsent(codec, c -> new CompressionStats()).add(stats));
+    }
 }
@@ -13,6 +13,8 @@
  */
 package io.openmessaging.benchmark.worker.commands;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.HdrHistogram.Histogram;
@@ -21,6 +23,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class CumulativeLatencies {
 
+    /** Workers whose latencies could not be collected, which then only cover the other ones. */
+    public List<String> missingWorkers = new ArrayList<>();
+
     @JsonIgnore
     public Histogram publishLatency = new Histogram(5);
     public byte[] publishLatencyBytes;
@@ -36,4 +41,21 @@ public class CumulativeLatencies {
     @JsonIgnore
     public Histogram scheduleLatency = new Histogram(5);
     public byte[] scheduleLatencyBytes;
+
+    @JsonIgnore
+    public Histogram producerCreationLatency = new Histogram(5);
+    public byte[] producerCreationLatencyBytes;
+
+    @JsonIgnore
+    public Histogram consumerCreationLatency = new Histogram(5);
+    public byte[] consumerCreationLatencyBytes;
+
+    // Producer churn: first send of each recreated producer, and publish latency of the producers not churned
+    @JsonIgnore
+    public Histogram producerFirstSendLatency = new Histogram(5);
+    public byte[] producerFirstSendLatencyBytes;
+
+    @JsonIgnore
+    public Histogram steadyPublishLatency = new Histogram(5);
+    public byte[] steadyPublishLatencyBytes;
 }
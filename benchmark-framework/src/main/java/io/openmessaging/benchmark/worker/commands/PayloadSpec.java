@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.worker.commands;
+
+import com.google.common.base.Preconditions;
+
+import io.openmessaging.benchmark.Workload;
+import io.openmessaging.benchmark.utils.payload.MessageSizeDistribution;
+import io.openmessaging.benchmark.utils.payload.PayloadCorpus;
+import io.openmessaging.benchmark.utils.payload.PayloadFileFormat;
+
+/**
+ * Describes the payload pool a producer worker should build locally, instead of shipping the
+ * payload bytes themselves with the work assignment.
+ */
+public class PayloadSpec {
+    public int messageSize;
+
+    /** Sizes of the messages when they vary, in which case messageSize is not used. */
+    public MessageSizeDistribution messageSizeDistribution;
+
+    public boolean useRandomizedPayloads;
+    public double randomBytesRatio;
+    public int randomizedPayloadPoolSize;
+
+    /** Content of the randomized payloads, with the entropy of their fields for the record corpora. */
+    public PayloadCorpus corpus = PayloadCorpus.RANDOM_ZEROS;
+    public double entropy;
+
+    /** Size of the off-heap buffer each message takes a unique window of, 0 to send the pool payloads. */
+    public int uniquePayloadBufferMB;
+
+    /** Seed for the randomized payload pool, so every worker builds the same pool. */
+    public long seed;
+
+    /** A payload file, or a directory of payload files, resolved on the worker. */
+    public String payloadFile;
+
+    /** Layout of the payload files, and the range of their records to send for the formats with many per file. */
+    public PayloadFileFormat payloadFileFormat = PayloadFileFormat.WHOLE_FILE;
+    public long payloadRecordOffset;
+    public long payloadRecordCount;
+
+    public PayloadSpec() {
+    }
+
+    /**
+     * Copy of this spec with only the part {@code part} of the payload records split in {@code parts} contiguous
+     * ranges, so that each producer worker sends its own records. When the record count is not set, or smaller than
+     * the number of parts, every worker sends all the records.
+     */
+    public PayloadSpec withRecordRange(int part, int parts) {
+        if (payloadFileFormat == PayloadFileFormat.WHOLE_FILE || payloadRecordCount < parts) {
+            return this;
+        }
+        PayloadSpec copy = new PayloadSpec();
+        copy.messageSize = messageSize;
+        copy.messageSizeDistribution = messageSizeDistribution;
+        copy.useRandomizedPayloads = useRandomizedPayloads;
+        copy.randomBytesRatio = randomBytesRatio;
+        copy.randomizedPayloadPoolSize = randomizedPayloadPoolSize;
+        copy.corpus = corpus;
+        copy.entropy = entropy;
+        copy.uniquePayloadBufferMB = uniquePayloadBufferMB;
+        copy.seed = seed;
+        copy.payloadFile = payloadFile;
+        copy.payloadFileFormat = payloadFileFormat;
+        long first = payloadRecordCount * part / parts;
+        long end = payloadRecordCount * (part + 1) / parts;
+        copy.payloadRecordOffset = payloadRecordOffset + first;
+        copy.payloadRecordCount = end - first;
+        return copy;
+    }
+
+    public static PayloadSpec fromWorkload(Workload w, long seed) {
+        Preconditions.checkNotNull(w);
+        if (!w.useRandomizedPayloads && w.payloadFile == null) {
+            throw new IllegalArgumentException("Workload must either use randomized payloads or specify a payloadFile");
+        }
+
+        PayloadSpec spec = new PayloadSpec();
+        spec.messageSize = w.messageSize;
+        spec.useRandomizedPayloads = w.useRandomizedPayloads;
+        spec.randomBytesRatio = w.randomBytesRatio;
+        spec.randomizedPayloadPoolSize = w.randomizedPayloadPoolSize;
+        if (w.payloadCorpus != null) {
+            spec.corpus = w.payloadCorpus;
+        }
+        spec.entropy = w.payloadEntropy;
+        spec.uniquePayloadBufferMB = w.uniquePayloadBufferMB;
+        spec.seed = seed;
+        spec.payloadFile = w.payloadFile;
+        if (w.payloadFileFormat != null) {
+            spec.payloadFileFormat = w.payloadFileFormat;
+        }
+        spec.payloadRecordOffset = w.payloadRecordOffset;
+        spec.payloadRecordCount = w.payloadRecordCount;
+        if (w.messageSizeDistribution != null) {
+            MessageSizeDistribution distribution = w.messageSizeDistribution.loadHistogram();
+            if (distribution.type == MessageSizeDistribution.Type.FIXED) {
+                spec.messageSize = distribution.size;
+            } else {
+                spec.messageSizeDistribution = distribution;
+            }
+        }
+        return spec;
+    }
+}
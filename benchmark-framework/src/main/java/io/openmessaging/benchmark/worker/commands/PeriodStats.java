@@ -13,6 +13,10 @@
  */
 package io.openmessaging.benchmark.worker.commands;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 
 import org.HdrHistogram.Histogram;
@@ -32,6 +36,15 @@ public class PeriodStats {
     public long totalErrors = 0;
     public long totalMessagesReceived = 0;
 
+    /** Workers lost or recovered since the previous sample, only reported by distributed ensembles. */
+    public List<WorkerFleetEvent> fleetEvents = new ArrayList<>();
+
+    /** Time spent merging the stats of the workers on the coordinator, only reported by distributed ensembles. */
+    public long aggregationTimeMicros = 0;
+
+    /** Workers whose stats could not be collected for this sample, which then only covers the other ones. */
+    public List<String> missingWorkers = new ArrayList<>();
+
     @JsonIgnore
     public Histogram publishLatency = new Histogram(5);
     public byte[] publishLatencyBytes;
@@ -47,4 +60,7 @@ public class PeriodStats {
     @JsonIgnore
     public Histogram scheduleLatency = new Histogram(5);
     public byte[] scheduleLatencyBytes;
+
+    /** Stats of each topic group, with only the counters and the publish and end-to-end latencies filled. */
+    public Map<String, PeriodStats> topicGroups = new TreeMap<>();
 }
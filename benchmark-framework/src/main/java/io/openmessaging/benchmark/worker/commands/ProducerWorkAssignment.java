@@ -13,15 +13,98 @@
  */
 package io.openmessaging.benchmark.worker.commands;
 
-import io.openmessaging.benchmark.utils.distributor.KeyDistributorType;
-
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+
+import io.openmessaging.benchmark.utils.RateProfile;
+import io.openmessaging.benchmark.utils.distributor.KeyDistributorType;
+import io.openmessaging.benchmark.utils.distributor.KeySpace;
 
 public class ProducerWorkAssignment {
-    
-    public List<byte[]> payloadData;
-    
+
+    public PayloadSpec payloadSpec;
+
     public double publishRate;
 
     public KeyDistributorType keyDistributorType;
+
+    /** Keys to pick from, null for the default key space. */
+    public KeySpace keySpace;
+
+    /** Used to count the messages sent to each partition with keys, zero if the partition count is unknown. */
+    public int partitionsPerTopic;
+
+    /** Seed of the random key distributors, each producer thread getting its own stream split from it. */
+    public long keySeed;
+
+    /**
+     * Loads of the topic groups, in which case the publish rate is their sum and the payload and keys of this
+     * assignment are not used.
+     */
+    public List<TopicGroupLoad> topicGroups = new ArrayList<>();
+
+    /**
+     * Trace replayed, resolved on the worker, instead of the paced load. The topic indexes of the trace refer to
+     * traceTopics, and its timestamps are divided by traceTimeCompression.
+     */
+    public String traceFile;
+    public List<String> traceTopics;
+    public double traceTimeCompression = 1.0;
+
+    /**
+     * Share of the trace records of each topic replayed by this worker, when the producers of a topic are spread
+     * over several workers: the records of a topic are split into slots, one per producer, and the worker replays
+     * the slots from the first one given here, as many as it has producers on the topic. The total number of slots
+     * of the topic comes second. Topics missing from the map are replayed in full by this worker's producers.
+     */
+    public Map<String, int[]> traceSlots;
+
+    /** Shape of the publish rate over time, null for a uniform constant rate. */
+    public RateProfile rateProfile;
+
+    /** Fraction of the producers continuously closed and recreated, and how long each of them lives. */
+    public double producerChurnFraction;
+    public double producerChurnLifetimeSeconds;
+
+    /**
+     * Wall clock time, on the worker, at which publishing should start. Zero means as soon as possible.
+     */
+    public long startAtMillis;
+
+    public ProducerWorkAssignment withPublishRate(double publishRate) {
+        ProducerWorkAssignment copy = new ProducerWorkAssignment();
+        copy.payloadSpec = payloadSpec;
+        copy.publishRate = publishRate;
+        copy.keyDistributorType = keyDistributorType;
+        copy.keySpace = keySpace;
+        copy.partitionsPerTopic = partitionsPerTopic;
+        copy.keySeed = keySeed;
+        for (TopicGroupLoad group : topicGroups) {
+            // Keep the ratio between the groups
+            copy.topicGroups.add(group.withPublishRate(
+                    this.publishRate > 0 ? group.publishRate * publishRate / this.publishRate : 0));
+        }
+        copy.traceFile = traceFile;
+        copy.traceTopics = traceTopics;
+        copy.traceTimeCompression = traceTimeCompression;
+        copy.traceSlots = traceSlots;
+        copy.rateProfile = rateProfile;
+        copy.producerChurnFraction = producerChurnFraction;
+        copy.producerChurnLifetimeSeconds = producerChurnLifetimeSeconds;
+        copy.startAtMillis = startAtMillis;
+        return copy;
+    }
+
+    /**
+     * Copy of this assignment with the given rate for each topic group, and their sum as the publish rate.
+     */
+    public ProducerWorkAssignment withTopicGroupRates(Map<String, Double> groupRates) {
+        ProducerWorkAssignment copy = withPublishRate(groupRates.values().stream().mapToDouble(r -> r).sum());
+        copy.topicGroups = new ArrayList<>();
+        for (TopicGroupLoad group : topicGroups) {
+            copy.topicGroups.add(group.withPublishRate(groupRates.getOrDefault(group.name, 0.0)));
+        }
+        return copy;
+    }
 }
@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.worker.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.openmessaging.benchmark.utils.distributor.KeyDistributorType;
+import io.openmessaging.benchmark.utils.distributor.KeySpace;
+
+/**
+ * The load of one topic group: the producers on its topics publish at its own rate, with its own payloads and keys.
+ */
+public class TopicGroupLoad {
+    public String name;
+    public List<String> topics = new ArrayList<>();
+
+    public PayloadSpec payloadSpec;
+    public double publishRate;
+
+    public KeyDistributorType keyDistributorType;
+    public KeySpace keySpace;
+
+    public TopicGroupLoad withPublishRate(double publishRate) {
+        TopicGroupLoad copy = new TopicGroupLoad();
+        copy.name = name;
+        copy.topics = topics;
+        copy.payloadSpec = payloadSpec;
+        copy.publishRate = publishRate;
+        copy.keyDistributorType = keyDistributorType;
+        copy.keySpace = keySpace;
+        return copy;
+    }
+}
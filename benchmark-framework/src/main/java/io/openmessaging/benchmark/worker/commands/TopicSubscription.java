@@ -13,10 +13,24 @@
  */
 package io.openmessaging.benchmark.worker.commands;
 
+import java.util.Objects;
+
 public class TopicSubscription {
     public String topic;
     public String subscription;
 
+    /** Topic group of the topic, null if the workload has no topic groups. */
+    public String topicGroup;
+
+    /** Whether the consumer is a reader of a catch-up read, counted apart from the tailing consumers. */
+    public boolean catchUp;
+
+    /**
+     * Wall clock time at which the test started producing, for the readers of a catch-up read: the messages
+     * published before it were in the topics before the test, and do not count towards reaching its head.
+     */
+    public long catchUpFromMillis;
+
     public TopicSubscription() {
     }
 
@@ -25,6 +39,28 @@ public class TopicSubscription {
         this.subscription = subscription;
     }
 
+    public TopicSubscription(String topic, String subscription, String topicGroup) {
+        this(topic, subscription);
+        this.topicGroup = topicGroup;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TopicSubscription)) {
+            return false;
+        }
+        TopicSubscription that = (TopicSubscription) o;
+        return Objects.equals(topic, that.topic) && Objects.equals(subscription, that.subscription);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(topic, subscription);
+    }
+
     @Override
     public String toString() {
         return "TopicSubscription{" +
@@ -27,6 +27,9 @@ public class TopicsInfo {
     public int numberOfTopics;
     public int numberOfPartitionsPerTopic;
 
+    /** Index of the first topic to create, when the creation is split across several workers. */
+    public int firstTopicIndex;
+
     /** If the following arg non-empty, the properties above are zero and vice-versa. */
     @JsonProperty
     public List<String> existingProduceTopics = Collections.emptyList();
@@ -50,6 +53,15 @@ public class TopicsInfo {
         this.existingConsumeTopics = existingConsumeTopics;
     }
 
+    /**
+     * @return the slice of the topics to create starting at the given index, for one of the workers
+     */
+    public TopicsInfo slice(int firstTopicIndex, int numberOfTopics) {
+        TopicsInfo slice = new TopicsInfo(numberOfTopics, numberOfPartitionsPerTopic);
+        slice.firstTopicIndex = this.firstTopicIndex + firstTopicIndex;
+        return slice;
+    }
+
     /** @return true iff existing topics are to be used  */
     @JsonIgnore
     public boolean isExistingTopics() {
@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.worker.commands;
+
+/**
+ * A change in the set of workers taking part in the test, e.g. a worker that stopped responding.
+ */
+public class WorkerFleetEvent {
+    public enum Type {
+        LOST,
+        RECOVERED,
+    }
+
+    public Type type;
+    public String worker;
+    public String reason;
+
+    /** Wall clock time of the event, in milliseconds. */
+    public long timestamp;
+
+    /** Number of workers still taking part in the test after this event. */
+    public int activeWorkers;
+
+    /**
+     * Index of the stats sample that covers this event, or -1 if it happened during warm-up.
+     */
+    public int sampleIndex = -1;
+
+    public WorkerFleetEvent() {
+    }
+
+    public WorkerFleetEvent(Type type, String worker, String reason, int activeWorkers) {
+        this.type = type;
+        this.worker = worker;
+        this.reason = reason;
+        this.timestamp = System.currentTimeMillis();
+        this.activeWorkers = activeWorkers;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkerFleetEvent{" +
+            "type=" + type +
+            ", worker='" + worker + '\'' +
+            ", reason='" + reason + '\'' +
+            ", activeWorkers=" + activeWorkers +
+            '}';
+    }
+}
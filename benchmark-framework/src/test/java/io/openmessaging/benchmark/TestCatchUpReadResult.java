@@ -0,0 +1,50 @@
+package io.openmessaging.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+
+public class TestCatchUpReadResult {
+
+    private static PeriodStats stats(long latencyMicros) {
+        PeriodStats stats = new PeriodStats();
+        stats.endToEndLatency.recordValue(latencyMicros);
+        return stats;
+    }
+
+    private static PeriodStats readerStats(long messages, long bytes) {
+        PeriodStats stats = new PeriodStats();
+        stats.messagesReceived = messages;
+        stats.bytesReceived = bytes;
+        return stats;
+    }
+
+    @Test
+    public void testReadThroughputAndTailLatencies() {
+        CatchUpReadResult read = new CatchUpReadResult();
+        read.produceDuringRead = true;
+        read.addBaselineSample(stats(2_000));
+        read.addSample(stats(30_000), readerStats(20_000, 20 * 1024 * 1024), 10, 500_000);
+        read.addSample(stats(30_000), readerStats(10_000, 10 * 1024 * 1024), 5, 300_000);
+        read.aggregate();
+
+        assertEquals(2000, read.readRate.get(0), 0.001);
+        assertEquals(2, read.readThroughputMBps.get(1), 0.001);
+        assertEquals(300_000, (long) read.backlog.get(1));
+        assertEquals(2, read.averageReadThroughputMBps, 0.001);
+        assertEquals(2, read.tailEndToEndLatency99pctBefore, 0.01);
+        assertEquals(30, read.tailEndToEndLatency99pctDuring, 0.01);
+    }
+
+    @Test
+    public void testNoTailLatenciesWhenProducersArePaused() {
+        CatchUpReadResult read = new CatchUpReadResult();
+        read.addSample(stats(30_000), readerStats(1000, 1024 * 1024), 1, 0);
+        read.aggregate();
+
+        assertEquals(1, read.averageReadThroughputMBps, 0.001);
+        assertEquals(0, read.tailEndToEndLatency99pctDuring, 0);
+    }
+}
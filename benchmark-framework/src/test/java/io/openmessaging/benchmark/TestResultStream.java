@@ -0,0 +1,80 @@
+package io.openmessaging.benchmark;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+
+public class TestResultStream {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static TestResult step(long... sent) {
+        TestResult step = new TestResult();
+        for (long value : sent) {
+            step.sent.add(value);
+            step.publishRate.add(value / 10.0);
+            step.missingWorkers.add(0);
+            step.endToEndLatencyMax.add(value * 2.0);
+        }
+        return step;
+    }
+
+    @Test
+    public void testSeriesRoundTrip() throws Exception {
+        File samples = folder.newFile("test.samples.jsonl");
+        File output = new File(folder.getRoot(), "test.json");
+
+        TestResult result = new TestResult();
+        result.workload = "round-trip";
+        try (ResultStream stream = new ResultStream(samples, 1, TimeUnit.HOURS)) {
+            // eg: two steps of a sweep
+            stream.writeSamples(step(1, 2, 3));
+            stream.writeSamples(step(4, 5));
+
+            PeriodStats stats = new PeriodStats();
+            stats.publishLatency.recordValue(1_000);
+            stream.accumulate(stats);
+
+            result.sweepSteps.add(new StepResult());
+            stream.writeResult(result, output);
+        }
+
+        JsonNode tree = mapper.readTree(output);
+        assertEquals("round-trip", tree.get("workload").asText());
+        assertEquals(1, tree.get("sweepSteps").size());
+        assertArrayEquals(new long[] {1, 2, 3, 4, 5}, mapper.treeToValue(tree.get("sent"), long[].class));
+        assertArrayEquals(new double[] {0.1, 0.2, 0.3, 0.4, 0.5},
+                mapper.treeToValue(tree.get("publishRate"), double[].class), 0);
+        assertArrayEquals(new double[] {2, 4, 6, 8, 10},
+                mapper.treeToValue(tree.get("endToEndLatencyMax"), double[].class), 0);
+        assertEquals(5, tree.get("missingWorkers").size());
+        // Series without samples stay empty
+        assertEquals(0, tree.get("consumed").size());
+
+        // The final checkpoint carries the latencies accumulated during the test
+        List<String> lines = Files.readAllLines(samples.toPath());
+        JsonNode checkpoint = mapper.readTree(lines.get(lines.size() - 1));
+        assertEquals("checkpoint", checkpoint.get("type").asText());
+        assertEquals(5, checkpoint.get("samples").asInt());
+        assertEquals(1.0, checkpoint.get("publishLatencyMax").asDouble(), 0.01);
+
+        // Only the samples and the results are left behind
+        assertEquals(2, folder.getRoot().list().length);
+    }
+}
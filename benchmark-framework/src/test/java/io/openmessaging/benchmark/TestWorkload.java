@@ -0,0 +1,29 @@
+package io.openmessaging.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TestWorkload {
+
+    private static Workload sweep(int startRate) {
+        Workload workload = new Workload();
+        workload.sweepStartRate = startRate;
+        workload.sweepRateFactor = 2.0;
+        return workload;
+    }
+
+    @Test
+    public void testSweepUpToTheSearchedRate() {
+        assertEquals(Arrays.asList(1000.0, 2000.0, 4000.0, 5000.0), sweep(1000).getSweepRates(5000));
+    }
+
+    @Test
+    public void testNoSweepWhenTheSearchFoundNoRate() {
+        assertTrue(sweep(1000).getSweepRates(0).isEmpty());
+        assertTrue(sweep(1000).getSweepRates(500).isEmpty());
+    }
+}
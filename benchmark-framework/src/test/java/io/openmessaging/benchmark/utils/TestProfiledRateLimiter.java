@@ -0,0 +1,69 @@
+package io.openmessaging.benchmark.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class TestProfiledRateLimiter {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testPoissonArrivalsKeepTheAverageRate() {
+        RateProfile profile = new RateProfile();
+        profile.arrivals = RateProfile.Arrivals.POISSON;
+        ProfiledRateLimiter limiter = new ProfiledRateLimiter(profile, 1000, 0, 0);
+
+        long last = 0;
+        int ops = 100_000;
+        for (int i = 0; i < ops; i++) {
+            long t = limiter.acquire();
+            assertTrue(t >= last);
+            last = t;
+        }
+        assertEquals(ops / 1000.0, last / (double) SECOND, 2.0);
+    }
+
+    @Test
+    public void testOnOffSkipsSilences() {
+        RateProfile profile = new RateProfile();
+        profile.shape = RateProfile.Shape.ON_OFF;
+        profile.onSeconds = 1;
+        profile.offSeconds = 3;
+        ProfiledRateLimiter limiter = new ProfiledRateLimiter(profile, 100, 0, 0);
+
+        // 400 ops per burst of one second, so that the average over a cycle is 100 ops per second
+        int ops = 4000;
+        for (int i = 0; i < ops; i++) {
+            long t = limiter.acquire();
+            assertTrue("Operation scheduled in a silence", t % (4 * SECOND) < SECOND);
+        }
+    }
+
+    @Test
+    public void testStepsFollowTheMultipliers() {
+        RateProfile profile = new RateProfile();
+        profile.shape = RateProfile.Shape.STEP;
+        profile.stepSeconds = 1;
+        profile.stepMultipliers = Arrays.asList(1.0, 3.0);
+        ProfiledRateLimiter limiter = new ProfiledRateLimiter(profile, 100, 0, 0);
+
+        int firstStep = 0;
+        int secondStep = 0;
+        long t;
+        while ((t = limiter.acquire()) < 2 * SECOND) {
+            if (t < SECOND) {
+                firstStep++;
+            } else {
+                secondStep++;
+            }
+        }
+        // Gaps are rounded to the nanosecond, so allow one operation either way
+        assertEquals(100, firstStep, 1);
+        assertEquals(300, secondStep, 1);
+    }
+}
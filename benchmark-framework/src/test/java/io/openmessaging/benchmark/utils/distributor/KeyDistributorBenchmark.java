@@ -0,0 +1,71 @@
+package io.openmessaging.benchmark.utils.distributor;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the cost of picking keys with each distributor, from several threads at once as the producers do.
+ *
+ * Run with the test classpath, eg: {@code java -cp ... KeyDistributorBenchmark [threads] [seconds]}. Each round
+ * is measured after a round of warm-up, and the keys are consumed so that the JIT cannot drop the calls.
+ */
+@SuppressWarnings("deprecation")
+public class KeyDistributorBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        KeySpace keySpace = new KeySpace();
+        SplittableRandom root = new SplittableRandom(1);
+
+        for (int round = 0; round < 2; round++) {
+            String label = round == 0 ? "warm-up" : "measure";
+            run(label, "RandomNano", () -> new RandomNano(keySpace), threads, seconds);
+            run(label, "KeyRoundRobin", () -> new KeyRoundRobin(keySpace), threads, seconds);
+            run(label, "UniformRandom", () -> new UniformRandomKeyDistributor(keySpace, split(root)), threads,
+                    seconds);
+            run(label, "Zipfian", () -> new ZipfianKeyDistributor(keySpace, split(root)), threads, seconds);
+        }
+    }
+
+    private static SplittableRandom split(SplittableRandom root) {
+        synchronized (root) {
+            return root.split();
+        }
+    }
+
+    private static void run(String label, String name, Supplier<KeyDistributor> distributors, int threads,
+            int seconds) throws InterruptedException {
+        long[] ops = new long[threads];
+        long[] sinks = new long[threads];
+        CountDownLatch done = new CountDownLatch(threads);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            KeyDistributor distributor = distributors.get();
+            new Thread(() -> {
+                long n = 0;
+                long sink = 0;
+                while (System.nanoTime() < end) {
+                    for (int i = 0; i < 1000; i++) {
+                        sink += distributor.nextIndex();
+                    }
+                    n += 1000;
+                }
+                ops[thread] = n;
+                sinks[thread] = sink;
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        long total = 0;
+        for (long n : ops) {
+            total += n;
+        }
+        System.out.printf("%s %-14s %8.1f M keys/s (%d)%n", label, name, total / 1e6 / seconds, sinks[0] & 1);
+    }
+}
@@ -0,0 +1,90 @@
+package io.openmessaging.benchmark.utils.distributor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+public class TestKeyDistributor {
+
+    private static final int KEYS = 100;
+    private static final int DRAWS = 1_000_000;
+
+    private static KeySpace keySpace() {
+        KeySpace keySpace = new KeySpace();
+        keySpace.cardinality = KEYS;
+        keySpace.hotKeys = 10;
+        keySpace.hotKeyTrafficRatio = 0.8;
+        return keySpace;
+    }
+
+    private static int[] draw(KeyDistributor distributor) {
+        int[] counts = new int[KEYS];
+        for (int i = 0; i < DRAWS; i++) {
+            counts[distributor.nextIndex()]++;
+        }
+        return counts;
+    }
+
+    @Test
+    public void testUniformRandomPassesChiSquared() {
+        int[] counts = draw(KeyDistributor.build(KeyDistributorType.UNIFORM_RANDOM, keySpace(),
+                new SplittableRandom(42)));
+
+        double expected = DRAWS / (double) KEYS;
+        double chiSquared = Arrays.stream(counts).mapToDouble(c -> (c - expected) * (c - expected) / expected).sum();
+        // Critical value of the chi-squared distribution with 99 degrees of freedom at p = 0.001
+        assertTrue("Chi-squared " + chiSquared, chiSquared < 148.2);
+    }
+
+    @Test
+    public void testSplitStreamsAreReproducibleAndIndependent() {
+        SplittableRandom root = new SplittableRandom(7);
+        int[] first = draw(KeyDistributor.build(KeyDistributorType.UNIFORM_RANDOM, keySpace(), root.split()));
+        int[] second = draw(KeyDistributor.build(KeyDistributorType.UNIFORM_RANDOM, keySpace(), root.split()));
+
+        SplittableRandom sameRoot = new SplittableRandom(7);
+        assertArrayEquals(first,
+                draw(KeyDistributor.build(KeyDistributorType.UNIFORM_RANDOM, keySpace(), sameRoot.split())));
+        assertFalse(Arrays.equals(first, second));
+    }
+
+    @Test
+    public void testHotSetGetsItsShare() {
+        int[] counts = draw(KeyDistributor.build(KeyDistributorType.HOT_SET, keySpace(), new SplittableRandom(1)));
+
+        int hot = Arrays.stream(counts, 0, 10).sum();
+        assertEquals(0.8, hot / (double) DRAWS, 0.005);
+    }
+
+    @Test
+    public void testZipfianFollowsTheRankWeights() {
+        int[] counts = draw(KeyDistributor.build(KeyDistributorType.ZIPFIAN, keySpace(), new SplittableRandom(1)));
+
+        // With an exponent of 1 the key of rank k is picked k times less often than the first one
+        assertEquals(2.0, counts[0] / (double) counts[1], 0.05);
+        assertEquals(10.0, counts[0] / (double) counts[9], 0.5);
+    }
+
+    @Test
+    public void testHotSetLimitOnlyAppliesToHotSet() {
+        KeySpace keySpace = new KeySpace();
+        keySpace.cardinality = 10;
+
+        // The default hot set is larger than the key space, which only matters when it is used
+        keySpace.validate(KeyDistributorType.ZIPFIAN);
+        keySpace.validate(KeyDistributorType.UNIFORM_RANDOM);
+        try {
+            keySpace.validate(KeyDistributorType.HOT_SET);
+            fail("A hot set larger than the key space should be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
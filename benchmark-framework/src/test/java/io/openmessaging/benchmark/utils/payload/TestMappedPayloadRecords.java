@@ -0,0 +1,106 @@
+package io.openmessaging.benchmark.utils.payload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.openmessaging.benchmark.worker.commands.PayloadSpec;
+
+public class TestMappedPayloadRecords {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static PayloadSpec spec(File file, PayloadFileFormat format) {
+        PayloadSpec spec = new PayloadSpec();
+        spec.payloadFile = file.getAbsolutePath();
+        spec.payloadFileFormat = format;
+        return spec;
+    }
+
+    private static String text(ByteBuffer slice) {
+        byte[] bytes = new byte[slice.remaining()];
+        slice.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private File lengthPrefixed(File file, int first, int count) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int i = first; i < first + count; i++) {
+            byte[] record = ("record-" + i).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(record.length);
+            out.write(record);
+        }
+        Files.write(file.toPath(), bytes.toByteArray());
+        return file;
+    }
+
+    @Test
+    public void testIndexesLengthPrefixedRecordsAcrossWindows() throws IOException {
+        File file = lengthPrefixed(folder.newFile(), 0, 1000);
+
+        // Windows much smaller than the file, so that records keep straddling them
+        MappedPayloadRecords records = new MappedPayloadRecords(spec(file, PayloadFileFormat.LENGTH_PREFIXED), 64);
+        assertEquals(1000, records.size());
+        List<byte[]> sample = records.sample(1000);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("record-" + i, new String(sample.get(i), StandardCharsets.UTF_8));
+        }
+
+        PayloadCursor cursor = records.cursor(new SplittableRandom(1));
+        Set<String> sent = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ByteBuffer slice = cursor.next(0);
+            assertTrue(slice.isReadOnly());
+            sent.add(text(slice));
+        }
+        assertEquals(1000, sent.size());
+    }
+
+    @Test
+    public void testIndexesLinesOfADirectoryInRange() throws IOException {
+        File directory = folder.newFolder();
+        Files.write(new File(directory, "b.txt").toPath(), "d\ne\r\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(directory, "a.txt").toPath(), "a\n\nb\nc".getBytes(StandardCharsets.UTF_8));
+
+        PayloadSpec spec = spec(directory, PayloadFileFormat.LINES);
+        spec.payloadRecordOffset = 1;
+        spec.payloadRecordCount = 3;
+        MappedPayloadRecords records = new MappedPayloadRecords(spec, 3);
+        assertEquals(3, records.size());
+        List<byte[]> sample = records.sample(10);
+        assertEquals("b", new String(sample.get(0), StandardCharsets.UTF_8));
+        assertEquals("c", new String(sample.get(1), StandardCharsets.UTF_8));
+        assertEquals("d", new String(sample.get(2), StandardCharsets.UTF_8));
+
+        spec.payloadRecordCount = 0;
+        sample = new MappedPayloadRecords(spec).sample(10);
+        assertEquals(4, sample.size());
+        assertEquals("e", new String(sample.get(3), StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = PayloadException.class)
+    public void testRejectsTruncatedRecords() throws IOException {
+        File file = lengthPrefixed(folder.newFile(), 0, 10);
+        byte[] content = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(content, content.length - 2));
+        new MappedPayloadRecords(spec(file, PayloadFileFormat.LENGTH_PREFIXED));
+    }
+}
@@ -0,0 +1,139 @@
+package io.openmessaging.benchmark.utils.payload;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import io.openmessaging.benchmark.worker.commands.CompressionStats;
+import io.openmessaging.benchmark.worker.commands.PayloadSpec;
+
+public class TestPayloadGenerator {
+
+    private static List<byte[]> generate(MessageSizeDistribution distribution) {
+        PayloadSpec spec = new PayloadSpec();
+        spec.useRandomizedPayloads = true;
+        spec.randomBytesRatio = 0.5;
+        spec.seed = 42;
+        spec.messageSizeDistribution = distribution;
+        return new PayloadGenerator(spec).generate();
+    }
+
+    private static List<byte[]> generate(PayloadCorpus corpus, double entropy) {
+        PayloadSpec spec = new PayloadSpec();
+        spec.useRandomizedPayloads = true;
+        spec.messageSize = 1000;
+        spec.randomizedPayloadPoolSize = 100;
+        spec.corpus = corpus;
+        spec.entropy = entropy;
+        spec.seed = 42;
+        return new PayloadGenerator(spec).generate();
+    }
+
+    private static double gzipRatio(List<byte[]> payloads) {
+        CompressionStats stats = CompressionProbe.measure(payloads, 7).get("gzip");
+        return (double) stats.uncompressedBytes / stats.compressedBytes;
+    }
+
+    private static int[] sortedSizes(List<byte[]> payloads) {
+        return payloads.stream().mapToInt(p -> p.length).sorted().toArray();
+    }
+
+    @Test
+    public void testLognormalPoolFollowsTheDistribution() {
+        MessageSizeDistribution distribution = new MessageSizeDistribution();
+        distribution.type = MessageSizeDistribution.Type.LOGNORMAL;
+        distribution.medianSize = 1000;
+        distribution.sigma = 1.0;
+        distribution.maxSize = 1024 * 1024;
+
+        List<byte[]> payloads = generate(distribution);
+        int[] sizes = sortedSizes(payloads);
+        assertEquals(1000, sizes[sizes.length / 2], 10);
+        // exp(2.326) for the 99th percentile of a lognormal of sigma 1
+        assertEquals(10240, sizes[(int) (sizes.length * 0.99)], 150);
+
+        // Payloads of the same size class are shared
+        Map<byte[], Boolean> distinct = new IdentityHashMap<>();
+        payloads.forEach(p -> distinct.put(p, true));
+        assertTrue(distinct.size() < 1000);
+    }
+
+    @Test
+    public void testHistogramPoolKeepsTheWeights() {
+        MessageSizeDistribution distribution = new MessageSizeDistribution();
+        distribution.type = MessageSizeDistribution.Type.HISTOGRAM;
+        distribution.histogramSizes = Arrays.asList(100, 5000, 200);
+        distribution.histogramWeights = Arrays.asList(0.7, 0.1, 0.2);
+
+        List<byte[]> payloads = generate(distribution);
+        assertEquals(0.7, payloads.stream().filter(p -> p.length == 100).count() / (double) payloads.size(), 0.001);
+        assertEquals(0.2, payloads.stream().filter(p -> p.length == 200).count() / (double) payloads.size(), 0.001);
+        assertEquals(0.1, payloads.stream().filter(p -> p.length == 5000).count() / (double) payloads.size(), 0.001);
+    }
+
+    @Test
+    public void testUniformPoolCoversTheRange() {
+        MessageSizeDistribution distribution = new MessageSizeDistribution();
+        distribution.type = MessageSizeDistribution.Type.UNIFORM;
+        distribution.minSize = 10;
+        distribution.maxSize = 20_000;
+
+        int[] sizes = sortedSizes(generate(distribution));
+        assertEquals(10, sizes[0]);
+        assertEquals(20_000, sizes[sizes.length - 1], 200);
+        assertEquals(10_005, Arrays.stream(sizes).average().getAsDouble(), 100);
+    }
+
+    @Test
+    public void testSizeClassesStayWithinTheBounds() {
+        MessageSizeDistribution distribution = new MessageSizeDistribution();
+        distribution.type = MessageSizeDistribution.Type.UNIFORM;
+        distribution.minSize = 500_001;
+        distribution.maxSize = 1_000_000;
+
+        int[] sizes = sortedSizes(generate(distribution));
+        assertTrue(sizes[0] >= 500_001);
+        assertEquals(1_000_000, sizes[sizes.length - 1]);
+    }
+
+    @Test
+    public void testCorpusPayloadsAreRecordsOfTheMessageSize() {
+        for (PayloadCorpus corpus : Arrays.asList(PayloadCorpus.JSON, PayloadCorpus.LOG_LINES,
+                PayloadCorpus.AVRO_LIKE)) {
+            List<byte[]> payloads = generate(corpus, 0.5);
+            assertEquals(100, payloads.size());
+            payloads.forEach(p -> assertEquals(1000, p.length));
+            // Same seed, same pool on every worker
+            assertArrayEquals(payloads.get(99), generate(corpus, 0.5).get(99));
+        }
+        assertTrue(new String(generate(PayloadCorpus.JSON, 0.5).get(0), StandardCharsets.UTF_8).startsWith("{\"id\":"));
+    }
+
+    @Test
+    public void testEntropyLowersTheCompressionRatio() {
+        for (PayloadCorpus corpus : Arrays.asList(PayloadCorpus.JSON, PayloadCorpus.LOG_LINES,
+                PayloadCorpus.AVRO_LIKE)) {
+            double repetitive = gzipRatio(generate(corpus, 0));
+            double random = gzipRatio(generate(corpus, 1));
+            assertTrue(corpus + ": " + repetitive + " <= " + random, repetitive > 1.5 * random);
+            assertTrue(corpus + ": " + random, random > 1);
+        }
+    }
+
+    @Test
+    public void testSizeClassesStayWithinAboutOnePercent() {
+        for (int size = 1; size < 10_000_000; size += 1 + size / 100) {
+            int sizeClass = PayloadGenerator.sizeClass(size);
+            assertTrue(size + " -> " + sizeClass, Math.abs(sizeClass - size) <= size * 0.01 + 1);
+        }
+        assertEquals(64, PayloadGenerator.sizeClass(64));
+    }
+}
@@ -0,0 +1,73 @@
+package io.openmessaging.benchmark.utils.payload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import io.openmessaging.benchmark.worker.commands.PayloadSpec;
+
+public class TestUniquePayloadBuffer {
+
+    private static UniquePayloadBuffer buffer(PayloadCorpus corpus) {
+        return buffer(corpus, 42);
+    }
+
+    private static UniquePayloadBuffer buffer(PayloadCorpus corpus, long seed) {
+        PayloadSpec spec = new PayloadSpec();
+        spec.useRandomizedPayloads = true;
+        spec.corpus = corpus;
+        spec.entropy = 0.5;
+        spec.uniquePayloadBufferMB = 1;
+        return new UniquePayloadBuffer(spec, seed);
+    }
+
+    @Test
+    public void testWindowsStayUniqueAcrossLaps() {
+        UniquePayloadBuffer.Cursor cursor = buffer(PayloadCorpus.RANDOM_ZEROS).cursor(0, 1, 1000);
+        Set<ByteBuffer> windows = new HashSet<>();
+        // About 20 laps over the buffer
+        for (int i = 0; i < 20_000; i++) {
+            ByteBuffer window = cursor.next(1000);
+            assertEquals(1000, window.remaining());
+            assertTrue(window.isReadOnly());
+            assertTrue("window " + i + " repeated", windows.add(window));
+        }
+    }
+
+    @Test
+    public void testThreadsWalkSeparateRegions() {
+        UniquePayloadBuffer buffer = buffer(PayloadCorpus.JSON);
+        Set<ByteBuffer> windows = new HashSet<>();
+        for (int thread = 0; thread < 4; thread++) {
+            UniquePayloadBuffer.Cursor cursor = buffer.cursor(thread, 4, 100);
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(windows.add(cursor.next(100)));
+            }
+        }
+    }
+
+    @Test
+    public void testWorkersWithConsecutiveSeedsSendDifferentWindows() {
+        // The workers seed their buffers with the payload seed plus their own key seed offset
+        Set<ByteBuffer> windows = new HashSet<>();
+        UniquePayloadBuffer.Cursor first = buffer(PayloadCorpus.JSON, 42).cursor(0, 1, 1000);
+        for (int i = 0; i < 1000; i++) {
+            windows.add(first.next(1000));
+        }
+        UniquePayloadBuffer.Cursor second = buffer(PayloadCorpus.JSON, 43).cursor(0, 1, 1000);
+        for (int i = 0; i < 1000; i++) {
+            assertFalse("window " + i + " sent by both workers", windows.contains(second.next(1000)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsRegionsSmallerThanTheMessages() {
+        buffer(PayloadCorpus.RANDOM_ZEROS).cursor(0, 64, 64 * 1024);
+    }
+}
@@ -0,0 +1,95 @@
+package io.openmessaging.benchmark.utils.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestTraceReader {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File trace(String content) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testReadsRecordsAcrossWindows() throws IOException {
+        StringBuilder content = new StringBuilder("# timestampMicros,topic,key,size\n");
+        for (int i = 0; i < 1000; i++) {
+            content.append(5_000_000 + i * 10).append(',').append(i % 7).append(',')
+                    .append(i % 2 == 0 ? "key-" + i : "").append(',').append(i).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+
+        // Windows much smaller than the file, so that lines keep straddling them
+        try (TraceReader reader = new TraceReader(trace(content.toString()), 4, 64)) {
+            TraceRecord record = new TraceRecord();
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(reader.next(record));
+                assertEquals(i, record.index);
+                assertEquals(i * 10, record.offsetMicros);
+                assertEquals(i % 7 % 4, record.topic);
+                assertEquals(i % 2 == 0 ? "key-" + i : null, record.key);
+                assertEquals(i, record.size);
+            }
+            assertFalse(reader.next(record));
+        }
+    }
+
+    @Test
+    public void testHashesTopicNames() throws IOException {
+        try (TraceReader reader = new TraceReader(trace("0,orders,,10\n\n1,payments,k,20"), 3)) {
+            TraceRecord record = new TraceRecord();
+            assertTrue(reader.next(record));
+            assertEquals(Math.floorMod("orders".hashCode(), 3), record.topic);
+            assertNull(record.key);
+            assertTrue(reader.next(record));
+            assertEquals(Math.floorMod("payments".hashCode(), 3), record.topic);
+            assertEquals(20, record.size);
+            assertFalse(reader.next(record));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsTimestampsGoingBackwards() throws IOException {
+        try (TraceReader reader = new TraceReader(trace("10,0,,1\n5,0,,1\n"), 1)) {
+            TraceRecord record = new TraceRecord();
+            while (reader.next(record)) {
+                // read to the invalid line
+            }
+        }
+    }
+
+    @Test
+    public void testRecordsOfAKeyShareItsString() throws IOException {
+        try (TraceReader reader = new TraceReader(trace("0,0,user-1,1\n1,0,user-2,1\n2,0,user-1,1\n"), 1)) {
+            TraceRecord record = new TraceRecord();
+            assertTrue(reader.next(record));
+            String first = record.key;
+            assertTrue(reader.next(record));
+            assertEquals("user-2", record.key);
+            assertTrue(reader.next(record));
+            assertSame(first, record.key);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsLinesLongerThanTheWindow() throws IOException {
+        try (TraceReader reader = new TraceReader(trace("0,0,a-very-long-key-indeed,1\n1,0,,1\n"), 1, 16)) {
+            reader.next(new TraceRecord());
+        }
+    }
+}
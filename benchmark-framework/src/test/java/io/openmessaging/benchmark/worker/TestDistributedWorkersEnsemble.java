@@ -0,0 +1,192 @@
+package io.openmessaging.benchmark.worker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.apache.bookkeeper.stats.NullStatsLogger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.javalin.Javalin;
+import io.openmessaging.benchmark.Workers;
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+
+public class TestDistributedWorkersEnsemble {
+
+    /**
+     * Minimal worker answering heartbeats and clock requests, and succeeding every other request.
+     */
+    private static class FakeWorker {
+        final HttpServer server;
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        final Queue<String> requests = new ConcurrentLinkedQueue<>();
+        final Map<String, String> bodies = new ConcurrentHashMap<>();
+        final CountDownLatch requestReceived = new CountDownLatch(1);
+        final CountDownLatch releaseRequest = new CountDownLatch(1);
+        volatile String blockedPath;
+        volatile String failedPath;
+
+        FakeWorker() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", this::handle);
+            // Off the dispatcher thread, so that the server can be stopped while a request is blocked
+            server.setExecutor(executor);
+            server.start();
+        }
+
+        String url() {
+            return "http://localhost:" + server.getAddress().getPort();
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            String path = exchange.getRequestURI().getPath();
+            try {
+                if (path.equals("/heartbeat")) {
+                    respond(exchange, 200, "instance");
+                } else if (path.equals("/clock")) {
+                    respond(exchange, 200, Long.toString(System.currentTimeMillis()));
+                } else {
+                    requests.add(path);
+                    if (path.equals(blockedPath)) {
+                        requestReceived.countDown();
+                        releaseRequest.await();
+                    }
+                    respond(exchange, path.equals(failedPath) ? 500 : 200, bodies.getOrDefault(path, ""));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        }
+
+        private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+            if (bytes.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+        }
+
+        void kill() {
+            server.stop(0);
+            releaseRequest.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private final List<FakeWorker> fakeWorkers = new ArrayList<>();
+
+    private List<String> startWorkers(int count) throws IOException {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            FakeWorker worker = new FakeWorker();
+            fakeWorkers.add(worker);
+            urls.add(worker.url());
+        }
+        return urls;
+    }
+
+    @After
+    public void stopWorkers() {
+        fakeWorkers.forEach(FakeWorker::kill);
+    }
+
+    @Test
+    public void testWorkerKilledDuringRequestIsDroppedUnderContinue() throws Exception {
+        // With 3 workers, the first one produces and the last two consume
+        List<String> urls = startWorkers(3);
+        FakeWorker crashing = fakeWorkers.get(2);
+        crashing.blockedPath = "/pause-consumers";
+
+        try (DistributedWorkersEnsemble ensemble = new DistributedWorkersEnsemble(urls, false,
+                WorkerFailurePolicy.CONTINUE)) {
+            Thread killer = new Thread(() -> {
+                try {
+                    crashing.requestReceived.await(1, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                crashing.kill();
+            });
+            killer.start();
+
+            // The worker still has a recent heartbeat when its request fails, it must be dropped all the same
+            ensemble.pauseConsumers();
+            killer.join();
+
+            assertTrue(fakeWorkers.get(1).requests.contains("/pause-consumers"));
+
+            // The test goes on with the remaining consumer worker only
+            ensemble.resumeConsumers();
+            assertTrue(fakeWorkers.get(1).requests.contains("/resume-consumers"));
+            assertEquals(1, crashing.requests.size());
+        }
+    }
+
+    @Test
+    public void testFailedRequestOnLiveWorkerAborts() throws Exception {
+        List<String> urls = startWorkers(3);
+        fakeWorkers.get(2).failedPath = "/pause-consumers";
+
+        try (DistributedWorkersEnsemble ensemble = new DistributedWorkersEnsemble(urls, false,
+                WorkerFailurePolicy.CONTINUE)) {
+            ensemble.pauseConsumers();
+            fail("A failed request on a worker that is still alive should fail the test");
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testGroupLeaderMergesTheStatsOfTheLivePeers() throws Exception {
+        // A real worker leads the group, the two other members are fakes
+        Javalin leader = Javalin.create().port(0).start();
+        new WorkerHandler(leader, NullStatsLogger.INSTANCE);
+        try {
+            List<String> peers = startWorkers(2);
+            fakeWorkers.get(0).bodies.put("/period-stats", "{\"messagesSent\": 5}");
+            fakeWorkers.get(1).failedPath = "/period-stats";
+
+            Workers workers = new Workers();
+            workers.workers = new ArrayList<>(Arrays.asList("http://localhost:" + leader.port()));
+            workers.workers.addAll(peers);
+            workers.statsAggregation = "tree";
+            workers.statsAggregationFanout = 3;
+
+            try (DistributedWorkersEnsemble ensemble = new DistributedWorkersEnsemble(workers, false,
+                    WorkerFailurePolicy.CONTINUE)) {
+                PeriodStats stats = ensemble.getPeriodStats();
+
+                // The failed peer is reported, the stats of the leader and of the other peer are kept
+                assertEquals(Arrays.asList(peers.get(1)), stats.missingWorkers);
+                assertEquals(5, stats.messagesSent);
+            }
+        } finally {
+            leader.stop();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.openmessaging.benchmark.worker;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+import io.openmessaging.benchmark.worker.commands.PeriodStats;
+
+public class TestStatsAggregator {
+
+    private byte[] serialize(Histogram histogram) {
+        return WorkerHandler.toByteArray(WorkerHandler.serializeHistogram(histogram, ByteBuffer.allocate(1024)));
+    }
+
+    @Test
+    public void testParallelMergeMatchesSerialMerge() throws Exception {
+        Random r = new Random(0xBADBEEF);
+        Histogram expectedPublish = new Histogram(5);
+        Histogram expectedEndToEnd = new Histogram(5);
+        long expectedSent = 0;
+
+        List<PeriodStats> individualStats = new ArrayList<>();
+        for (int i = 0; i < 37; i++) {
+            Histogram publish = new Histogram(5);
+            Histogram endToEnd = new Histogram(5);
+            for (int j = 0; j < 100; j++) {
+                publish.recordValue(r.nextInt(100_000));
+                endToEnd.recordValue(r.nextInt(10_000_000));
+            }
+            expectedPublish.add(publish);
+            expectedEndToEnd.add(endToEnd);
+
+            PeriodStats stats = new PeriodStats();
+            stats.messagesSent = i;
+            expectedSent += i;
+            stats.publishLatencyBytes = serialize(publish);
+            stats.endToEndLatencyBytes = serialize(endToEnd);
+            stats.scheduleLatencyBytes = serialize(new Histogram(5));
+            stats.publishDelayLatencyBytes = serialize(new Histogram(5));
+            individualStats.add(stats);
+        }
+
+        try (StatsAggregator aggregator = new StatsAggregator(4)) {
+            PeriodStats merged = aggregator.mergePeriodStats(individualStats);
+            assertEquals(expectedSent, merged.messagesSent);
+            assertEquals(expectedPublish, merged.publishLatency);
+            assertEquals(expectedEndToEnd, merged.endToEndLatency);
+        }
+    }
+
+    @Test
+    public void testMergesTopicGroups() throws Exception {
+        Histogram expectedPublish = new Histogram(5);
+        List<PeriodStats> individualStats = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            Histogram publish = new Histogram(5);
+            publish.recordValue(1000 * (i + 1));
+            expectedPublish.add(publish);
+
+            PeriodStats group = emptyStats();
+            group.messagesSent = 10;
+            group.totalMessagesReceived = i;
+            group.publishLatencyBytes = serialize(publish);
+
+            PeriodStats stats = emptyStats();
+            stats.topicGroups.put("bulk", group);
+            if (i % 3 == 0) {
+                stats.topicGroups.put("small", emptyStats());
+            }
+            individualStats.add(stats);
+        }
+
+        try (StatsAggregator aggregator = new StatsAggregator(4)) {
+            PeriodStats merged = aggregator.mergePeriodStats(individualStats);
+            assertEquals(2, merged.topicGroups.size());
+            assertEquals(90, merged.topicGroups.get("bulk").messagesSent);
+            assertEquals(36, merged.topicGroups.get("bulk").totalMessagesReceived);
+            assertEquals(expectedPublish, merged.topicGroups.get("bulk").publishLatency);
+            assertEquals(0, merged.topicGroups.get("small").messagesSent);
+        }
+    }
+
+    private PeriodStats emptyStats() {
+        PeriodStats stats = new PeriodStats();
+        stats.publishLatencyBytes = serialize(new Histogram(5));
+        stats.endToEndLatencyBytes = serialize(new Histogram(5));
+        stats.scheduleLatencyBytes = serialize(new Histogram(5));
+        stats.publishDelayLatencyBytes = serialize(new Histogram(5));
+        return stats;
+    }
+}
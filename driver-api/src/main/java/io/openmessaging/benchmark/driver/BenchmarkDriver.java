@@ -15,7 +15,10 @@ package io.openmessaging.benchmark.driver;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 import org.apache.bookkeeper.stats.StatsLogger;
 
 /**
@@ -55,6 +58,39 @@ public interface BenchmarkDriver extends AutoCloseable {
         return CompletableFuture.completedFuture(true);
     }
 
+    /**
+     * Create a batch of topics with the same number of partitions.
+     *
+     * By default each topic is created with its own {@link #createTopic(String, int)} call. Drivers whose admin
+     * API can create several topics in one request should override this.
+     */
+    default CompletableFuture<Void> createTopics(List<String> topics, int partitions) {
+        return CompletableFuture.allOf(topics.stream()
+                .map(topic -> createTopic(topic, partitions))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Optionally validate that the given topics exist, returning the ones that do not.
+     *
+     * By default each topic is checked with {@link #validateTopicExists(String)}. Drivers that have to fetch
+     * the cluster metadata to check a topic should override this and fetch it only once.
+     */
+    default CompletableFuture<List<String>> validateTopicsExist(List<String> topicNames) {
+        List<CompletableFuture<Boolean>> futures = topicNames.stream()
+                .map(this::validateTopicExists)
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(x -> {
+            List<String> missing = new ArrayList<>();
+            for (int i = 0; i < topicNames.size(); i++) {
+                if (!futures.get(i).join()) {
+                    missing.add(topicNames.get(i));
+                }
+            }
+            return missing;
+        });
+    }
+
     /**
      * Create a producer for a given topic
      */
@@ -13,6 +13,7 @@
  */
 package io.openmessaging.benchmark.driver;
 
+import java.nio.ByteBuffer;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -29,4 +30,36 @@ public interface BenchmarkProducer extends AutoCloseable {
      */
     CompletableFuture<Void> sendAsync(Optional<String> key, byte[] payload);
 
+    /**
+     * Publish a message with a pre-encoded key. Drivers whose clients take the key as bytes should override this, to
+     * avoid encoding the key on every send.
+     *
+     * @param key
+     *            the key associated with this message, or null for no key
+     * @param payload
+     *            the message payload
+     * @return a future that will be triggered when the message is successfully published
+     */
+    default CompletableFuture<Void> sendAsync(MessageKey key, byte[] payload) {
+        return sendAsync(key == null ? Optional.empty() : Optional.of(key.asString()), payload);
+    }
+
+    /**
+     * Publish a message whose payload is a slice of a larger, possibly off-heap, buffer. The default copies the
+     * remaining bytes of the slice into an array; drivers whose clients take buffers should override this, to send
+     * the slice without copying it. The slice must not be modified, and its content stays valid until the returned
+     * future completes.
+     *
+     * @param key
+     *            the key associated with this message, or null for no key
+     * @param payload
+     *            the message payload, between the position and the limit of the buffer
+     * @return a future that will be triggered when the message is successfully published
+     */
+    default CompletableFuture<Void> sendAsync(MessageKey key, ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return sendAsync(key, bytes);
+    }
+
 }
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.openmessaging.benchmark.driver;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A message key with its UTF-8 encoding computed once, so that keys taken from a pool prepared before the test do
+ * not need to be encoded again on every send.
+ */
+public final class MessageKey {
+
+    private final String key;
+    private final byte[] bytes;
+
+    private MessageKey(String key) {
+        this.key = key;
+        this.bytes = key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static MessageKey of(String key) {
+        return new MessageKey(key);
+    }
+
+    public String asString() {
+        return key;
+    }
+
+    /**
+     * @return the UTF-8 encoding of the key, shared by all the sends with this key: it must not be modified
+     */
+    public byte[] asBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
@@ -49,7 +49,6 @@ import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
-import org.apache.kafka.common.serialization.StringSerializer;
 import org.apache.pulsar.client.api.Consumer;
 import org.apache.pulsar.client.api.ConsumerBuilder;
 import org.apache.pulsar.client.api.ProducerBuilder;
@@ -87,7 +86,7 @@ public class KopBenchmarkDriver implements BenchmarkDriver {
 
         producerProperties = new Properties();
         commonProperties.forEach(producerProperties::put);
-        producerProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
         producerProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
 
         consumerProperties = new Properties();
@@ -133,6 +132,37 @@ public class KopBenchmarkDriver implements BenchmarkDriver {
         return future;
     }
 
+    @Override
+    public CompletableFuture<Void> createTopics(List<String> topics, int partitions) {
+        // replicationFactor is meaningless in KoP
+        final List<NewTopic> newTopics = topics.stream()
+                .map(topic -> new NewTopic(topic, partitions, (short) 1L))
+                .collect(Collectors.toList());
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        admin.createTopics(newTopics).all().whenComplete((result, throwable) -> {
+            if (throwable == null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(throwable);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<List<String>> validateTopicsExist(List<String> topicNames) {
+        final CompletableFuture<List<String>> future = new CompletableFuture<>();
+        admin.listTopics().names().whenComplete((names, throwable) -> {
+            if (throwable == null) {
+                future.complete(topicNames.stream().filter(topic -> !names.contains(topic))
+                        .collect(Collectors.toList()));
+            } else {
+                future.completeExceptionally(throwable);
+            }
+        });
+        return future;
+    }
+
     @Override
     public CompletableFuture<BenchmarkProducer> createProducer(String topic) {
         if (config.producerType.equals(ClientType.KAFKA)) {
@@ -24,6 +24,7 @@ import java.io.StringReader;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 import org.apache.bookkeeper.stats.StatsLogger;
 import org.apache.kafka.clients.admin.AdminClient;
@@ -37,7 +38,6 @@ import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
-import org.apache.kafka.common.serialization.StringSerializer;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -71,7 +71,7 @@ public class KafkaBenchmarkDriver implements BenchmarkDriver {
         producerProperties = new Properties();
         commonProperties.forEach((key, value) -> producerProperties.put(key, value));
         producerProperties.load(new StringReader(config.producerConfig));
-        producerProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        producerProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
         producerProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
 
         consumerProperties = new Properties();
@@ -119,6 +119,36 @@ public class KafkaBenchmarkDriver implements BenchmarkDriver {
         });
     }
 
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Override
+    public CompletableFuture<Void> createTopics(List<String> topics, int partitions) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                List<NewTopic> newTopics = new ArrayList<>();
+                for (String topic : topics) {
+                    NewTopic newTopic = new NewTopic(topic, partitions, config.replicationFactor);
+                    newTopic.configs(new HashMap<>((Map) topicProperties));
+                    newTopics.add(newTopic);
+                }
+                admin.createTopics(newTopics).all().get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<String>> validateTopicsExist(List<String> topicNames) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Set<String> existing = admin.listTopics().names().get();
+                return topicNames.stream().filter(topic -> !existing.contains(topic)).collect(Collectors.toList());
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
     @Override
     public CompletableFuture<Void> notifyTopicCreation(String topic, int partitions) {
         // No-op
@@ -127,7 +157,7 @@ public class KafkaBenchmarkDriver implements BenchmarkDriver {
 
     @Override
     public CompletableFuture<BenchmarkProducer> createProducer(String topic) {
-        KafkaProducer<String, byte[]> kafkaProducer = new KafkaProducer<>(producerProperties);
+        KafkaProducer<byte[], byte[]> kafkaProducer = new KafkaProducer<>(producerProperties);
         BenchmarkProducer benchmarkProducer = new KafkaBenchmarkProducer(kafkaProducer, topic);
         try {
             // Add to producer list to close later
@@ -25,20 +25,27 @@ import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 
 import io.openmessaging.benchmark.driver.BenchmarkProducer;
+import io.openmessaging.benchmark.driver.MessageKey;
 
 public class KafkaBenchmarkProducer implements BenchmarkProducer {
 
-    private final KafkaProducer<String, byte[]> producer;
+    private final KafkaProducer<byte[], byte[]> producer;
     private final String topic;
 
-    public KafkaBenchmarkProducer(KafkaProducer<String, byte[]> producer, String topic) {
+    public KafkaBenchmarkProducer(KafkaProducer<byte[], byte[]> producer, String topic) {
         this.producer = producer;
         this.topic = topic;
     }
 
     @Override
     public CompletableFuture<Void> sendAsync(Optional<String> key, byte[] payload) {
-        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key.orElse(null), payload);
+        return sendAsync(key.map(MessageKey::of).orElse(null), payload);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageKey key, byte[] payload) {
+        ProducerRecord<byte[], byte[]> record = new ProducerRecord<>(topic, key == null ? null : key.asBytes(),
+                payload);
 
         CompletableFuture<Void> future = new CompletableFuture<>();
 
@@ -14,6 +14,7 @@
 package io.openmessaging.benchmark.driver.pravega;
 
 import io.openmessaging.benchmark.driver.BenchmarkProducer;
+import io.openmessaging.benchmark.driver.MessageKey;
 import io.pravega.client.EventStreamClientFactory;
 import io.pravega.client.stream.EventStreamWriter;
 import io.pravega.client.stream.EventWriterConfig;
@@ -59,6 +60,14 @@ public class PravegaBenchmarkProducer implements BenchmarkProducer {
         return writeEvent(key, ByteBuffer.wrap(payload));
     }
 
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageKey key, ByteBuffer payload) {
+        if (includeTimestampInEvent) {
+            return BenchmarkProducer.super.sendAsync(key, payload);
+        }
+        return writeEvent(key == null ? Optional.empty() : Optional.of(key.asString()), payload.slice());
+    }
+
     private CompletableFuture<Void> writeEvent(Optional<String> key, ByteBuffer payload) {
         return (key.isPresent()) ? writer.writeEvent(key.get(), payload) : writer.writeEvent(payload);
     }
@@ -33,7 +33,7 @@ import io.openmessaging.benchmark.driver.redis.client.RedisClientConfig;
 
 
 public class RedisBenchmarkDriver implements BenchmarkDriver {
-    JedisPool jedisPool;
+    volatile JedisPool jedisPool;
     private RedisClientConfig clientConfig;
 
     @Override
@@ -76,7 +76,11 @@ public class RedisBenchmarkDriver implements BenchmarkDriver {
         return CompletableFuture.completedFuture(new RedisBenchmarkConsumer( consumerId, topic, subscriptionName,jedisPool, consumerCallback));
     }
 
-    private void setupJedisConn() {
+    private synchronized void setupJedisConn() {
+        if (jedisPool != null) {
+            // Set up by another client created concurrently
+            return;
+        }
         JedisPoolConfig poolConfig = new JedisPoolConfig();
         poolConfig.setMaxTotal(this.clientConfig.jedisPoolMaxTotal);
         poolConfig.setMaxIdle(this.clientConfig.jedisPoolMaxIdle);
@@ -19,6 +19,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import io.openmessaging.benchmark.driver.BenchmarkProducer;
+import io.openmessaging.benchmark.driver.MessageKey;
 import redis.clients.jedis.*;
 import redis.clients.jedis.params.XAddParams;
 
@@ -35,11 +36,16 @@ public class RedisBenchmarkProducer implements BenchmarkProducer {
 
     @Override
     public CompletableFuture<Void> sendAsync(final Optional<String> key, final byte[] payload) {
+        return sendAsync(key.map(MessageKey::of).orElse(null), payload);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(final MessageKey key, final byte[] payload) {
         Map<byte[], byte[]> map1 = new HashMap<>();
         map1.put("payload".getBytes(), payload);
 
-        if (key.isPresent()) {
-            map1.put("key".getBytes(), key.toString().getBytes());
+        if (key != null) {
+            map1.put("key".getBytes(), key.asBytes());
         }
 
         CompletableFuture<Void> future = new CompletableFuture<>();
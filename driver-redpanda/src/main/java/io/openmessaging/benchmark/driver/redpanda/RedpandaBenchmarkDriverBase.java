@@ -35,7 +35,6 @@ import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
 import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
-import org.apache.kafka.common.serialization.StringSerializer;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -74,7 +73,7 @@ public abstract class RedpandaBenchmarkDriverBase implements BenchmarkDriver {
         producerProperties = new Properties();
         commonProperties.forEach((key, value) -> producerProperties.put(key, value));
         producerProperties.load(new StringReader(config.producerConfig));
-        producerProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        producerProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
         producerProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
 
         consumerProperties = new Properties();
@@ -161,6 +160,28 @@ public abstract class RedpandaBenchmarkDriverBase implements BenchmarkDriver {
 
     }
 
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Override
+    public CompletableFuture<Void> createTopics(List<String> topics, int partitions) {
+        log.info("Creating {} topics with {} partitions and replication of: {}",
+                topics.size(), partitions, config.replicationFactor);
+        List<NewTopic> newTopics = new ArrayList<>();
+        for (String topic : topics) {
+            NewTopic newTopic = new NewTopic(topic, partitions, config.replicationFactor);
+            newTopic.configs(new HashMap<>((Map) topicProperties));
+            newTopics.add(newTopic);
+        }
+        return toCompletableFuture(admin.createTopics(newTopics).all());
+    }
+
+    @Override
+    public CompletableFuture<List<String>> validateTopicsExist(List<String> topicNames) {
+        // List the cluster topics once for the whole batch
+        return toCompletableFuture(admin.listTopics(new ListTopicsOptions()).names())
+                .thenApply(names -> topicNames.stream().filter(topic -> !names.contains(topic))
+                        .collect(Collectors.toList()));
+    }
+
     @Override
     public void close() throws Exception {
         for (BenchmarkProducer producer : producers) {
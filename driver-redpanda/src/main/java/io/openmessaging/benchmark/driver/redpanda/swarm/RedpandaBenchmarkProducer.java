@@ -23,13 +23,14 @@ import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 
 import io.openmessaging.benchmark.driver.BenchmarkProducer;
+import io.openmessaging.benchmark.driver.MessageKey;
 
 public class RedpandaBenchmarkProducer implements BenchmarkProducer {
     private final UUID nodeId;
-    private final KafkaProducer<String, byte[]> producer;
+    private final KafkaProducer<byte[], byte[]> producer;
     private final String topic;
 
-    public RedpandaBenchmarkProducer(UUID nodeId, KafkaProducer<String, byte[]> producer, String topic) {
+    public RedpandaBenchmarkProducer(UUID nodeId, KafkaProducer<byte[], byte[]> producer, String topic) {
         this.nodeId = nodeId;
         this.producer = producer;
         this.topic = topic;
@@ -37,6 +38,11 @@ public class RedpandaBenchmarkProducer implements BenchmarkProducer {
 
     @Override
     public CompletableFuture<Void> sendAsync(Optional<String> key, byte[] payload) {
+        return sendAsync(key.map(MessageKey::of).orElse(null), payload);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageKey key, byte[] payload) {
         if (payload.length < 16 + 8) {
             throw new RuntimeException();
         }
@@ -47,7 +53,8 @@ public class RedpandaBenchmarkProducer implements BenchmarkProducer {
         RedpandaBenchmarkDriver.putUuid(bb, 0, nodeId);
         bb.putLong(16, System.nanoTime());
         
-        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key.orElse(null), data);
+        ProducerRecord<byte[], byte[]> record = new ProducerRecord<>(topic, key == null ? null : key.asBytes(),
+                data);
 
         CompletableFuture<Void> future = new CompletableFuture<>();
 
@@ -42,10 +42,12 @@ public class RedpandaBenchmarkDriver extends RedpandaBenchmarkDriverBase {
 
     @Override
     public CompletableFuture<BenchmarkProducer> createProducer(String topic) {
-        Properties properties = producerProperties;
+        // Producers may be created concurrently, so do not modify the shared properties
+        Properties properties = new Properties();
+        properties.putAll(producerProperties);
         properties.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG,
                 String.format("omb-tx-%d-%s", producerId.getAndIncrement(), UUID.randomUUID()));
-        KafkaProducer<String, byte[]> kafkaProducer = new KafkaProducer<>(properties);
+        KafkaProducer<byte[], byte[]> kafkaProducer = new KafkaProducer<>(properties);
         // initialize producer transactions
 
         BenchmarkProducer benchmarkProducer = new RedpandaBenchmarkProducer(kafkaProducer, topic,
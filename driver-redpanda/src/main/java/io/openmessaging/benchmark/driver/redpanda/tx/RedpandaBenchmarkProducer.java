@@ -14,6 +14,7 @@
 package io.openmessaging.benchmark.driver.redpanda.tx;
 
 import io.openmessaging.benchmark.driver.BenchmarkProducer;
+import io.openmessaging.benchmark.driver.MessageKey;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.errors.InvalidProducerEpochException;
@@ -28,7 +29,7 @@ import java.util.concurrent.atomic.LongAdder;
 
 public class RedpandaBenchmarkProducer implements BenchmarkProducer {
     final Logger logger = LoggerFactory.getLogger(RedpandaBenchmarkProducer.class);
-    private final KafkaProducer<String, byte[]> producer;
+    private final KafkaProducer<byte[], byte[]> producer;
     private final String topic;
     private final int requestsPerTransaction;
     private final LongAdder cnt = new LongAdder();
@@ -42,7 +43,7 @@ public class RedpandaBenchmarkProducer implements BenchmarkProducer {
 
     private ProducerState state = ProducerState.NEEDS_INIT;
 
-    public RedpandaBenchmarkProducer(KafkaProducer<String, byte[]> producer, String topic,
+    public RedpandaBenchmarkProducer(KafkaProducer<byte[], byte[]> producer, String topic,
             int requestsPerTransaction) {
 
         this.producer = producer;
@@ -54,6 +55,11 @@ public class RedpandaBenchmarkProducer implements BenchmarkProducer {
 
     @Override
     public CompletableFuture<Void> sendAsync(Optional<String> key, byte[] payload) {
+        return sendAsync(key.map(MessageKey::of).orElse(null), payload);
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageKey key, byte[] payload) {
         if (payload.length < 16 + 8) {
             throw new RuntimeException();
         }
@@ -92,7 +98,8 @@ public class RedpandaBenchmarkProducer implements BenchmarkProducer {
             state = ProducerState.READY;
 
             byte[] data = Arrays.copyOf(payload, payload.length);
-            ProducerRecord<String, byte[]> record = new ProducerRecord<String, byte[]>(topic, key.orElse(null), data);
+            ProducerRecord<byte[], byte[]> record = new ProducerRecord<>(topic, key == null ? null : key.asBytes(),
+                    data);
 
             cnt.increment();
             producer.send(record, (metadata, exception) -> {